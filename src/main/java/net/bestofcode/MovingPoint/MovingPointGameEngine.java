@@ -25,31 +25,56 @@ package net.bestofcode.MovingPoint;
 
 import net.bestofcode.MovingPoint.annotations.Refactor;
 import net.bestofcode.MovingPoint.annotations.Remove;
+import net.bestofcode.MovingPoint.asset.AssetLoadingListener;
+import net.bestofcode.MovingPoint.asset.AssetManifest;
+import net.bestofcode.MovingPoint.asset.AssetPack;
+import net.bestofcode.MovingPoint.asset.AssetPreloader;
+import net.bestofcode.MovingPoint.asset.AssetResolver;
 import net.bestofcode.MovingPoint.audio.MovingPointAudioMethodCollection;
+import net.bestofcode.MovingPoint.audio.Sound;
 import net.bestofcode.MovingPoint.event.IMovingPointEventManager;
 import net.bestofcode.MovingPoint.event.keyboardEvent.KeyboardManager;
 import net.bestofcode.MovingPoint.event.keyboardEvent.configuration.DefaultKey;
 import net.bestofcode.MovingPoint.event.keyboardEvent.configuration.KeyboardConfiguration;
 import net.bestofcode.MovingPoint.logic.GameObject;
 import net.bestofcode.MovingPoint.logic.GameObjectQuery;
+import net.bestofcode.MovingPoint.loop.GameLoop;
+import net.bestofcode.MovingPoint.loop.GameLoopListener;
 import net.bestofcode.MovingPoint.math.Position;
 import net.bestofcode.MovingPoint.math.Vector;
 import net.bestofcode.MovingPoint.render.Colour;
+import net.bestofcode.MovingPoint.render.DamageTracker;
 import net.bestofcode.MovingPoint.render.gamewindow.GameWindow;
 import net.bestofcode.MovingPoint.render.GraphicalComponent;
 import net.bestofcode.MovingPoint.render.IGraphicalComponent;
+import net.bestofcode.MovingPoint.render.RenderMode;
+import net.bestofcode.MovingPoint.render.camera.Camera;
+import net.bestofcode.MovingPoint.render.animation.AnimatedSprite;
+import net.bestofcode.MovingPoint.render.animation.AnimationClock;
 import net.bestofcode.MovingPoint.render.gamewindow.GameWindowConfiguration;
+import net.bestofcode.MovingPoint.render.grid.CellColouring;
+import net.bestofcode.MovingPoint.render.grid.CellWidth;
 import net.bestofcode.MovingPoint.render.grid.Grid;
+import net.bestofcode.MovingPoint.render.grid.GridLayer;
+import net.bestofcode.MovingPoint.render.layer.Layer;
+import net.bestofcode.MovingPoint.render.layer.LayerPainter;
+import net.bestofcode.MovingPoint.render.layer.LayerStack;
 import net.bestofcode.MovingPoint.render.settings.Height;
 import net.bestofcode.MovingPoint.render.settings.Width;
 import net.bestofcode.MovingPoint.render.texture.Picture;
 import net.bestofcode.MovingPoint.render.texture.Sprite;
 
 import javax.swing.*;
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 public class MovingPointGameEngine implements IMovingPointEventManager {
@@ -83,6 +108,14 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
     DecimalFormat decimalNumberFormat = new DecimalFormat("#.##");
     private GraphicalComponent graphicalComponent;
     private Grid grid;
+    /* last cell painted by strokeCell() and the mouse press the stroke belongs to */
+    private int strokeColumn;
+    private int strokeRow;
+    private long strokeMousePress = -1;
+    /* number of bits which store the state of a grid cell */
+    private CellWidth gridCellWidth = CellWidth.INT;
+    /* information if the grid only stores the chunks which have been written */
+    private boolean chunkedGrid = false;
     /* information if grid is enabled or not */
     private boolean allowGrid = this.grid != null;
     private double speedMultiplier = 1;
@@ -90,6 +123,52 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
     private Width gameWindowWidth = new Width(1000);
     private Height gameWindowHeight = new Height(1000);
     private boolean debug;
+    private final AnimationClock animationClock = new AnimationClock();
+    private AssetPreloader assetPreloader;
+    private GameLoop gameLoop;
+    // position at the last simulation step, used to interpolate between steps
+    private final Position previousPosition = new Position(0, 0);
+    // a held key applies its action this often per second, about as often as the key repeat moved the player before
+    private static final double KEY_ACTIONS_PER_SECOND = 25;
+    // one call of move() is a simulation step of the old loop, which slept 50 ms per step
+    private static final double MOVE_STEP_IN_SECONDS = 0.05;
+    // cells the player moves with relative movement, recorded by keyPressed() and applied by the next simulation step
+    private final Object inputLock = new Object();
+    private int pendingCellMovesX;
+    private int pendingCellMovesY;
+    // radius of the circle of a game object
+    private static final double GAME_OBJECT_RADIUS = 0.01;
+    // positions of the visible game objects, reused every frame to draw them in one batch
+    private double[] gameObjectX = new double[0];
+    private double[] gameObjectY = new double[0];
+    private final ArrayList<GameObject> visibleGameObjects = new ArrayList<GameObject>();
+    private final Rectangle2D visibleBounds = new Rectangle2D.Double();
+    // number of game objects which were drawn or skipped outside of the axis range by the last frame
+    private int drawnGameObjects;
+    private int culledGameObjects;
+    // finds the damaged parts of the canvas, null if every frame is drawn completely
+    private DamageTracker damageTracker;
+    // the parts of the canvas which were redrawn by the last frame, null for the whole canvas
+    private List<Rectangle> damagedRegions;
+    // bounds of the object which is tracked next, copied by the damage tracker
+    private final Rectangle trackedBounds = new Rectangle();
+    // transform version of the canvas the damage was tracked for, a new scale or camera position changes every pixel
+    private long damagedTransformVersion;
+    // scrolls, zooms and rotates the world, null until getCamera() is called
+    private Camera camera;
+    // background picture and other static drawings, drawn by every frame with a single blit
+    private final LayerStack staticLayers = new LayerStack(GraphicalComponent.LIGHT_GRAY);
+    private Layer backgroundLayer;
+    // cached grid lines and the arguments of the grid() call they were painted for
+    private Layer gridLayer;
+    private int gridLayerVariant;
+    private int gridLayerCellsPerRow;
+    private double gridLayerBorder;
+    private Color gridLayerColor;
+    private double gridLayerPenRadius;
+    // colors of the cell states and the layer which keeps the painted cells, null if the cells are not drawn
+    private CellColouring gridCellColouring;
+    private GridLayer gridCellLayer;
 
     /**
      * Constructor for the net.bestofcode.MovingPointGameEngine.MovingPointGameEngine object
@@ -148,6 +227,37 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
 
     }
 
+    /**
+     * Constructor for the net.bestofcode.MovingPointGameEngine.MovingPointGameEngine object
+     * with a custom render mode, e.g. RenderMode.ACTIVE for large canvases
+     *
+     * @param canvasWidth  - sets the canvas' width
+     * @param canvasHeight - sets the canvas' height
+     * @param name         - sets the game name
+     * @param renderMode   - sets how frames are presented on the screen
+     */
+
+    public MovingPointGameEngine(int canvasWidth, int canvasHeight, String name, RenderMode renderMode) {
+
+        this.graphicalComponent = new GraphicalComponent(name, renderMode);
+
+        this.keyboardManager = new KeyboardManager(this.keyboardConfiguration, this.graphicalComponent);
+
+        this.gameWindowConfiguration = new GameWindowConfiguration(new Width(canvasWidth), new Height(canvasHeight));
+
+        graphicalComponent.setCanvasSize(
+                (this.gameWindowWidth = new Width(canvasWidth)).getValue(),
+                (this.gameWindowHeight = new Height(canvasHeight)).getValue()
+        );
+
+        graphicalComponent.setXscale(-1, 1);
+        graphicalComponent.setYscale(-1, 1);
+        graphicalComponent.addListener(this); // (1)
+        graphicalComponent.clear(GraphicalComponent.LIGHT_GRAY);
+        graphicalComponent.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+    }
+
     /**
      * Default-Constructor for the net.bestofcode.MovingPointGameEngine.MovingPointGameEngine object
      */
@@ -240,19 +350,146 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
         movingPoint.debug(1);
 
 
-        while (true) {
+        movingPoint.run();
+    }
+
+    /**
+     * run
+     * Runs the game loop on the calling thread. The simulation is advanced in
+     * fixed steps, frames are drawn as often as the frame cap allows and the
+     * player is interpolated between the last two steps. Use getGameLoop() to
+     * change the tick rate or the frame cap before calling run().
+     */
+    public void run() {
+
+        this.graphicalComponent.enableDoubleBuffering();
+        this.getGameLoop().run();
+
+    }
+
+    /**
+     * setDirtyRectangleRendering
+     * Redraws only the parts of the canvas which changed since the last frame,
+     * i.e. where the player or a game object moved, appeared or disappeared, and
+     * shows only these parts. This is much faster for static maps with a few
+     * moving actors. While the debug information, the info menu or the cursor
+     * mode are shown, frames are drawn completely. Call invalidateFrame() after
+     * drawing something yourself.
+     *
+     * @param enabled - true to redraw only the damaged parts
+     */
+    public void setDirtyRectangleRendering(boolean enabled) {
+
+        this.damageTracker = enabled
+                ? new DamageTracker(this.gameWindowWidth.getValue(), this.gameWindowHeight.getValue())
+                : null;
+        this.damagedRegions = null;
+
+    }
+
+    /**
+     * getFramePixels
+     * Copies the pixels of the last frame, e.g. to compare the frames of a
+     * headless regression scene with RenderMode.HEADLESS.
+     *
+     * @param pixels - the array to copy into, may be null
+     * @return the ARGB values of the frame, row by row from the upper left corner
+     */
+    public int[] getFramePixels(int[] pixels) {
+
+        return this.graphicalComponent.getPixels(pixels);
+
+    }
+
+    /**
+     * recordFrames
+     * Writes every following frame into an image file on a background thread.
+     *
+     * @param filenamePattern - the name of the files with the frame number, e.g. "frames/frame-%05d.png"
+     */
+    public void recordFrames(String filenamePattern) {
+
+        this.graphicalComponent.startRecording(filenamePattern);
+
+    }
+
+    /**
+     * stopRecordingFrames
+     * Stops recording the frames and waits until all files are written.
+     */
+    public void stopRecordingFrames() {
+
+        this.graphicalComponent.stopRecording();
+
+    }
+
+    /**
+     * invalidateFrame
+     * Redraws the whole canvas during the next frame, if dirty rectangle rendering is enabled.
+     */
+    public void invalidateFrame() {
+
+        if (this.damageTracker != null)
+            this.damageTracker.invalidate();
+
+    }
+
+    /**
+     * enableRenderThread
+     * Rasterizes the frames on a separate thread, so the next simulation step
+     * runs while the previous frame is drawn. Has to be called before run().
+     */
+    public void enableRenderThread() {
+
+        this.graphicalComponent.enableRenderThread();
+
+    }
+
+    /**
+     * enableTiledRasterization
+     * Rasterizes the frames on all cores, every core draws a part of the
+     * canvas. Useful for large canvases, enables the render thread.
+     */
+    public void enableTiledRasterization() {
+
+        this.graphicalComponent.enableTiledRasterization();
+
+    }
 
-            movingPoint.mouseHover();
-            movingPoint.move();
-            //movingPoint.drawPicture(0, 0, new Picture("Doodler.png"));
-            movingPoint.sleep(50);
+    /**
+     * getGameLoop
+     * Returns the loop which is used by run(), e.g. to read the measured frame time.
+     *
+     * @return the game loop of this engine
+     */
+    public GameLoop getGameLoop() {
 
+        if (this.gameLoop == null) {
+            this.gameLoop = new GameLoop(new GameLoopListener() {
+
+                @Override
+                public void update(double deltaInSeconds) {
+                    previousPosition.x = position.x;
+                    previousPosition.y = position.y;
+                    movePlayer(deltaInSeconds);
+                    animationClock.advanceInSeconds(deltaInSeconds);
+                }
+
+                @Override
+                public void render(double alpha) {
+                    drawFrame(alpha);
+                    showFrame();
+                }
+            });
         }
+
+        return this.gameLoop;
+
     }
 
     /**
      * getUIComponent
-     * Returns the underlying JFrame for UI-creation
+     * Returns the underlying JFrame for UI-creation, null if the render mode is headless
      *
      * @return
      */
@@ -371,11 +608,152 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
         this.gameWindowWidth = new Width(canvasWidth);
         this.gameWindowHeight = new Height(canvasHeight);
 
+        if (this.damageTracker != null)
+            this.damageTracker.setCanvasSize(canvasWidth, canvasHeight);
+
     }
 
     public void setBackgroundImage(Picture picture) {
 
         this.backgroundFile = picture;
+        this.invalidateFrame();
+
+        // the background is the bottom static layer, it is only painted again if it changes
+        if (this.backgroundLayer == null)
+            this.backgroundLayer = this.staticLayers.add(0, graphicalComponent -> graphicalComponent.picture(0, 0, this.backgroundFile.getFilePath()));
+        else
+            this.backgroundLayer.invalidate();
+
+        // decode the picture now, so move() does not have to read the file
+        this.graphicalComponent.preloadPicture(picture.getFilePath());
+
+    }
+
+    /**
+     * addStaticLayer
+     * Adds a layer of static drawings, e.g. walls, on top of the background. The
+     * painter is called once and the result is cached, so every frame draws all
+     * static layers with a single blit. Call invalidate() on the returned layer
+     * after its content changed. Resizing the canvas or changing its range
+     * paints the layers again automatically.
+     *
+     * @param painter - draws the content of the layer
+     * @return the layer
+     */
+    public Layer addStaticLayer(LayerPainter painter) {
+
+        this.invalidateFrame();
+        return this.staticLayers.add(painter);
+
+    }
+
+    /**
+     * removeStaticLayer
+     * Removes a layer which was added by addStaticLayer().
+     */
+    public void removeStaticLayer(Layer layer) {
+
+        this.invalidateFrame();
+        this.staticLayers.remove(layer);
+
+    }
+
+    /**
+     * loadAssetPack
+     * Maps an asset pack into memory. All pictures, sprites and sounds which are
+     * part of the pack are afterwards read from it instead of their own files.
+     * Create the pack with net.bestofcode.MovingPointGameEngine.AssetPackWriter.
+     *
+     * @param filename - path of the pack, e.g. "assets.mpak"
+     * @throws IOException if the pack can not be read
+     */
+    public void loadAssetPack(String filename) throws IOException {
+
+        AssetResolver.getDefault().mount(AssetPack.open(new File(filename)));
+
+    }
+
+    /**
+     * preload
+     * Decodes all pictures and sounds of the manifest on background threads, so
+     * move() never has to read a file. The returned future can be used to wait
+     * for the assets, the listener to draw a loading screen meanwhile.
+     *
+     * @param assetManifest - the assets of the scene
+     * @param listener      - receives the number of loaded assets, may be null
+     * @return a future which completes after all assets are loaded
+     */
+    public CompletableFuture<Void> preload(AssetManifest assetManifest, AssetLoadingListener listener) {
+
+        if (this.assetPreloader == null)
+            this.assetPreloader = new AssetPreloader(this.graphicalComponent::preloadPicture, MovingPointAudioMethodCollection::preload);
+
+        return this.assetPreloader.preload(assetManifest, listener);
+
+    }
+
+    /**
+     * preload
+     * Decodes the pictures and sprites on background threads
+     */
+    public CompletableFuture<Void> preload(IGraphicalComponent... pictures) {
+
+        AssetManifest assetManifest = new AssetManifest();
+
+        for (IGraphicalComponent picture : pictures)
+            assetManifest.addPicture(picture.getFilePath());
+
+        return this.preload(assetManifest, null);
+
+    }
+
+    /**
+     * preload
+     * Decodes the sounds on background threads
+     */
+    public CompletableFuture<Void> preload(Sound... sounds) {
+
+        AssetManifest assetManifest = new AssetManifest();
+
+        for (Sound sound : sounds)
+            assetManifest.addSound(sound.getFilePath());
+
+        return this.preload(assetManifest, null);
+
+    }
+
+    /**
+     * packTextures
+     * Packs the given pictures and sprites into a few large sheets, so drawing
+     * many different textures only touches a few images. Call this once at startup.
+     *
+     * @param textures - all pictures and sprites of the scene
+     */
+    public void packTextures(IGraphicalComponent... textures) {
+
+        String[] filePaths = new String[textures.length];
+
+        for (int i = 0; i < textures.length; i++)
+            filePaths[i] = textures[i].getFilePath();
+
+        this.graphicalComponent.packTextures(filePaths);
+
+    }
+
+    /**
+     * setPlayerSprite
+     * Draws the player object with the given sprite instead of a filled circle.
+     * The sprite is decoded immediately, so move() does not have to read the file.
+     *
+     * @param sprite - the sprite of the player object
+     */
+    public void setPlayerSprite(Sprite sprite) {
+
+        this.playerObjectSprite = sprite;
+        this.invalidateFrame();
+
+        if (sprite != null)
+            this.graphicalComponent.preloadPicture(sprite.getFilePath());
 
     }
 
@@ -388,6 +766,7 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
         graphicalComponent.setXscale(minimumValueOnXAxis, maximumValueOnXAxis);
         this.gameWindowConfiguration.setMinimumValueOnXAxis(minimumValueOnXAxis);
         this.gameWindowConfiguration.setMaximumValueOnXAxis(maximumValueOnXAxis);
+        this.invalidateFrame();
 
     }
 
@@ -399,6 +778,7 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
         graphicalComponent.setYscale(minimumValueOnYAxis, maximumValueOnYAxis);
         this.gameWindowConfiguration.setMinimumValueOnYAxis(minimumValueOnYAxis);
         this.gameWindowConfiguration.setMaximumValueOnYAxis(maximumValueOnYAxis);
+        this.invalidateFrame();
 
     }
 
@@ -436,9 +816,8 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
 
     /***
      * grid() net.bestofcode.MovingPointGameEngine.GraphicalComponent a grid of size n*n in your canvas. Also sets a boolean if grid is
-     * enabled. If this is the first graphicalComponent of your grid, all statesOfAllGridCells centers will be
-     * calculated and stored in the array gridCellCenterCoordinates. Check the comment on gridCellCenterCoordinates to
-     * understand how it is used.
+     * enabled. If this is the first graphicalComponent of your grid, the cells are placed, their centers are
+     * computed by Grid.getCellCenterX() and Grid.getCellCenterY().
      *
      */
 
@@ -446,7 +825,9 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
     public void grid(int cellsPerRow) {
 
         if (this.grid == null) {
-            this.grid = Grid.create(cellsPerRow, this.gameWindowConfiguration);
+            this.grid = this.chunkedGrid
+                    ? Grid.createChunked(cellsPerRow, this.gridCellWidth, this.gameWindowConfiguration)
+                    : Grid.create(cellsPerRow, this.gridCellWidth, this.gameWindowConfiguration);
         }
 
         if (this.gameWindowWidth.getValue() != this.gameWindowHeight.getValue()) {
@@ -463,56 +844,39 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
 
         // calculate centers of each cell:
         if (!this.allowGrid) {
-            int rowIterator = 0;
-            int columnIterator = 0;
-            this.grid.statesOfAllGridCells = new int[cellsPerRow][cellsPerRow];
+            // the centers of the cells are computed from the first one, so scrolling the grid does not touch every cell
+            this.grid.setCellCenters((step / 2) / this.grid.coordinateAxisRange,
+                    this.gameWindowConfiguration.getMaximumValueOnYAxis() - (step / 2) / this.grid.coordinateAxisRange,
+                    step / this.grid.coordinateAxisRange);
 
-            // loop through all statesOfAllGridCells of the grid and set their states to -1
-            // so there is no NullPointerException
-            for (int t = 0; t < cellsPerRow; t++)
-                for (int q = 0; q < cellsPerRow; q++)
-                    this.grid.statesOfAllGridCells[t][q] = -1;
-
-            this.grid.gridCellCenterCoordinates = new double[cellsPerRow][cellsPerRow][2];
-            for (double secondIterator = this.gameWindowConfiguration.getMaximumValueOnYAxis() - ((step / 2) / this.grid.coordinateAxisRange);
-                 columnIterator < this.grid.statesOfAllGridCells.length;
-                 secondIterator -= (step / this.grid.coordinateAxisRange)) {
+        }
 
-                for (double iterator = ((step / 2) / this.grid.coordinateAxisRange);
-                     rowIterator < this.grid.statesOfAllGridCells[0].length;
-                     iterator += (step / this.grid.coordinateAxisRange)) {
+        this.allowGrid = true;
 
-                    this.grid.gridCellCenterCoordinates[rowIterator][columnIterator][0] = iterator;
-                    this.grid.gridCellCenterCoordinates[rowIterator][columnIterator][1] = secondIterator;
-                    rowIterator++;
+        this.drawGridCells();
 
-                }
+        if (this.isGridLayerOutdated(1, cellsPerRow, 0, this.graphicalComponent.getPenColor())) {
+            this.setGridLayerPainter(graphicalComponent -> {
 
-                rowIterator = 0;
-                columnIterator++;
+                double iterator = this.gameWindowConfiguration.getMinimumValueOnXAxis();
+                while (iterator <= this.gameWindowConfiguration.getMaximumValueOnYAxis()) {
 
-            }
+                    graphicalComponent.line(iterator, this.gameWindowConfiguration.getMinimumValueOnYAxis(), iterator, this.gameWindowConfiguration.getMaximumValueOnYAxis());
+                    graphicalComponent.line(this.gameWindowConfiguration.getMinimumValueOnXAxis(), iterator, this.gameWindowConfiguration.getMaximumValueOnXAxis(), iterator);
+                    iterator += step / this.grid.coordinateAxisRange;
 
+                }
+            });
         }
 
-        this.allowGrid = true;
-
-        double iterator = this.gameWindowConfiguration.getMinimumValueOnXAxis();
-        while (iterator <= this.gameWindowConfiguration.getMaximumValueOnYAxis()) {
-
-            graphicalComponent.line(iterator, this.gameWindowConfiguration.getMinimumValueOnYAxis(), iterator, this.gameWindowConfiguration.getMaximumValueOnYAxis());
-            graphicalComponent.line(this.gameWindowConfiguration.getMinimumValueOnXAxis(), iterator, this.gameWindowConfiguration.getMaximumValueOnXAxis(), iterator);
-            iterator += step / this.grid.coordinateAxisRange;
-
-        }
+        this.gridLayer.draw(this.graphicalComponent);
     }
 
     /***
      * grid() net.bestofcode.MovingPointGameEngine.GraphicalComponent a grid of size n*n in your canvas surrounded by a border, useful
      * to display texts outside of the grid. Also sets a boolean if grid is enabled.
-     * If this is the first graphicalComponent of your grid, all statesOfAllGridCells centers will be calculated
-     * and stored in the array gridCellCenterCoordinates. Check the comment on gridCellCenterCoordinates to understand
-     * how it is used.
+     * If this is the first graphicalComponent of your grid, the cells are placed, their centers are computed
+     * by Grid.getCellCenterX() and Grid.getCellCenterY().
      *
      */
 
@@ -520,7 +884,9 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
     public void grid(int cellsPerRow, double border) {
 
         if (this.grid == null) {
-            this.grid = Grid.create(cellsPerRow, this.gameWindowConfiguration);
+            this.grid = this.chunkedGrid
+                    ? Grid.createChunked(cellsPerRow, this.gridCellWidth, this.gameWindowConfiguration)
+                    : Grid.create(cellsPerRow, this.gridCellWidth, this.gameWindowConfiguration);
         }
 
         if (this.gameWindowWidth.getValue() != this.gameWindowHeight.getValue()) {
@@ -542,54 +908,40 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
 
             graphicalComponent.setXscale(this.gameWindowConfiguration.getMinimumValueOnXAxis(), this.gameWindowConfiguration.getMaximumValueOnXAxis());
             graphicalComponent.setYscale(this.gameWindowConfiguration.getMinimumValueOnYAxis(), this.gameWindowConfiguration.getMaximumValueOnYAxis());
-            int rowIterator = 0;
-            int columnIterator = 0;
-            this.grid.statesOfAllGridCells = new int[cellsPerRow][cellsPerRow];
-
-            // loop through all statesOfAllGridCells of the grid and set their states to -1
-            // so there is no NullPointerException
-            for (int t = 0; t < cellsPerRow; t++)
-                for (int q = 0; q < cellsPerRow; q++)
-                    this.grid.statesOfAllGridCells[t][q] = -1;
-
-            this.grid.gridCellCenterCoordinates = new double[cellsPerRow][cellsPerRow][2];
-            // refactor this term, seems complicated
-            for (double secondIterator = this.gameWindowConfiguration.getMaximumValueOnYAxis() - (((step / 2) + border) / this.grid.coordinateAxisRange);
-                 columnIterator < this.grid.statesOfAllGridCells.length;
-                 secondIterator -= step / this.grid.coordinateAxisRange) {
-
-                for (double iterator = (((step / 2) + border) / this.grid.coordinateAxisRange);
-                     rowIterator < this.grid.statesOfAllGridCells[0].length;
-                     iterator += step / this.grid.coordinateAxisRange) {
-
-                    this.grid.gridCellCenterCoordinates[rowIterator][columnIterator][0] = iterator;
-                    this.grid.gridCellCenterCoordinates[rowIterator][columnIterator][1] = secondIterator;
-                    rowIterator++;
-                }
-                rowIterator = 0;
-                columnIterator++;
-            }
+            // the centers of the cells are computed from the first one, so scrolling the grid does not touch every cell
+            this.grid.setCellCenters(((step / 2) + border) / this.grid.coordinateAxisRange,
+                    this.gameWindowConfiguration.getMaximumValueOnYAxis() - ((step / 2) + border) / this.grid.coordinateAxisRange,
+                    step / this.grid.coordinateAxisRange);
 
         }
 
         this.allowGrid = true;
 
-        double iterator = this.gameWindowConfiguration.getMinimumValueOnXAxis() + border;
-        while (iterator <= this.gameWindowConfiguration.getMaximumValueOnYAxis() - border) {
+        this.drawGridCells();
+
+        if (this.isGridLayerOutdated(2, cellsPerRow, border, this.graphicalComponent.getPenColor())) {
+            this.setGridLayerPainter(graphicalComponent -> {
 
-            this.drawLine(iterator, (this.gameWindowConfiguration.getMinimumValueOnYAxis() + border), iterator, (this.gameWindowConfiguration.getMaximumValueOnYAxis() - border));
-            this.drawLine((this.gameWindowConfiguration.getMinimumValueOnXAxis() + border), iterator, (this.gameWindowConfiguration.getMaximumValueOnXAxis() - border), iterator);
-            iterator += step;
+                double iterator = this.gameWindowConfiguration.getMinimumValueOnXAxis() + border;
+                while (iterator <= this.gameWindowConfiguration.getMaximumValueOnYAxis() - border) {
 
+                    graphicalComponent.line(iterator, (this.gameWindowConfiguration.getMinimumValueOnYAxis() + border), iterator, (this.gameWindowConfiguration.getMaximumValueOnYAxis() - border));
+                    graphicalComponent.line((this.gameWindowConfiguration.getMinimumValueOnXAxis() + border), iterator, (this.gameWindowConfiguration.getMaximumValueOnXAxis() - border), iterator);
+                    iterator += step;
+
+                }
+            });
         }
+
+        this.gridLayer.draw(this.graphicalComponent);
     }
 
     /***
      * grid() net.bestofcode.MovingPointGameEngine.GraphicalComponent a grid of size n*n in your canvas surrounded by a border, useful
      * to display texts outside of the grid. Also sets a boolean if grid is enabled.
      * You can change the grid's color by using this method. If this is the first
-     * graphicalComponent of your grid, all statesOfAllGridCells centers will be calculated and stored in the
-     * array gridCellCenterCoordinates. Check the comment on gridCellCenterCoordinates to understand how it is used.
+     * graphicalComponent of your grid, the cells are placed, their centers are computed by Grid.getCellCenterX()
+     * and Grid.getCellCenterY().
      *
      */
 
@@ -597,7 +949,9 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
     public void grid(int cellsPerRow, double border, Colour color) {
 
         if (this.grid == null) {
-            this.grid = Grid.create(cellsPerRow, this.gameWindowConfiguration);
+            this.grid = this.chunkedGrid
+                    ? Grid.createChunked(cellsPerRow, this.gridCellWidth, this.gameWindowConfiguration)
+                    : Grid.create(cellsPerRow, this.gridCellWidth, this.gameWindowConfiguration);
         }
 
         if (this.gameWindowWidth.getValue() != this.gameWindowHeight.getValue()) {
@@ -616,51 +970,36 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
         // calculate centers of each cell:
         if (!this.allowGrid) {
 
-            int rowIterator = 0;
-            int columnIterator = 0;
+            // the centers of the cells are computed from the first one, so scrolling the grid does not touch every cell
+            this.grid.setCellCenters((step / 2) / this.grid.coordinateAxisRange,
+                    this.gameWindowConfiguration.getMaximumValueOnYAxis() - (step / 2) / this.grid.coordinateAxisRange,
+                    step / this.grid.coordinateAxisRange);
 
-            this.grid.statesOfAllGridCells = new int[cellsPerRow][cellsPerRow];
+        }
 
-            // loop through all statesOfAllGridCells of the grid and set their states to -1
-            // so there is no NullPointerException
-            for (int t = 0; t < cellsPerRow; t++)
-                for (int q = 0; q < cellsPerRow; q++)
-                    this.grid.statesOfAllGridCells[t][q] = -1;
+        this.allowGrid = true;
 
-            this.grid.gridCellCenterCoordinates = new double[cellsPerRow][cellsPerRow][2];
+        this.drawGridCells();
 
-            for (double secondIterator = this.gameWindowConfiguration.getMaximumValueOnYAxis() - ((step / 2) / this.grid.coordinateAxisRange);
+        if (this.isGridLayerOutdated(3, cellsPerRow, border, color)) {
+            this.setGridLayerPainter(graphicalComponent -> {
 
-                 columnIterator < this.grid.statesOfAllGridCells.length;
-                 secondIterator -= (step / this.grid.coordinateAxisRange)) {
+                double iterator = this.gameWindowConfiguration.getMinimumValueOnXAxis() + border;
 
-                for (double iterator = ((step / 2) / this.grid.coordinateAxisRange);
-                     rowIterator < this.grid.statesOfAllGridCells[0].length;
-                     iterator += (step / this.grid.coordinateAxisRange)) {
+                while (iterator <= this.gameWindowConfiguration.getMaximumValueOnXAxis() - border) {
 
-                    this.grid.gridCellCenterCoordinates[rowIterator][columnIterator][0] = iterator;
-                    this.grid.gridCellCenterCoordinates[rowIterator][columnIterator][1] = secondIterator;
-                    rowIterator++;
-                }
-                rowIterator = 0;
-                columnIterator++;
-            }
+                    graphicalComponent.setPenColor(color);
+                    graphicalComponent.line(iterator, this.gameWindowConfiguration.getMinimumValueOnYAxis() + border, iterator, this.gameWindowConfiguration.getMaximumValueOnYAxis() - border);
+                    graphicalComponent.line(this.gameWindowConfiguration.getMinimumValueOnXAxis() + border, iterator, this.gameWindowConfiguration.getMaximumValueOnXAxis() - border, iterator);
+                    iterator += step / this.grid.coordinateAxisRange;
 
+                }
+            });
         }
 
-        this.allowGrid = true;
+        this.gridLayer.draw(this.graphicalComponent);
 
-        double iterator = this.gameWindowConfiguration.getMinimumValueOnXAxis() + border;
-
-        while (iterator <= this.gameWindowConfiguration.getMaximumValueOnXAxis() - border) {
-
-            graphicalComponent.setPenColor(color);
-            this.drawLine(iterator, this.gameWindowConfiguration.getMinimumValueOnYAxis() + border, iterator, this.gameWindowConfiguration.getMaximumValueOnYAxis() - border);
-            this.drawLine(this.gameWindowConfiguration.getMinimumValueOnXAxis() + border, iterator, this.gameWindowConfiguration.getMaximumValueOnXAxis() - border, iterator);
-            iterator += step / this.grid.coordinateAxisRange;
-            graphicalComponent.setPenColor(GraphicalComponent.LIGHT_GRAY);
-
-        }
+        graphicalComponent.setPenColor(GraphicalComponent.LIGHT_GRAY);
     }
 
     /**
@@ -675,6 +1014,60 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
 
     }
 
+    /**
+     * drawPicture()
+     * Used to draw rotated pictures inside of the canvas, e.g. a sprite which follows
+     * the playerObjectMovementVector. Call prebakeRotations() once before, so the
+     * rotated picture does not have to be rendered inside of the game loop.
+     *
+     * @param picture - net.bestofcode.MovingPointGameEngine.Picture object to be drawn
+     * @param degrees - number of degrees to rotate counterclockwise
+     */
+    public void drawPicture(double x, double y, IGraphicalComponent picture, double degrees) {
+
+        this.graphicalComponent.picture(x, y, picture.getFilePath(), degrees);
+
+    }
+
+    /**
+     * prebakeRotations()
+     * Renders all rotations of a picture at load time
+     *
+     * @param picture - net.bestofcode.MovingPointGameEngine.Picture object to be rotated
+     * @param steps   - number of rotations, e.g. 36 for steps of 10 degrees
+     */
+    public void prebakeRotations(IGraphicalComponent picture, int steps) {
+
+        this.graphicalComponent.prebakeRotations(picture.getFilePath(), steps);
+
+    }
+
+    /**
+     * drawAnimation()
+     * Moves the animated sprite to the frame of the current tick and draws it
+     *
+     * @param animatedSprite - net.bestofcode.MovingPointGameEngine.AnimatedSprite object to be drawn
+     */
+    public void drawAnimation(double x, double y, AnimatedSprite animatedSprite) {
+
+        animatedSprite.update(this.animationClock);
+        this.graphicalComponent.picture(x, y, animatedSprite.getCurrentFrame());
+
+    }
+
+    /**
+     * getAnimationClock
+     * Returns the clock which is shared by all animations. It is advanced once
+     * per call of move() or once per simulation step of run().
+     *
+     * @return the animation clock
+     */
+    public AnimationClock getAnimationClock() {
+
+        return this.animationClock;
+
+    }
+
     /**
      * drawBackgroundPicture()
      * Used to draw pictures inside of the canvas. Overrides the graphicalComponent's picture-method
@@ -703,6 +1096,62 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
     @Refactor
     public void move() {
 
+        // advance all animations once per tick
+        this.animationClock.tick();
+
+        this.previousPosition.x = this.position.x;
+        this.previousPosition.y = this.position.y;
+        this.movePlayer(MOVE_STEP_IN_SECONDS);
+
+        this.drawFrame(1);
+    }
+
+    // applies the input recorded since the previous simulation step, runs on the thread of the simulation
+    private void movePlayer(double deltaInSeconds) {
+
+        int cellMovesX;
+        int cellMovesY;
+
+        synchronized (this.inputLock) {
+            cellMovesX = this.pendingCellMovesX;
+            cellMovesY = this.pendingCellMovesY;
+            this.pendingCellMovesX = 0;
+            this.pendingCellMovesY = 0;
+        }
+
+        if (this.useRelativeMovement) {
+
+            if (this.grid == null || (cellMovesX == 0 && cellMovesY == 0))
+                return;
+
+            // the grid scrolls by half a cell by changing its offset, the cells themselves are never touched
+            double cellSize = 1.0 / this.grid.getDimension();
+
+            this.grid.scroll(-0.5 * cellMovesX * cellSize, -0.5 * cellMovesY * cellSize);
+            this.position.x -= cellMovesX * cellSize;
+            this.position.y -= cellMovesY * cellSize;
+
+        } else {
+
+            double steps = deltaInSeconds * KEY_ACTIONS_PER_SECOND;
+
+            if (this.keyboardManager.isKeyPressed(this.keyUp)) {
+                this.position.x += this.playerObjectMovementVector.x * this.speedMultiplier * steps;
+                this.position.y += this.playerObjectMovementVector.y * this.speedMultiplier * steps;
+            }
+            if (this.keyboardManager.isKeyPressed(this.keyLeft))
+                this.rotate(0.1 * steps);
+            if (this.keyboardManager.isKeyPressed(this.keyRight))
+                this.rotate(-0.1 * steps);
+        }
+    }
+
+    // draws the current frame, the player is drawn between its previous and current position
+    private void drawFrame(double alpha) {
+
+        double playerX = this.previousPosition.x + (this.position.x - this.previousPosition.x) * alpha;
+        double playerY = this.previousPosition.y + (this.position.y - this.previousPosition.y) * alpha;
+
         // toggle debug-information by pressing F3
         if(this.keyboardManager.isKeyPressed(this.keyboardManager.getConfigurationForKey(DefaultKey.DEBUG))) {
             if(!this.debug) {
@@ -715,53 +1164,66 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
         // check if the player is still inside of the screen
         if ((Math.abs(this.position.x + this.playerObjectMovementVector.x) < 1) || (Math.abs(this.position.y + this.playerObjectMovementVector.y) < 1)) {
 
-            graphicalComponent.clear(GraphicalComponent.LIGHT_GRAY);
+            // simulations without rendering only run the game logic
+            if (!this.graphicalComponent.getRenderMode().isRendering())
+                return;
+
+            // the damaged rectangles are measured without the rotation of the camera
+            boolean rotated = this.camera != null && this.camera.getRotation() != 0;
+
+            if (this.damageTracker != null && !rotated && !this.debug && !this.drawMovingPointAtCursor && !mouseHover()) {
+                this.drawDamagedRegions(playerX, playerY);
+                return;
+            }
+
+            // the whole canvas is drawn, the next damaged frame has to start from scratch
+            this.damagedRegions = null;
+            this.invalidateFrame();
+
+            this.drawStaticLayers();
             graphicalComponent.setPenColor(this.movingPointColor);
 
             if (this.drawMovingPointAtCursor == false) {
 
-                if (backgroundFile != null)
-                    this.drawBackgroundPicture();
-
                 if (playerObjectSprite == null && drawMovingPoint)
-                    graphicalComponent.filledCircle(this.position.x, this.position.y, 0.02);
+                    graphicalComponent.filledCircle(playerX, playerY, 0.02);
 
                 else if (playerObjectSprite != null)
-                    this.drawPicture(this.position.x, this.position.y, playerObjectSprite);
+                    this.drawPicture(playerX, playerY, playerObjectSprite);
 
                 else if (playerObjectSprite == null && !drawMovingPoint);
 
                 if(this.gameObjectQuery.hasGameObject()) {
-                    this.gameObjectQuery.loadAllGameObjects().forEach(
+                    this.drawGameObjects();
+                }
+
+                if(this.gameObjectQuery.hasGameObject() && this.debug) {
+                    // the labels are drawn above the game objects
+                    this.loadVisibleGameObjects(0.1 * Math.max(Math.abs(this.gameWindowConfiguration.getMaximumValueOnXAxis()),
+                            Math.abs(this.gameWindowConfiguration.getMaximumValueOnYAxis())));
+                    this.visibleGameObjects.forEach(
                             gameObject -> {
-                                this.graphicalComponent.filledCircle(
+                                Colour backupPenColour = this.movingPointColor;
+                                this.setPenColor(new Colour(255, 0,0));
+
+                                this.graphicalComponent.text(
+                                        gameObject.position.x,
+                                        gameObject.position.y + 0.1 * this.gameWindowConfiguration.getMaximumValueOnXAxis(),
+                                        "" + gameObject.hashCode.substring(0, gameObject.hashCode.length() / 2 - 1)
+                                );
+
+                                this.graphicalComponent.text(
+                                        gameObject.position.x,
+                                        gameObject.position.y + 0.05 * this.gameWindowConfiguration.getMaximumValueOnYAxis(),
+                                        "" + gameObject.hashCode.substring(gameObject.hashCode.length() / 2)
+                                );
+
+                                this.graphicalComponent.square(
                                         gameObject.position.x,
                                         gameObject.position.y,
-                                        0.01);
-
-                                if(this.debug) {
-                                    Colour backupPenColour = this.movingPointColor;
-                                    this.setPenColor(new Colour(255, 0,0));
-
-                                    this.graphicalComponent.text(
-                                            gameObject.position.x,
-                                            gameObject.position.y + 0.1 * this.gameWindowConfiguration.getMaximumValueOnXAxis(),
-                                            "" + gameObject.hashCode.substring(0, gameObject.hashCode.length() / 2 - 1)
-                                    );
-
-                                    this.graphicalComponent.text(
-                                            gameObject.position.x,
-                                            gameObject.position.y + 0.05 * this.gameWindowConfiguration.getMaximumValueOnYAxis(),
-                                            "" + gameObject.hashCode.substring(gameObject.hashCode.length() / 2)
-                                    );
-
-                                    this.graphicalComponent.square(
-                                            gameObject.position.x,
-                                            gameObject.position.y,
-                                            0.02
-                                    );
-                                    this.setPenColor(backupPenColour);
-                                }
+                                        0.02
+                                );
+                                this.setPenColor(backupPenColour);
                             }
                     );
                 }
@@ -771,8 +1233,8 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
                 this.position.x = this.getMousePosition().x;
                 this.position.y = this.getMousePosition().y;
 
-                if (backgroundFile != null)
-                    this.drawBackgroundPicture();
+                playerX = this.position.x;
+                playerY = this.position.y;
 
                 if (playerObjectSprite == null)
                     graphicalComponent.filledCircle(this.position.x, this.position.y, 0.02);
@@ -784,8 +1246,8 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
             graphicalComponent.setPenColor(GraphicalComponent.GRAY);
             if (drawMovingPoint) {
 
-                graphicalComponent.line(this.position.x, this.position.y, this.position.x + 2.5 * this.playerObjectMovementVector.x * (1 / 0.16 * this.playerObjectMovementSpeed),
-                        this.position.y + 2.5 * this.playerObjectMovementVector.y * (1 / 0.16 * this.playerObjectMovementSpeed));
+                graphicalComponent.line(playerX, playerY, playerX + 2.5 * this.playerObjectMovementVector.x * (1 / 0.16 * this.playerObjectMovementSpeed),
+                        playerY + 2.5 * this.playerObjectMovementVector.y * (1 / 0.16 * this.playerObjectMovementSpeed));
 
             }
 
@@ -795,6 +1257,227 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
         }
     }
 
+    // redraws only the parts of the canvas where the player or a game object changed
+    private void drawDamagedRegions(double playerX, double playerY) {
+
+        double lineX = playerX + 2.5 * this.playerObjectMovementVector.x * (1 / 0.16 * this.playerObjectMovementSpeed);
+        double lineY = playerY + 2.5 * this.playerObjectMovementVector.y * (1 / 0.16 * this.playerObjectMovementSpeed);
+
+        if (playerObjectSprite != null)
+            this.damageTracker.track(this, graphicalComponent.getPictureBounds(playerX, playerY, playerObjectSprite.getFilePath(), this.trackedBounds));
+        else if (drawMovingPoint)
+            this.damageTracker.track(this, graphicalComponent.getPixelBounds(playerX, playerY, 0.02, 0.02, this.trackedBounds));
+
+        if (drawMovingPoint)
+            this.damageTracker.track(this.playerObjectMovementVector, graphicalComponent.getLineBounds(playerX, playerY, lineX, lineY, this.trackedBounds));
+
+        // game objects which left the visible range damage their old bounds, since they are not tracked anymore.
+        // They are queried once, every damaged region draws the same visible game objects
+        boolean hasGameObject = this.gameObjectQuery.hasGameObject();
+        if (hasGameObject) {
+
+            this.loadVisibleGameObjects(GAME_OBJECT_RADIUS);
+            this.loadGameObjectPositions();
+
+            for (int i = 0; i < this.visibleGameObjects.size(); i++) {
+                GameObject gameObject = this.visibleGameObjects.get(i);
+                this.damageTracker.track(gameObject, graphicalComponent.getPixelBounds(gameObject.position.x, gameObject.position.y,
+                        GAME_OBJECT_RADIUS, GAME_OBJECT_RADIUS, this.trackedBounds));
+            }
+
+        }
+
+        // a static layer which is painted again or a moved camera changes the whole canvas. An empty stack only
+        // clears the canvas and is never painted, so it would never be valid
+        boolean staticLayersChanged = !this.staticLayers.isEmpty() && !this.staticLayers.isValid(graphicalComponent);
+        if (staticLayersChanged || this.damagedTransformVersion != graphicalComponent.getTransformVersion())
+            this.damageTracker.invalidate();
+
+        this.damagedTransformVersion = graphicalComponent.getTransformVersion();
+
+        this.damagedRegions = this.damageTracker.collectDamage();
+
+        for (int i = 0; i < this.damagedRegions.size(); i++) {
+
+            graphicalComponent.setClip(this.damagedRegions.get(i));
+            this.drawStaticLayers();
+            graphicalComponent.setPenColor(this.movingPointColor);
+
+            if (playerObjectSprite != null)
+                this.drawPicture(playerX, playerY, playerObjectSprite);
+            else if (drawMovingPoint)
+                graphicalComponent.filledCircle(playerX, playerY, 0.02);
+
+            if (hasGameObject)
+                this.drawLoadedGameObjects();
+
+            graphicalComponent.setPenColor(GraphicalComponent.GRAY);
+            if (drawMovingPoint)
+                graphicalComponent.line(playerX, playerY, lineX, lineY);
+        }
+
+        graphicalComponent.resetClip();
+
+    }
+
+    // clears the canvas and draws the background and all static layers with a single blit
+    private void drawStaticLayers() {
+
+        if (this.staticLayers.isEmpty())
+            graphicalComponent.clear(GraphicalComponent.LIGHT_GRAY);
+        else
+            this.staticLayers.draw(graphicalComponent);
+
+    }
+
+    // draws the states of the cells below the grid lines, only the cells which changed are painted again
+    private void drawGridCells() {
+
+        if (this.gridCellColouring == null)
+            return;
+
+        if (this.gridCellLayer == null)
+            this.gridCellLayer = new GridLayer(this.grid, this.gridCellColouring);
+
+        this.gridCellLayer.draw(this.graphicalComponent);
+
+    }
+
+    // checks if the cached grid lines were painted by another grid() overload or with other arguments, they are
+    // remembered for the next check. Comparing them does not allocate, so the check is done by every frame
+    private boolean isGridLayerOutdated(int variant, int cellsPerRow, double border, Color color) {
+
+        double penRadius = this.graphicalComponent.getPenRadius();
+
+        if (this.gridLayer != null && variant == this.gridLayerVariant && cellsPerRow == this.gridLayerCellsPerRow
+                && border == this.gridLayerBorder && color.equals(this.gridLayerColor) && penRadius == this.gridLayerPenRadius)
+            return false;
+
+        this.gridLayerVariant = variant;
+        this.gridLayerCellsPerRow = cellsPerRow;
+        this.gridLayerBorder = border;
+        this.gridLayerColor = color;
+        this.gridLayerPenRadius = penRadius;
+
+        return true;
+
+    }
+
+    // the grid lines are painted again by the next draw
+    private void setGridLayerPainter(LayerPainter painter) {
+
+        if (this.gridLayer == null)
+            this.gridLayer = new Layer(painter);
+        else
+            this.gridLayer.setPainter(painter);
+
+    }
+
+    // shows the damaged parts of the last frame or the whole frame
+    private void showFrame() {
+
+        if (!this.graphicalComponent.getRenderMode().isRendering())
+            return;
+
+        if (this.damagedRegions == null)
+            this.graphicalComponent.show();
+        else
+            this.graphicalComponent.show(this.damagedRegions);
+
+    }
+
+    // draws all game objects inside of the visible axis range with a single batch call
+    private void drawGameObjects() {
+
+        this.loadVisibleGameObjects(GAME_OBJECT_RADIUS);
+        this.loadGameObjectPositions();
+        this.drawLoadedGameObjects();
+
+    }
+
+    // copies the positions of the visible game objects into the arrays of the batch call
+    private void loadGameObjectPositions() {
+
+        int count = this.visibleGameObjects.size();
+
+        if (this.gameObjectX.length < count) {
+            this.gameObjectX = new double[Math.max(count, 2 * this.gameObjectX.length)];
+            this.gameObjectY = new double[this.gameObjectX.length];
+        }
+
+        for (int i = 0; i < count; i++) {
+            this.gameObjectX[i] = this.visibleGameObjects.get(i).position.x;
+            this.gameObjectY[i] = this.visibleGameObjects.get(i).position.y;
+        }
+
+        this.drawnGameObjects = count;
+        this.culledGameObjects = this.gameObjectQuery.size() - count;
+
+    }
+
+    // draws the game objects of the last loadGameObjectPositions() call with a single batch call
+    private void drawLoadedGameObjects() {
+
+        this.graphicalComponent.filledCircles(this.gameObjectX, this.gameObjectY, GAME_OBJECT_RADIUS, this.drawnGameObjects);
+
+    }
+
+    // collects the game objects inside of the visible part of the world, grown by the margin, in visibleGameObjects
+    private void loadVisibleGameObjects(double margin) {
+
+        Rectangle2D visible = this.graphicalComponent.getVisibleBounds(this.visibleBounds);
+
+        this.visibleGameObjects.clear();
+        this.gameObjectQuery.loadVisibleGameObjects(visible.getMinX() - margin, visible.getMinY() - margin,
+                visible.getMaxX() + margin, visible.getMaxY() + margin, this.visibleGameObjects);
+
+    }
+
+    /**
+     * getCamera
+     * Returns the camera which decides which part of the world is shown. It is
+     * created by the first call and looks at the center of the axis range.
+     * Afterwards the world is not limited to the axis range anymore: moving the
+     * camera scrolls the world, zooming it shows a smaller or larger part of
+     * it, both without touching any drawn object.
+     *
+     * @return the camera of the canvas
+     */
+    public Camera getCamera() {
+
+        if (this.camera == null) {
+            this.camera = new Camera(
+                    (this.gameWindowConfiguration.getMinimumValueOnXAxis() + this.gameWindowConfiguration.getMaximumValueOnXAxis()) / 2,
+                    (this.gameWindowConfiguration.getMinimumValueOnYAxis() + this.gameWindowConfiguration.getMaximumValueOnYAxis()) / 2);
+            this.graphicalComponent.setCamera(this.camera);
+            this.invalidateFrame();
+        }
+
+        return this.camera;
+
+    }
+
+    /**
+     * getDrawnGameObjects
+     * Returns the number of game objects which were drawn by the last frame.
+     */
+    public int getDrawnGameObjects() {
+
+        return this.drawnGameObjects;
+
+    }
+
+    /**
+     * getCulledGameObjects
+     * Returns the number of game objects which were skipped by the last frame,
+     * since they were outside of the visible range of the axes.
+     */
+    public int getCulledGameObjects() {
+
+        return this.culledGameObjects;
+
+    }
+
     /**
      * distanceTo()
      * <p>
@@ -860,14 +1543,14 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
         /*if (!allowGrid)
             this.addGameObject(new EntityWall(this.getMousePosition().x, this.getMousePosition().y, graphicalComponent));
         */
-        // if you are using a grid you can set a statesOfAllGridCells state by clicking
+        // if you are using a grid you can set a cell state by clicking
         // inside of it.
     }
 
     /**
      * nearestCell() Apply this method to your mouseEvent and change a cell's state
-     * while clicking inside of it. The borders will be used to determine in which
-     * cell the click was performed
+     * while clicking inside of it. The cell is computed from the mouse position,
+     * clicks outside of the grid change nothing.
      *
      * @param state - use an integer as the clicked cell's state You can implement
      *              your own states in your program and use them as an overlay for
@@ -875,23 +1558,126 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
      */
     public void nearestCell(int state) {
 
-        int N = this.grid.statesOfAllGridCells.length;
+        Position mouse = this.getMousePosition();
+
+        int column = this.grid.getColumn(mouse.x);
+        int row = this.grid.getRow(mouse.y);
 
-        double step = (this.grid.coordinateAxisRange / N) / this.grid.coordinateAxisRange;
+        if (this.grid.contains(column, row))
+            this.grid.setCell(column, row, state);
+
+    }
+
+    /**
+     * strokeCell() Apply this method to your mouseDragged() to paint with the mouse.
+     * It sets the state of every cell on the line from the cell of the previous call
+     * to the cell under the mouse, so fast drags leave no gaps. The first call after
+     * the mouse has been pressed only paints the cell under the mouse.
+     *
+     * @param state - the state of the painted cells
+     */
+    public void strokeCell(int state) {
 
-        int tmpX = 0;
-        int tmpY = 0;
+        Position mouse = this.getMousePosition();
 
-        for (int secondIterator = 0; secondIterator < N; secondIterator++)
-            if (this.getMousePosition().x > secondIterator * step && this.getMousePosition().x < (secondIterator + 1) * step)
-                tmpX = secondIterator;
+        int column = this.grid.getColumn(mouse.x);
+        int row = this.grid.getRow(mouse.y);
+        long mousePress = this.graphicalComponent.getNumberOfMousePresses();
 
-        for (int iterator = 0; iterator < N; iterator++)
-            if (this.getMousePosition().y > iterator * step && this.getMousePosition().y < (iterator + 1) * step)
-                tmpY = N - iterator - 1;
+        if (mousePress == this.strokeMousePress)
+            this.grid.paintLine(this.strokeColumn, this.strokeRow, column, row, state);
+        else if (this.grid.contains(column, row))
+            this.grid.setCell(column, row, state);
 
-        this.grid.statesOfAllGridCells[tmpX][tmpY] = state;
-        System.out.println(tmpX + " " + tmpY);
+        this.strokeColumn = column;
+        this.strokeRow = row;
+        this.strokeMousePress = mousePress;
+
+    }
+
+    /**
+     * setGridCellWidth()
+     * Chooses how many bits store the state of a cell of the grid, call it before
+     * grid(). The default CellWidth.INT stores any state, CellWidth.BIT or
+     * CellWidth.BYTE let large maps fit into a fraction of the memory.
+     *
+     * @param cellWidth - the number of bits of a cell
+     */
+    public void setGridCellWidth(CellWidth cellWidth) {
+
+        if (cellWidth == null)
+            throw new IllegalArgumentException("cell width is null");
+        if (this.grid != null)
+            throw new IllegalArgumentException("the cell width must be set before the grid is created");
+
+        this.gridCellWidth = cellWidth;
+
+    }
+
+    /**
+     * setChunkedGrid()
+     * Lets the grid only store the chunks of 64*64 cells which have been written,
+     * call it before grid(). Use it for maps which are mostly empty and too large
+     * to be stored completely, all methods of the grid work the same.
+     *
+     * @param chunked - true to store the grid in chunks
+     */
+    public void setChunkedGrid(boolean chunked) {
+
+        if (this.grid != null)
+            throw new IllegalArgumentException("the storage of the grid must be chosen before the grid is created");
+
+        this.chunkedGrid = chunked;
+
+    }
+
+    /**
+     * setGridCellColouring()
+     * Lets grid() draw the states of the cells in the colors of the colouring,
+     * e.g. state -> state == 1 ? 0xff000000 : 0. The cells are kept in a layer
+     * between frames, so a frame only paints the cells which were changed by
+     * setCell(), nearestCell() or strokeCell() since the previous one.
+     *
+     * @param colouring - the color of each state, null to draw no cells
+     */
+    public void setGridCellColouring(CellColouring colouring) {
+
+        this.gridCellColouring = colouring;
+
+        if (this.gridCellLayer != null && colouring != null)
+            this.gridCellLayer.setColouring(colouring);
+        else
+            this.gridCellLayer = null;
+
+    }
+
+    /**
+     * setRelativeMovement()
+     * With relative movement the arrow keys scroll the grid instead of steering
+     * the player. Scrolling only changes the offset of the grid, so it costs the
+     * same for every size of the grid.
+     *
+     * @param enabled - true to scroll the grid with the arrow keys
+     */
+    public void setRelativeMovement(boolean enabled) {
+
+        if (enabled && this.grid == null)
+            throw new IllegalArgumentException("relative movement needs a grid, call grid() first");
+
+        this.useRelativeMovement = enabled;
+
+    }
+
+    /**
+     * getGrid()
+     * Returns the grid created by grid(), or null if there is none. The centers
+     * of its cells include the current scroll offset.
+     *
+     * @return the grid of the canvas
+     */
+    public Grid getGrid() {
+
+        return this.grid;
 
     }
 
@@ -960,6 +1746,10 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
      * is pressed.
      * <p>
      * 87 --> W 65 --> A 68 --> D
+     * <p>
+     * The key is only recorded here, on the event dispatch thread. The player is
+     * moved by the next simulation step, so the game loop is the only thread
+     * which writes its position.
      *
      * @param keycode
      */
@@ -968,50 +1758,28 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
 
         if (useRelativeMovement) {
 
-            if (keycode == keyUp) {
-
-                for (int iterator = 0; iterator < this.grid.statesOfAllGridCells.length; iterator++)
-                    for (int secondIterator = 0; secondIterator < this.grid.statesOfAllGridCells.length; secondIterator++)
-                        this.grid.gridCellCenterCoordinates[iterator][secondIterator][1] -= 0.5 * (this.grid.coordinateAxisRange / this.grid.statesOfAllGridCells.length) / this.grid.coordinateAxisRange;
-
-                this.position.y -= (this.grid.coordinateAxisRange / this.grid.statesOfAllGridCells.length) / this.grid.coordinateAxisRange;
-            } else if (keycode == keyDown) {
-
-                for (int iterator = 0; iterator < this.grid.statesOfAllGridCells.length; iterator++)
-                    for (int secondIterator = 0; secondIterator < this.grid.statesOfAllGridCells.length; secondIterator++)
-                        this.grid.gridCellCenterCoordinates[iterator][secondIterator][1] += 0.5 * (this.grid.coordinateAxisRange / this.grid.statesOfAllGridCells.length) / this.grid.coordinateAxisRange;
-
-                this.position.y += (this.grid.coordinateAxisRange / this.grid.statesOfAllGridCells.length) / this.grid.coordinateAxisRange;
-            } else if (keycode == keyLeft) {
-
-                for (int iterator = 0; iterator < this.grid.statesOfAllGridCells.length; iterator++)
-                    for (int secondIterator = 0; secondIterator < this.grid.statesOfAllGridCells.length; secondIterator++)
-                        this.grid.gridCellCenterCoordinates[iterator][secondIterator][0] += 0.5 * (this.grid.coordinateAxisRange / this.grid.statesOfAllGridCells.length) / this.grid.coordinateAxisRange;
-
-                this.position.x += (this.grid.coordinateAxisRange / this.grid.statesOfAllGridCells.length) / this.grid.coordinateAxisRange;
-            } else if (keycode == keyRight) {
-
-                for (int iterator = 0; iterator < this.grid.statesOfAllGridCells.length; iterator++)
-                    for (int secondIterator = 0; secondIterator < this.grid.statesOfAllGridCells.length; secondIterator++)
-                        this.grid.gridCellCenterCoordinates[iterator][secondIterator][0] -= 0.5 * (this.grid.coordinateAxisRange / this.grid.statesOfAllGridCells.length) / this.grid.coordinateAxisRange;
-
-                this.position.x -= (this.grid.coordinateAxisRange / this.grid.statesOfAllGridCells.length) / this.grid.coordinateAxisRange;
+            // every press moves the player by one cell, also the repeated presses of a held key
+            synchronized (this.inputLock) {
+                if (keycode == keyUp)
+                    this.pendingCellMovesY++;
+                else if (keycode == keyDown)
+                    this.pendingCellMovesY--;
+                else if (keycode == keyLeft)
+                    this.pendingCellMovesX--;
+                else if (keycode == keyRight)
+                    this.pendingCellMovesX++;
             }
 
         } else {
 
-            if (keycode == keyUp) {
-                this.vecAdd(this);
+            if (keycode == keyUp)
                 this.keyboardManager.keyUpPressed = true;
-            } else if (keycode == keyLeft) {
-                this.rotate(0.1);
+            else if (keycode == keyLeft)
                 this.keyboardManager.keyLeftPressed = true;
-            } else if (keycode == keyRight) {
-                this.rotate(-0.1);
+            else if (keycode == keyRight)
                 this.keyboardManager.keyRightPressed = true;
-            } else if (keycode == keyDown) {
+            else if (keycode == keyDown)
                 this.keyboardManager.keyDownPressed = true;
-            }
         }
     }
 
@@ -1078,7 +1846,7 @@ public class MovingPointGameEngine implements IMovingPointEventManager {
 
     public void sleep(int timeInMilliSeconds) {
 
-        graphicalComponent.show();
+        this.showFrame();
         graphicalComponent.pause(timeInMilliSeconds);
         graphicalComponent.enableDoubleBuffering();
 
@@ -0,0 +1,17 @@
+package net.bestofcode.MovingPoint.asset;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AssetLoadingListener
+ * Interface to follow the progress of a preload, e.g. to draw a loading screen.
+ * It is called from the worker threads of the preloader.
+ */
+public interface AssetLoadingListener {
+
+    /**
+     * Invoked after an asset has been loaded.
+     *
+     * @param loadedAssets the number of assets which are loaded
+     * @param totalAssets  the number of all assets of the preload
+     */
+    void progress(int loadedAssets, int totalAssets);
+}
@@ -0,0 +1,92 @@
+package net.bestofcode.MovingPoint.asset;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AssetManifest
+ * An AssetManifest lists all pictures and sounds which should be loaded before
+ * a scene starts. It can be filled in code or read from a text file with one
+ * asset per line:
+ * <pre>
+ *   # comment
+ *   picture Doodler.png
+ *   sound   jump.wav
+ * </pre>
+ * Lines without a kind are sorted by the file extension.
+ */
+public class AssetManifest {
+
+    private final List<String> pictures = new ArrayList<String>();
+    private final List<String> sounds = new ArrayList<String>();
+
+    /**
+     * read
+     * Reads a manifest file, which is found through the asset index
+     *
+     * @param name - name of the manifest, e.g. "level1.manifest"
+     * @return the manifest
+     * @throws IOException if the manifest can not be read
+     */
+    public static AssetManifest read(String name) throws IOException {
+
+        AssetManifest assetManifest = new AssetManifest();
+
+        PackedAsset packedAsset = AssetResolver.getDefault().resolvePacked(name);
+        URL url = packedAsset == null ? AssetResolver.getDefault().resolve(name) : null;
+        if (packedAsset == null && url == null) throw new IOException("manifest " + name + " not found");
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                packedAsset != null ? packedAsset.openStream() : url.openStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] parts = line.split("\\s+", 2);
+
+                if (parts.length == 2 && parts[0].equals("picture")) assetManifest.addPicture(parts[1]);
+                else if (parts.length == 2 && parts[0].equals("sound")) assetManifest.addSound(parts[1]);
+                else if (isSound(line)) assetManifest.addSound(line);
+                else assetManifest.addPicture(line);
+            }
+        }
+
+        return assetManifest;
+    }
+
+    public AssetManifest addPicture(String filePath) {
+        this.pictures.add(filePath);
+        return this;
+    }
+
+    public AssetManifest addSound(String filePath) {
+        this.sounds.add(filePath);
+        return this;
+    }
+
+    public List<String> getPictures() {
+        return Collections.unmodifiableList(this.pictures);
+    }
+
+    public List<String> getSounds() {
+        return Collections.unmodifiableList(this.sounds);
+    }
+
+    public int size() {
+        return this.pictures.size() + this.sounds.size();
+    }
+
+    private static boolean isSound(String name) {
+        String lowerCaseName = name.toLowerCase();
+        return lowerCaseName.endsWith(".wav") || lowerCaseName.endsWith(".au") || lowerCaseName.endsWith(".mid");
+    }
+}
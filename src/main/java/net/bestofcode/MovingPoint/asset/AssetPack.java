@@ -0,0 +1,321 @@
+package net.bestofcode.MovingPoint.asset;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AssetPack
+ * An AssetPack is a single file which contains many assets behind an index.
+ * The file is mapped into memory once, every asset is afterwards read directly
+ * from the mapped region instead of opening and decoding a file of its own.
+ * <p>
+ * Layout of the file (big endian):
+ * <pre>
+ *   int    magic "MPAK"
+ *   int    version
+ *   int    number of entries
+ *   entry  name (short length + UTF-8 bytes), byte type, long offset, long length,
+ *          int[4] metadata of the type
+ *   ...
+ *   data of all entries
+ * </pre>
+ * Packs are created with net.bestofcode.MovingPointGameEngine.AssetPackWriter.
+ */
+public class AssetPack {
+
+    static final int MAGIC = 0x4D50414B;
+    static final int VERSION = 1;
+
+    // file as it is, e.g. an encoded png or a text file
+    static final byte TYPE_FILE = 0;
+    // decoded image, metadata: width, height
+    static final byte TYPE_PIXELS = 1;
+    // PCM audio, metadata: sample rate (float bits), sample size in bits, channels, flags
+    static final byte TYPE_PCM = 2;
+
+    static final int FLAG_SIGNED = 1;
+    static final int FLAG_BIG_ENDIAN = 2;
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+    private AssetPack(File file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    /**
+     * open
+     * Maps the pack into memory and reads its index
+     *
+     * @param file - the pack file
+     * @return the opened pack
+     * @throws IOException if the file can not be read, is not a pack or an entry of its index is corrupt
+     */
+    public static AssetPack open(File file) throws IOException {
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("asset pack " + file + " is bigger than 2 GB");
+
+            // the mapping stays valid after the channel is closed
+            AssetPack assetPack = new AssetPack(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            assetPack.readIndex();
+
+            return assetPack;
+        }
+    }
+
+    /**
+     * contains
+     * Checks if the pack contains an asset with the given name
+     */
+    public boolean contains(String name) {
+        return this.entries.containsKey(name);
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(this.entries.keySet());
+    }
+
+    /**
+     * getBuffer
+     * Returns the raw bytes of an asset as a view of the mapped region, nothing is copied.
+     *
+     * @param name - name of the asset
+     * @return a read-only buffer of the asset
+     */
+    public ByteBuffer getBuffer(String name) {
+
+        Entry entry = this.getEntry(name);
+
+        ByteBuffer view = this.buffer.duplicate();
+        view.position((int) entry.offset);
+        view.limit((int) (entry.offset + entry.length));
+
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * openStream
+     * Returns a stream over the bytes of an asset, which reads from the mapped region
+     */
+    public InputStream openStream(String name) {
+        return new ByteBufferInputStream(this.getBuffer(name));
+    }
+
+    /**
+     * readImage
+     * Returns the image of an asset. Decoded pixels are copied with one bulk copy
+     * into a TYPE_INT_ARGB_PRE image, encoded files are decoded by ImageIO.
+     *
+     * @param name - name of the asset
+     * @return the image
+     * @throws IllegalArgumentException if the asset is no image
+     */
+    public BufferedImage readImage(String name) {
+
+        Entry entry = this.getEntry(name);
+
+        if (entry.type == TYPE_PIXELS) {
+
+            BufferedImage image = new BufferedImage(entry.metadata[0], entry.metadata[1], BufferedImage.TYPE_INT_ARGB_PRE);
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            this.getBuffer(name).order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(pixels);
+
+            return image;
+        }
+
+        try {
+            BufferedImage image = ImageIO.read(this.openStream(name));
+            if (image == null) throw new IllegalArgumentException("asset " + name + " is no image");
+            return image;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("asset " + name + " could not be read", e);
+        }
+    }
+
+    /**
+     * getAudioInputStream
+     * Returns a stream of the PCM samples of an asset, read directly from the mapped region
+     *
+     * @param name - name of the asset
+     * @return the audio stream
+     * @throws IllegalArgumentException if the asset is no PCM audio
+     */
+    public AudioInputStream getAudioInputStream(String name) {
+
+        Entry entry = this.getEntry(name);
+
+        if (entry.type != TYPE_PCM) throw new IllegalArgumentException("asset " + name + " is no PCM audio");
+
+        int flags = entry.metadata[3];
+        AudioFormat format = new AudioFormat(
+                Float.intBitsToFloat(entry.metadata[0]),
+                entry.metadata[1],
+                entry.metadata[2],
+                (flags & FLAG_SIGNED) != 0,
+                (flags & FLAG_BIG_ENDIAN) != 0);
+
+        return new AudioInputStream(this.openStream(name), format, entry.length / format.getFrameSize());
+    }
+
+    /**
+     * isAudio
+     * Checks if the asset is stored as PCM audio
+     */
+    public boolean isAudio(String name) {
+        return this.getEntry(name).type == TYPE_PCM;
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    private Entry getEntry(String name) {
+
+        Entry entry = this.entries.get(name);
+        if (entry == null) throw new IllegalArgumentException("asset " + name + " is not part of " + this.file);
+
+        return entry;
+    }
+
+    private void readIndex() throws IOException {
+
+        ByteBuffer header = this.buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        if (header.remaining() < 12 || header.getInt() != MAGIC) throw new IOException(this.file + " is no asset pack");
+        int version = header.getInt();
+        if (version != VERSION) throw new IOException("unsupported asset pack version " + version);
+
+        int count = header.getInt();
+        if (count < 0) throw new IOException("asset pack " + this.file + " has " + count + " entries");
+
+        for (int i = 0; i < count; i++) {
+
+            if (header.remaining() < 2) throw this.truncatedIndex(i);
+
+            int nameLength = header.getShort() & 0xFFFF;
+            if (header.remaining() < nameLength + 1 + 8 + 8 + 4 * 4) throw this.truncatedIndex(i);
+
+            byte[] bytes = new byte[nameLength];
+            header.get(bytes);
+            String name = new String(bytes, StandardCharsets.UTF_8);
+
+            Entry entry = new Entry();
+            entry.type = header.get();
+            entry.offset = header.getLong();
+            entry.length = header.getLong();
+            for (int j = 0; j < entry.metadata.length; j++)
+                entry.metadata[j] = header.getInt();
+
+            this.checkEntry(name, entry);
+            this.entries.put(name, entry);
+        }
+    }
+
+    // the data of the entry has to be inside of the file and fit its metadata, so reading it never fails
+    private void checkEntry(String name, Entry entry) throws IOException {
+
+        // written this way, offset + length can not overflow
+        if (entry.offset < 0 || entry.length < 0 || entry.length > this.buffer.capacity() - entry.offset)
+            throw this.corruptEntry(name, "has " + entry.length + " bytes at offset " + entry.offset + " outside of the file");
+
+        if (entry.type == TYPE_PIXELS) {
+            int width = entry.metadata[0];
+            int height = entry.metadata[1];
+            if (width <= 0 || height <= 0 || 4L * width * height != entry.length)
+                throw this.corruptEntry(name, "has " + entry.length + " bytes for " + width + "*" + height + " pixels");
+        } else if (entry.type == TYPE_PCM) {
+            float sampleRate = Float.intBitsToFloat(entry.metadata[0]);
+            if (!(sampleRate > 0) || entry.metadata[1] <= 0 || entry.metadata[1] % 8 != 0 || entry.metadata[2] <= 0)
+                throw this.corruptEntry(name, "has an invalid audio format");
+        } else if (entry.type != TYPE_FILE) {
+            throw this.corruptEntry(name, "has the unknown type " + entry.type);
+        }
+    }
+
+    private IOException truncatedIndex(int entry) {
+        return new IOException("index of asset pack " + this.file + " is truncated at entry " + entry);
+    }
+
+    private IOException corruptEntry(String name, String problem) {
+        return new IOException("asset " + name + " of asset pack " + this.file + " " + problem);
+    }
+
+    // position of a single asset inside of the pack
+    private static class Entry {
+        byte type;
+        long offset;
+        long length;
+        final int[] metadata = new int[4];
+    }
+
+    // reads a buffer without copying it into a byte array first
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!this.buffer.hasRemaining()) return -1;
+            int count = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+            this.buffer.position(this.buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            this.buffer.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            this.buffer.reset();
+        }
+    }
+}
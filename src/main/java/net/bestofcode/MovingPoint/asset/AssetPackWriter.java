@@ -0,0 +1,208 @@
+package net.bestofcode.MovingPoint.asset;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AssetPackWriter
+ * Creates a net.bestofcode.MovingPointGameEngine.AssetPack. Images are stored as
+ * decoded premultiplied pixels and sounds as PCM samples, so nothing has to be
+ * decoded when the game starts. Run it with "gradle packAssets" to pack the
+ * folder src/main/resources into build/assets.mpak.
+ */
+public class AssetPackWriter {
+
+    // alignment of the data of each entry
+    private static final int ALIGNMENT = 8;
+
+    private final List<PendingEntry> pendingEntries = new ArrayList<PendingEntry>();
+
+    /**
+     * addFile
+     * Adds bytes which are stored as they are
+     */
+    public void addFile(String name, byte[] bytes) {
+        this.pendingEntries.add(new PendingEntry(name, AssetPack.TYPE_FILE, bytes, new int[4]));
+    }
+
+    /**
+     * addImage
+     * Adds the decoded pixels of an image in the TYPE_INT_ARGB_PRE layout
+     */
+    public void addImage(String name, BufferedImage image) {
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        BufferedImage premultiplied = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D graphics = premultiplied.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+
+        int[] pixels = new int[width * height];
+        premultiplied.getRaster().getDataElements(0, 0, width, height, pixels);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(pixels.length * 4);
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            for (int pixel : pixels)
+                output.writeInt(pixel);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        this.pendingEntries.add(new PendingEntry(name, AssetPack.TYPE_PIXELS, bytes.toByteArray(), new int[]{width, height, 0, 0}));
+    }
+
+    /**
+     * addSound
+     * Adds the samples of a sound, converted to signed 16 bit little endian PCM
+     */
+    public void addSound(String name, AudioInputStream audioInputStream) throws IOException {
+
+        AudioFormat source = audioInputStream.getFormat();
+        AudioFormat format = new AudioFormat(source.getSampleRate(), 16, source.getChannels(), true, false);
+
+        AudioInputStream pcm = AudioSystem.getAudioInputStream(format, audioInputStream);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = pcm.read(buffer)) != -1)
+            bytes.write(buffer, 0, count);
+
+        int[] metadata = {Float.floatToIntBits(format.getSampleRate()), 16, format.getChannels(), AssetPack.FLAG_SIGNED};
+        this.pendingEntries.add(new PendingEntry(name, AssetPack.TYPE_PCM, bytes.toByteArray(), metadata));
+    }
+
+    /**
+     * addDirectory
+     * Adds all files of a directory with their relative path as name. Images and
+     * sounds are decoded, all other files are stored as they are.
+     */
+    public void addDirectory(File directory) throws IOException {
+        this.addDirectory(directory, "");
+    }
+
+    /**
+     * write
+     * Writes the index and all entries into the file
+     */
+    public void write(File file) throws IOException {
+
+        List<byte[]> names = new ArrayList<byte[]>();
+        long headerSize = 12;
+
+        for (PendingEntry entry : this.pendingEntries) {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            if (name.length > 0xFFFF) throw new IllegalArgumentException("asset name " + entry.name + " is too long");
+            names.add(name);
+            headerSize += 2 + name.length + 1 + 8 + 8 + 4 * 4;
+        }
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+
+            output.writeInt(AssetPack.MAGIC);
+            output.writeInt(AssetPack.VERSION);
+            output.writeInt(this.pendingEntries.size());
+
+            long offset = align(headerSize);
+
+            for (int i = 0; i < this.pendingEntries.size(); i++) {
+
+                PendingEntry entry = this.pendingEntries.get(i);
+
+                output.writeShort(names.get(i).length);
+                output.write(names.get(i));
+                output.writeByte(entry.type);
+                output.writeLong(offset);
+                output.writeLong(entry.data.length);
+                for (int value : entry.metadata)
+                    output.writeInt(value);
+
+                offset = align(offset + entry.data.length);
+            }
+
+            long position = headerSize;
+
+            for (PendingEntry entry : this.pendingEntries) {
+                for (; position < align(position); position++)
+                    output.writeByte(0);
+                output.write(entry.data);
+                position += entry.data.length;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        File directory = new File(args.length > 0 ? args[0] : "src/main/resources");
+        File pack = new File(args.length > 1 ? args[1] : "build/assets.mpak");
+
+        if (pack.getParentFile() != null) pack.getParentFile().mkdirs();
+
+        AssetPackWriter assetPackWriter = new AssetPackWriter();
+        assetPackWriter.addDirectory(directory);
+        assetPackWriter.write(pack);
+
+        System.out.println("packed " + assetPackWriter.pendingEntries.size() + " assets into " + pack);
+    }
+
+    private void addDirectory(File directory, String prefix) throws IOException {
+
+        File[] files = directory.listFiles();
+        if (files == null) return;
+
+        for (File file : files) {
+
+            String name = prefix + file.getName();
+            String lowerCaseName = name.toLowerCase();
+
+            if (file.isDirectory()) {
+                this.addDirectory(file, name + "/");
+            } else if (lowerCaseName.endsWith(".png") || lowerCaseName.endsWith(".jpg") || lowerCaseName.endsWith(".gif")) {
+                BufferedImage image = ImageIO.read(file);
+                if (image != null) this.addImage(name, image);
+                else this.addFile(name, Files.readAllBytes(file.toPath()));
+            } else if (lowerCaseName.endsWith(".wav") || lowerCaseName.endsWith(".au")) {
+                try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(file)) {
+                    this.addSound(name, audioInputStream);
+                } catch (UnsupportedAudioFileException e) {
+                    this.addFile(name, Files.readAllBytes(file.toPath()));
+                }
+            } else {
+                this.addFile(name, Files.readAllBytes(file.toPath()));
+            }
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    // entry which is written by write()
+    private static class PendingEntry {
+        final String name;
+        final byte type;
+        final byte[] data;
+        final int[] metadata;
+
+        PendingEntry(String name, byte type, byte[] data, int[] metadata) {
+            this.name = name;
+            this.type = type;
+            this.data = data;
+            this.metadata = metadata;
+        }
+    }
+}
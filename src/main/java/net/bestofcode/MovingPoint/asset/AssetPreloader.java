@@ -0,0 +1,93 @@
+package net.bestofcode.MovingPoint.asset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AssetPreloader
+ * The AssetPreloader decodes all assets of a manifest on a small pool of worker
+ * threads and publishes them into the caches of the engine. The game loop keeps
+ * running meanwhile and can draw a loading screen with the reported progress.
+ */
+public class AssetPreloader {
+
+    private final ExecutorService workers;
+    private final Consumer<String> pictureLoader;
+    private final Consumer<String> soundLoader;
+
+    /**
+     * Constructor for a preloader with one worker per processor, but at most four
+     *
+     * @param pictureLoader - decodes a picture into the texture cache
+     * @param soundLoader   - decodes a sound into the sound cache
+     */
+    public AssetPreloader(Consumer<String> pictureLoader, Consumer<String> soundLoader) {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), pictureLoader, soundLoader);
+    }
+
+    /**
+     * Constructor for a preloader with a fixed number of workers
+     *
+     * @param numberOfWorkers - number of worker threads
+     * @param pictureLoader   - decodes a picture into the texture cache
+     * @param soundLoader     - decodes a sound into the sound cache
+     */
+    public AssetPreloader(int numberOfWorkers, Consumer<String> pictureLoader, Consumer<String> soundLoader) {
+
+        if (numberOfWorkers < 1) throw new IllegalArgumentException("preloader needs at least one worker");
+
+        this.pictureLoader = pictureLoader;
+        this.soundLoader = soundLoader;
+        this.workers = Executors.newFixedThreadPool(numberOfWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "MovingPoint-AssetPreloader");
+            // workers must not keep the game alive
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * preload
+     * Loads all assets of the manifest in the background
+     *
+     * @param assetManifest - the assets to load
+     * @param listener      - receives the progress, may be null
+     * @return a future which completes after all assets are loaded, or exceptionally
+     * with the first error
+     */
+    public CompletableFuture<Void> preload(AssetManifest assetManifest, AssetLoadingListener listener) {
+
+        int total = assetManifest.size();
+        AtomicInteger loaded = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>(total);
+
+        for (String picture : assetManifest.getPictures())
+            futures.add(this.load(this.pictureLoader, picture, loaded, total, listener));
+
+        for (String sound : assetManifest.getSounds())
+            futures.add(this.load(this.soundLoader, sound, loaded, total, listener));
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * shutdown
+     * Stops the workers after all running preloads are finished
+     */
+    public void shutdown() {
+        this.workers.shutdown();
+    }
+
+    private CompletableFuture<Void> load(Consumer<String> loader, String filePath, AtomicInteger loaded, int total, AssetLoadingListener listener) {
+        return CompletableFuture.runAsync(() -> {
+            loader.accept(filePath);
+            int loadedAssets = loaded.incrementAndGet();
+            if (listener != null) listener.progress(loadedAssets, total);
+        }, this.workers);
+    }
+}
@@ -0,0 +1,375 @@
+package net.bestofcode.MovingPoint.asset;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AssetResolver
+ * The AssetResolver indexes all resources of the classpath (directories and jars)
+ * and the folder src/main/resources once. Afterwards every asset can be found
+ * by its logical name, e.g. "Doodler.png", or its relative path, e.g. "img/Doodler.png",
+ * with a single lookup inside of a HashMap.
+ * <p>
+ * Mounted asset packs are indexed the same way. Their assets resolve to the path
+ * "mpak:" + pack file + "!/" + name and are read with resolvePacked().
+ */
+public class AssetResolver {
+
+    public static final String PACK_PROTOCOL = "mpak:";
+
+    private static final String RESOURCE_DIRECTORY = "src" + File.separator + "main" + File.separator + "resources";
+
+    // relative paths and file names mapped to the resolved location
+    private final HashMap<String, URL> assets = new HashMap<String, URL>();
+    // relative paths and file names mapped to assets of mounted packs
+    private final HashMap<String, PackedAsset> packedAssets = new HashMap<String, PackedAsset>();
+    // mounted packs mapped to the absolute path of their file
+    private final HashMap<String, AssetPack> assetPacks = new HashMap<String, AssetPack>();
+    // names mapped to the paths they resolved to, forgotten whenever the index changes
+    private final HashMap<String, String> resolvedPaths = new HashMap<String, String>();
+    // names outside of the index mapped to their file or URL, null if they were not found
+    private final HashMap<String, URL> resolvedLocations = new HashMap<String, URL>();
+    // changes whenever the index changes, so resolved paths which are kept elsewhere can be checked
+    private volatile long version = 0;
+    // roots of the default resolver which could not be indexed
+    private final ArrayList<IllegalArgumentException> indexErrors = new ArrayList<IllegalArgumentException>();
+
+    /**
+     * Constructor for an empty resolver, use index() or register() to fill it
+     */
+    public AssetResolver() {
+    }
+
+    /**
+     * getDefault
+     * Returns the resolver which indexed the classpath and src/main/resources on first use.
+     *
+     * @return the shared resolver
+     */
+    public static AssetResolver getDefault() {
+        return DefaultResolverHolder.INSTANCE;
+    }
+
+    /**
+     * resolve
+     * Returns the location of an asset. The name can be a logical name, a path
+     * relative to a resource root, a URL or a path to an existing file. The
+     * file system is asked once per name until the index changes, also if the
+     * asset was not found.
+     *
+     * @param name - name of the asset
+     * @return the location of the asset or null if it could not be found
+     */
+    public URL resolve(String name) {
+
+        if (name == null) throw new IllegalArgumentException("asset name is null");
+
+        synchronized (this.assets) {
+            URL url = this.assets.get(normalize(name));
+            if (url != null) return url;
+            if (this.resolvedLocations.containsKey(name)) return this.resolvedLocations.get(name);
+        }
+
+        URL url = null;
+
+        if (hasProtocol(name)) {
+            url = toURL(name);
+        } else {
+            File file = new File(name);
+            if (file.isFile()) url = toURL(file);
+        }
+
+        synchronized (this.assets) {
+            this.resolvedLocations.put(name, url);
+        }
+
+        return url;
+    }
+
+    /**
+     * resolvePath
+     * Returns the location of an asset as String, which can be used as key or
+     * passed to the methods of net.bestofcode.MovingPointGameEngine.GraphicalComponent.
+     *
+     * @param name - name of the asset
+     * @return the external form of the location, or the name itself if the asset was not found
+     */
+    public String resolvePath(String name) {
+
+        if (name == null) throw new IllegalArgumentException("asset name is null");
+
+        synchronized (this.assets) {
+            String resolvedPath = this.resolvedPaths.get(name);
+            if (resolvedPath != null) return resolvedPath;
+        }
+
+        String resolvedPath;
+        PackedAsset packedAsset = this.resolvePacked(name);
+
+        if (packedAsset != null) {
+            resolvedPath = packedPath(packedAsset.getAssetPack(), packedAsset.getName());
+        } else {
+            URL url = this.resolve(name);
+            // names which were not found resolve to themselves, until the index changes
+            resolvedPath = url == null ? name : url.toExternalForm();
+        }
+
+        synchronized (this.assets) {
+            this.resolvedPaths.put(name, resolvedPath);
+        }
+
+        return resolvedPath;
+    }
+
+    /**
+     * resolvePacked
+     * Returns the asset of a mounted pack. Accepts the same names as resolve()
+     * and paths which were returned by resolvePath().
+     *
+     * @param name - name of the asset
+     * @return the packed asset or null if no mounted pack contains it
+     */
+    public PackedAsset resolvePacked(String name) {
+
+        if (name == null) throw new IllegalArgumentException("asset name is null");
+
+        synchronized (this.assets) {
+
+            if (!name.startsWith(PACK_PROTOCOL))
+                return this.packedAssets.get(normalize(name));
+
+            // a path returned by resolvePath(), which names the pack
+            int separator = name.lastIndexOf("!/");
+            if (separator < 0) return this.packedAssets.get(normalize(name.substring(PACK_PROTOCOL.length())));
+
+            AssetPack assetPack = this.assetPacks.get(name.substring(PACK_PROTOCOL.length(), separator));
+            String entry = name.substring(separator + 2);
+
+            return assetPack != null && assetPack.contains(entry) ? new PackedAsset(assetPack, entry) : null;
+        }
+    }
+
+    /**
+     * mount
+     * Adds all assets of a pack to the index. They are preferred over loose
+     * files of the same name.
+     *
+     * @param assetPack - the opened pack
+     */
+    public void mount(AssetPack assetPack) {
+
+        synchronized (this.assets) {
+            this.assetPacks.put(assetPack.getFile().getAbsolutePath(), assetPack);
+            for (String name : assetPack.getNames()) {
+
+                PackedAsset packedAsset = new PackedAsset(assetPack, name);
+                String path = normalize(name);
+                String fileName = path.substring(path.lastIndexOf('/') + 1);
+
+                this.packedAssets.put(path, packedAsset);
+                if (!this.packedAssets.containsKey(fileName))
+                    this.packedAssets.put(fileName, packedAsset);
+            }
+            this.changed();
+        }
+    }
+
+    /**
+     * contains
+     * Checks if the asset is known to the index
+     */
+    public boolean contains(String name) {
+        synchronized (this.assets) {
+            return this.assets.containsKey(normalize(name)) || this.packedAssets.containsKey(normalize(name));
+        }
+    }
+
+    /**
+     * register
+     * Adds a single asset to the index. The relative path always replaces older
+     * entries, the file name is only stored if it is not used yet.
+     *
+     * @param relativePath - path relative to its resource root, e.g. "img/Doodler.png"
+     * @param url          - location of the asset
+     */
+    public void register(String relativePath, URL url) {
+
+        String path = normalize(relativePath);
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+
+        synchronized (this.assets) {
+            this.assets.put(path, url);
+            if (!this.assets.containsKey(fileName))
+                this.assets.put(fileName, url);
+            this.changed();
+        }
+    }
+
+    /**
+     * getVersion
+     * Returns a number which changes whenever an asset is registered or a pack
+     * is mounted, so a resolved path can be kept until the index changes.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * getIndexErrors
+     * Returns the errors of the roots which could not be indexed by the default resolver,
+     * e.g. a broken jar on the classpath.
+     */
+    public List<IllegalArgumentException> getIndexErrors() {
+        synchronized (this.assets) {
+            return new ArrayList<IllegalArgumentException>(this.indexErrors);
+        }
+    }
+
+    /**
+     * index
+     * Adds all files of a directory or all entries of a jar to the index.
+     * Class files are skipped.
+     *
+     * @param root - a directory or a .jar file
+     * @throws IllegalArgumentException if the jar can't be read
+     */
+    public void index(File root) {
+
+        if (root.isDirectory()) {
+            this.indexDirectory(root, "");
+        } else if (root.isFile() && root.getName().endsWith(".jar")) {
+            this.indexJar(root);
+        }
+    }
+
+    public int size() {
+        synchronized (this.assets) {
+            return this.assets.size();
+        }
+    }
+
+    private void indexDirectory(File directory, String prefix) {
+
+        File[] files = directory.listFiles();
+        if (files == null) return;
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                this.indexDirectory(file, prefix + file.getName() + "/");
+            } else if (!file.getName().endsWith(".class")) {
+                this.register(prefix + file.getName(), toURL(file));
+            }
+        }
+    }
+
+    private void indexJar(File jar) {
+
+        String jarLocation = "jar:" + toURL(jar).toExternalForm() + "!/";
+
+        try (JarFile jarFile = new JarFile(jar)) {
+
+            Enumeration<JarEntry> entries = jarFile.entries();
+
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && !entry.getName().endsWith(".class"))
+                    this.register(entry.getName(), toURL(jarLocation + entry.getName()));
+            }
+
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not index " + jar, e);
+        }
+    }
+
+    // forgets all resolved names, called with the lock of the index
+    private void changed() {
+        this.resolvedPaths.clear();
+        this.resolvedLocations.clear();
+        this.version++;
+    }
+
+    // the packs are part of the path, so equal names of different packs are not mixed up
+    private static String packedPath(AssetPack assetPack, String name) {
+        return PACK_PROTOCOL + assetPack.getFile().getAbsolutePath() + "!/" + name;
+    }
+
+    // all names are stored with forward slashes and without leading slash
+    private static String normalize(String name) {
+
+        String normalized = name.replace('\\', '/');
+
+        while (normalized.startsWith("/"))
+            normalized = normalized.substring(1);
+
+        return normalized;
+    }
+
+    private static boolean hasProtocol(String name) {
+
+        int colon = name.indexOf(':');
+
+        // a single letter in front of the colon is a windows drive, not a protocol
+        return colon > 1 && name.startsWith("/", colon + 1) || name.startsWith("jar:");
+    }
+
+    private static URL toURL(File file) {
+        try {
+            return canonical(file).toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("invalid file " + file, e);
+        }
+    }
+
+    // the canonical file, so every relative path of the same file has the same location
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    private static URL toURL(String location) {
+        try {
+            return new URL(location);
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    // indexes the classpath and the project's resource folder on first use
+    private static class DefaultResolverHolder {
+
+        private static final AssetResolver INSTANCE = createDefault();
+
+        private static AssetResolver createDefault() {
+
+            AssetResolver assetResolver = new AssetResolver();
+
+            // indexed first, so file names of the project itself win over those of libraries
+            assetResolver.index(new File(System.getProperty("user.dir"), RESOURCE_DIRECTORY));
+
+            // a broken entry of the classpath must not hide the others, its error is kept for getIndexErrors()
+            for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+                if (entry.isEmpty()) continue;
+                try {
+                    assetResolver.index(new File(entry));
+                } catch (IllegalArgumentException e) {
+                    synchronized (assetResolver.assets) {
+                        assetResolver.indexErrors.add(e);
+                    }
+                }
+            }
+
+            return assetResolver;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.bestofcode.MovingPoint.asset;
+
+import javax.sound.sampled.AudioInputStream;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.PackedAsset
+ * Handle to a single asset inside of a mounted net.bestofcode.MovingPointGameEngine.AssetPack
+ */
+public class PackedAsset {
+
+    private final AssetPack assetPack;
+    private final String name;
+
+    PackedAsset(AssetPack assetPack, String name) {
+        this.assetPack = assetPack;
+        this.name = name;
+    }
+
+    public BufferedImage readImage() {
+        return this.assetPack.readImage(this.name);
+    }
+
+    public AudioInputStream getAudioInputStream() {
+        return this.assetPack.getAudioInputStream(this.name);
+    }
+
+    public InputStream openStream() {
+        return this.assetPack.openStream(this.name);
+    }
+
+    public boolean isAudio() {
+        return this.assetPack.isAudio(this.name);
+    }
+
+    public AssetPack getAssetPack() {
+        return this.assetPack;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+}
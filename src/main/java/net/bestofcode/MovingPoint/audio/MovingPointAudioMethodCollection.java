@@ -15,14 +15,18 @@ package net.bestofcode.MovingPoint.audio;
  *
  ******************************************************************************/
 
+import net.bestofcode.MovingPoint.asset.AssetResolver;
+import net.bestofcode.MovingPoint.asset.PackedAsset;
+
 import javax.sound.sampled.*;
 import java.applet.Applet;
 import java.applet.AudioClip;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
 import java.net.URL;
 
 // for playing midi sound files on some older systems
@@ -57,6 +61,8 @@ public final class MovingPointAudioMethodCollection {
     private static byte[] buffer;         // our internal buffer
     private static int bufferSize = 0;    // number of samples currently in internal buffer
 
+    private static final SoundCache soundCache = new SoundCache();   // decoded samples of preloaded sounds
+
     // static initializer
     static {
         init();
@@ -172,10 +178,9 @@ public final class MovingPointAudioMethodCollection {
                     throw new IllegalStateException("read only " + bytesRead + " of " + bytesToRead + " bytes");
             }
 
-            // try to read from URL
+            // try to read from a mounted asset pack, the asset index or URL
             else {
-                URL url = MovingPointAudioMethodCollection.class.getResource(filename);
-                ais = AudioSystem.getAudioInputStream(url);
+                ais = openAudioStream(filename);
                 int bytesToRead = ais.available();
                 data = new byte[bytesToRead];
                 int bytesRead = ais.read(data);
@@ -241,16 +246,11 @@ public final class MovingPointAudioMethodCollection {
     public static synchronized void play(final String filename) {
         if (filename == null) throw new IllegalArgumentException();
 
-        InputStream is = MovingPointAudioMethodCollection.class.getResourceAsStream(filename);
-        if (is == null) {
-            throw new IllegalArgumentException("could not read '" + filename + "'");
-        }
-
         // code adapted from: http://stackoverflow.com/questions/26305/how-can-i-play-sound-in-java
         try {
             // check if file format is supported
             // (if not, will throw an UnsupportedAudioFileException)
-            AudioSystem.getAudioInputStream(is);
+            openAudioStream(filename).close();
 
             new Thread(new Runnable() {
                 @Override
@@ -276,13 +276,7 @@ public final class MovingPointAudioMethodCollection {
 
     // play sound file using Applet.newAudioClip();
     private static void playApplet(String filename) {
-        URL url = null;
-        try {
-            File file = new File(filename);
-            if (file.canRead()) url = file.toURI().toURL();
-        } catch (MalformedURLException e) {
-            throw new IllegalArgumentException("could not play '" + filename + "'", e);
-        }
+        URL url = AssetResolver.getDefault().resolve(filename);
 
         // URL url = net.bestofcode.MovingPointGameEngine.MovingPointAudioMethodCollection.class.getResource(filename);
         if (url == null) {
@@ -293,6 +287,74 @@ public final class MovingPointAudioMethodCollection {
         clip.play();
     }
 
+    /**
+     * Returns the cache which stores the samples of all preloaded sounds.
+     *
+     * @return the sound cache
+     */
+    public static SoundCache getSoundCache() {
+        return soundCache;
+    }
+
+    /**
+     * Decodes an audio file (in .wav or .au format) into the sound cache, so
+     * playing it does not have to read the file anymore. PCM samples of asset
+     * packs are not copied, they are streamed from the mapped pack anyway.
+     *
+     * @param filename the name of the audio file
+     * @throws IllegalArgumentException if unable to read {@code filename}
+     */
+    public static void preload(String filename) {
+        if (filename == null) throw new IllegalArgumentException();
+
+        PackedAsset packedAsset = AssetResolver.getDefault().resolvePacked(filename);
+        if (packedAsset != null && packedAsset.isAudio()) return;
+
+        try (AudioInputStream ais = openAudioStream(filename)) {
+            ByteArrayOutputStream samples = new ByteArrayOutputStream();
+            byte[] buffer = new byte[SAMPLE_BUFFER_SIZE];
+            int count;
+            while ((count = ais.read(buffer)) != -1) {
+                samples.write(buffer, 0, count);
+            }
+            soundCache.put(AssetResolver.getDefault().resolvePath(filename), ais.getFormat(), samples.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not read '" + filename + "'", e);
+        } catch (UnsupportedAudioFileException e) {
+            throw new IllegalArgumentException("unsupported audio format: '" + filename + "'", e);
+        }
+    }
+
+    // open the samples of an audio file, preloaded sounds come from the cache and
+    // PCM samples of asset packs are streamed from the mapped pack
+    private static AudioInputStream openAudioStream(String filename) throws IOException, UnsupportedAudioFileException {
+        AudioInputStream cached = soundCache.open(AssetResolver.getDefault().resolvePath(filename));
+        if (cached != null) return cached;
+
+        PackedAsset packedAsset = AssetResolver.getDefault().resolvePacked(filename);
+        if (packedAsset != null && packedAsset.isAudio()) return packedAsset.getAudioInputStream();
+
+        InputStream is = openStream(filename);
+        if (is == null) {
+            throw new IllegalArgumentException("could not read '" + filename + "'");
+        }
+        return AudioSystem.getAudioInputStream(is);
+    }
+
+    // open an audio file through an asset pack or the asset index, null if it could not be found
+    private static InputStream openStream(String filename) {
+        PackedAsset packedAsset = AssetResolver.getDefault().resolvePacked(filename);
+        if (packedAsset != null) return new BufferedInputStream(packedAsset.openStream());
+
+        URL url = AssetResolver.getDefault().resolve(filename);
+        if (url == null) return null;
+        try {
+            return new BufferedInputStream(url.openStream());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     // https://www3.ntu.edu.sg/home/ehchua/programming/java/J8c_PlayingSound.html
     // play a wav or aif file
     // javax.sound.sampled.Clip fails for long clips (on some systems)
@@ -301,8 +363,7 @@ public final class MovingPointAudioMethodCollection {
         int BUFFER_SIZE = 4096; // 4K buffer
 
         try {
-            InputStream is = MovingPointAudioMethodCollection.class.getResourceAsStream(filename);
-            AudioInputStream ais = AudioSystem.getAudioInputStream(is);
+            AudioInputStream ais = openAudioStream(filename);
             AudioFormat audioFormat = ais.getFormat();
             DataLine.Info info = new DataLine.Info(SourceDataLine.class, audioFormat);
             line = (SourceDataLine) AudioSystem.getLine(info);
@@ -339,8 +400,7 @@ public final class MovingPointAudioMethodCollection {
         // code adapted from: http://stackoverflow.com/questions/26305/how-can-i-play-sound-in-java
         try {
             Clip clip = AudioSystem.getClip();
-            InputStream is = MovingPointAudioMethodCollection.class.getResourceAsStream(filename);
-            AudioInputStream ais = AudioSystem.getAudioInputStream(is);
+            AudioInputStream ais = openAudioStream(filename);
             clip.open(ais);
             clip.loop(Clip.LOOP_CONTINUOUSLY);
         } catch (UnsupportedAudioFileException e) {
@@ -1,5 +1,7 @@
 package net.bestofcode.MovingPoint.audio;
 
+import net.bestofcode.MovingPoint.asset.AssetResolver;
+
 /**
  * net.bestofcode.MovingPointGameEngine.Sound
  * The net.bestofcode.MovingPointGameEngine.Sound-object is used to play sounds inside of your games
@@ -10,14 +12,24 @@ public class Sound {
 
     // wrapped filepath
     private final String filePath;
+    // the resolved filepath and the version of the asset index it was resolved with
+    private String resolvedPath;
+    private long resolverVersion = -1;
 
     // Constructor is used to wrap the filepath
     public Sound(String filePath) {
-        this.filePath = "../" + filePath;
+        this.filePath = filePath;
     }
 
-    // This method is used by net.bestofcode.MovingPointGameEngine.MovingPointGameEngine to receive the wrapped string
+    // This method is used by net.bestofcode.MovingPointGameEngine.MovingPointGameEngine to receive the wrapped string,
+    // it is resolved again only after the asset index changed, e.g. a pack was mounted later
     public String getFilePath() {
-        return this.filePath;
+        AssetResolver assetResolver = AssetResolver.getDefault();
+        long version = assetResolver.getVersion();
+        if (this.resolvedPath == null || this.resolverVersion != version) {
+            this.resolvedPath = assetResolver.resolvePath(this.filePath);
+            this.resolverVersion = version;
+        }
+        return this.resolvedPath;
     }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package net.bestofcode.MovingPoint.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.SoundCache
+ * The SoundCache keeps the decoded samples of preloaded sounds in memory, so
+ * playing them does not have to read or decode their files. The cache is
+ * bounded by a budget of bytes and evicts the least recently played sound when
+ * it is full, an evicted sound is read from its file again. All methods are
+ * thread-safe.
+ */
+public class SoundCache {
+
+    // default budget of 32 MB samples, about three minutes of CD quality audio
+    public static final long DEFAULT_MAXIMUM_BYTES = 32L * 1024 * 1024;
+
+    // access ordered map, the eldest entry is the least recently played sound
+    private final LinkedHashMap<String, CachedSound> sounds = new LinkedHashMap<String, CachedSound>(16, 0.75f, true);
+
+    private long maximumBytes;
+    private long currentBytes = 0;
+    private long evictions = 0;
+
+    /**
+     * Constructor for a cache with the default budget
+     */
+    public SoundCache() {
+        this(DEFAULT_MAXIMUM_BYTES);
+    }
+
+    /**
+     * Constructor for a cache with a custom budget
+     *
+     * @param maximumBytes - the maximum number of bytes of samples kept in memory
+     */
+    public SoundCache(long maximumBytes) {
+        if (maximumBytes < 0) throw new IllegalArgumentException("sound cache budget can't be negative");
+        this.maximumBytes = maximumBytes;
+    }
+
+    /**
+     * put
+     * Stores the decoded samples of a sound and evicts old sounds until the budget
+     * fits again. Sounds which are bigger than the whole budget will not be stored.
+     *
+     * @param path    - the resolved path of the sound, used as key
+     * @param format  - format of the samples
+     * @param samples - the decoded samples
+     */
+    public synchronized void put(String path, AudioFormat format, byte[] samples) {
+
+        this.remove(path);
+
+        if (samples.length > this.maximumBytes) return;
+
+        this.sounds.put(path, new CachedSound(format, samples));
+        this.currentBytes += samples.length;
+        this.evict();
+    }
+
+    /**
+     * open
+     * Returns a stream over the cached samples of a sound
+     *
+     * @param path - the resolved path of the sound
+     * @return the stream or null if the sound is not cached
+     */
+    public AudioInputStream open(String path) {
+
+        CachedSound cachedSound;
+        synchronized (this) {
+            cachedSound = this.sounds.get(path);
+        }
+
+        if (cachedSound == null) return null;
+
+        return new AudioInputStream(new ByteArrayInputStream(cachedSound.samples), cachedSound.format,
+                cachedSound.samples.length / cachedSound.format.getFrameSize());
+    }
+
+    public synchronized boolean contains(String path) {
+        return this.sounds.containsKey(path);
+    }
+
+    public synchronized void remove(String path) {
+
+        CachedSound cachedSound = this.sounds.remove(path);
+        if (cachedSound != null) this.currentBytes -= cachedSound.samples.length;
+    }
+
+    public synchronized void clear() {
+        this.sounds.clear();
+        this.currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return this.sounds.size();
+    }
+
+    public synchronized void setMaximumBytes(long maximumBytes) {
+        if (maximumBytes < 0) throw new IllegalArgumentException("sound cache budget can't be negative");
+        this.maximumBytes = maximumBytes;
+        this.evict();
+    }
+
+    public synchronized long getMaximumBytes() {
+        return this.maximumBytes;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return this.currentBytes;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    // remove the least recently played sounds until the budget fits
+    private void evict() {
+
+        Iterator<Map.Entry<String, CachedSound>> iterator = this.sounds.entrySet().iterator();
+
+        while (this.currentBytes > this.maximumBytes && iterator.hasNext()) {
+            Map.Entry<String, CachedSound> eldest = iterator.next();
+            this.currentBytes -= eldest.getValue().samples.length;
+            iterator.remove();
+            this.evictions++;
+        }
+    }
+
+    private static class CachedSound {
+        final AudioFormat format;
+        final byte[] samples;
+
+        CachedSound(AudioFormat format, byte[] samples) {
+            this.format = format;
+            this.samples = samples;
+        }
+    }
+}
@@ -22,6 +22,8 @@ public class GameObject {
     public IGraphicalComponent drawObject;
     public GraphicalComponent graphicalComponent;
     public String hashCode;
+    // the query which stores the game object, it is told about every new position
+    GameObjectQuery gameObjectQuery;
 
     /**
      * Constructor 1
@@ -92,4 +94,20 @@ public class GameObject {
     public Position getPosition() {
         return this.position;
     }
+
+    /**
+     * setPosition
+     * Moves the game object. A stored game object is found at its new position
+     * by the next query, without the engine reading the positions of all game objects.
+     */
+    public void setPosition(double x, double y) {
+
+        if (this.gameObjectQuery != null) {
+            this.gameObjectQuery.moveGameObject(this, x, y);
+            return;
+        }
+
+        this.position.x = x;
+        this.position.y = y;
+    }
 }
\ No newline at end of file
@@ -8,7 +8,12 @@ import java.util.stream.Collectors;
 
 public class GameObjectQuery {
 
+    // size of the cells of the spatial index, a tenth of the default axis range
+    private static final double SPATIAL_INDEX_CELL_SIZE = 0.2;
+
     private final LinkedHashMap<SHA1Hash, GameObject> gameObjectHashMap;
+    // finds the game objects inside of a rectangle, e.g. the visible part of the canvas
+    private final SpatialIndex<GameObject> spatialIndex = new SpatialIndex<GameObject>(SPATIAL_INDEX_CELL_SIZE);
 
     public GameObjectQuery() {
         this.gameObjectHashMap = new LinkedHashMap<SHA1Hash, GameObject>();
@@ -34,6 +39,73 @@ public class GameObjectQuery {
         return this.gameObjectHashMap.size() > 0;
     }
 
+    public int size() {
+        return this.gameObjectHashMap.size();
+    }
+
+    /**
+     * loadAllPositions
+     * Copies the positions of all game objects into the given arrays, e.g. to
+     * draw them with a single batch call. The arrays need room for size() entries.
+     *
+     * @return the number of copied positions
+     */
+    public int loadAllPositions(double[] xs, double[] ys) {
+
+        if (xs.length < this.gameObjectHashMap.size() || ys.length < this.gameObjectHashMap.size())
+            throw new IllegalArgumentException("arrays are too small for " + this.gameObjectHashMap.size() + " positions");
+
+        int count = 0;
+
+        for (GameObject gameObject : this.gameObjectHashMap.values()) {
+            xs[count] = gameObject.position.x;
+            ys[count] = gameObject.position.y;
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * loadVisibleGameObjects
+     * Adds the game objects inside of the rectangle to the result, e.g. the
+     * visible ones. Only the game objects near the rectangle are looked at.
+     *
+     * @return the number of added game objects
+     */
+    public int loadVisibleGameObjects(double minimumX, double minimumY, double maximumX, double maximumY,
+                                      List<GameObject> result) {
+
+        return this.spatialIndex.query(minimumX, minimumY, maximumX, maximumY, result);
+
+    }
+
+    /**
+     * moveGameObject
+     * Moves a stored game object, so it is found at its new position right away.
+     * GameObject.setPosition() moves a stored game object through this method.
+     */
+    public void moveGameObject(GameObject gameObject, double x, double y) {
+
+        gameObject.position.x = x;
+        gameObject.position.y = y;
+
+        this.spatialIndex.move(gameObject, x, y);
+
+    }
+
+    /**
+     * reindex
+     * Updates the spatial index after positions were changed directly, this
+     * reads the position of every game object. Moving them with
+     * GameObject.setPosition() or moveGameObject() costs only the moved ones.
+     */
+    public void reindex() {
+
+        this.spatialIndex.moveAll(gameObject -> gameObject.position.x, gameObject -> gameObject.position.y);
+
+    }
+
     public void storeCollectionOfGameObjects(Collection<GameObject> collectionOfGameObjects) {
 
         for (GameObject gameObjectToStore : collectionOfGameObjects) {
@@ -44,6 +116,8 @@ public class GameObjectQuery {
     public void storeGameObject(GameObject gameObjectToStore) {
 
         gameObjectHashMap.put(new SHA1Hash("" + gameObjectToStore.hashCode()), gameObjectToStore);
+        spatialIndex.insert(gameObjectToStore, gameObjectToStore.position.x, gameObjectToStore.position.y);
+        gameObjectToStore.gameObjectQuery = this;
 
     }
 
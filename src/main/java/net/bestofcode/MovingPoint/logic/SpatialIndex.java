@@ -0,0 +1,336 @@
+package net.bestofcode.MovingPoint.logic;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.SpatialIndex
+ * The SpatialIndex finds all objects inside of a rectangle without looking at
+ * the others. The plane is divided into square cells, every object is stored
+ * in the cell of its position, so a query only visits the cells which overlap
+ * the rectangle. Inserting, moving and removing an object takes constant time.
+ * Cells are freed as soon as their last object leaves them.
+ * <p>
+ * Objects are stored as points and compared by identity. Objects with an
+ * extent are found by growing the rectangle of the query by their size.
+ *
+ * @param <T> the type of the stored objects
+ */
+public class SpatialIndex<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final double cellSize;
+
+    private final IdentityHashMap<T, Entry<T>> entries = new IdentityHashMap<T, Entry<T>>();
+
+    // open addressing table of the occupied cells, the key of a cell packs its column and row
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Cell<T>[] cells = newCells(INITIAL_CAPACITY);
+    private int numberOfCells = 0;
+
+    /**
+     * Constructor for a SpatialIndex
+     *
+     * @param cellSize - width and height of a cell, about the size of a typical query works best
+     */
+    public SpatialIndex(double cellSize) {
+        if (!(cellSize > 0)) throw new IllegalArgumentException("cell size must be positive");
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * insert
+     * Stores the object at (x, y), an object which is already stored is moved.
+     */
+    public void insert(T object, double x, double y) {
+
+        if (object == null) throw new IllegalArgumentException("object is null");
+
+        Entry<T> entry = this.entries.get(object);
+
+        if (entry != null) {
+            this.move(entry, x, y);
+            return;
+        }
+
+        entry = new Entry<T>(object);
+        entry.x = x;
+        entry.y = y;
+        entry.key = this.keyOf(x, y);
+        this.entries.put(object, entry);
+        this.cellFor(entry.key).add(entry);
+    }
+
+    /**
+     * move
+     * Updates the position of a stored object.
+     *
+     * @return false if the object is not stored
+     */
+    public boolean move(T object, double x, double y) {
+
+        Entry<T> entry = this.entries.get(object);
+        if (entry == null) return false;
+
+        this.move(entry, x, y);
+        return true;
+    }
+
+    /**
+     * remove
+     * Removes the object from the index.
+     *
+     * @return false if the object is not stored
+     */
+    public boolean remove(T object) {
+
+        Entry<T> entry = this.entries.remove(object);
+        if (entry == null) return false;
+
+        this.removeFromCell(entry);
+        return true;
+    }
+
+    /**
+     * moveAll
+     * Reads the position of every stored object again, e.g. once per frame if the
+     * positions are changed directly. Objects which stay inside of their cell are
+     * not touched.
+     *
+     * @param x - returns the x-coordinate of an object
+     * @param y - returns the y-coordinate of an object
+     */
+    public void moveAll(ToDoubleFunction<? super T> x, ToDoubleFunction<? super T> y) {
+        for (Entry<T> entry : this.entries.values())
+            this.move(entry, x.applyAsDouble(entry.object), y.applyAsDouble(entry.object));
+    }
+
+    /**
+     * query
+     * Adds all objects whose position is inside of the rectangle to the result.
+     *
+     * @return the number of added objects
+     */
+    public int query(double minimumX, double minimumY, double maximumX, double maximumY, List<T> result) {
+
+        if (minimumX > maximumX || minimumY > maximumY) return 0;
+
+        long firstColumn = this.cellOf(minimumX);
+        long lastColumn = this.cellOf(maximumX);
+        long firstRow = this.cellOf(minimumY);
+        long lastRow = this.cellOf(maximumY);
+
+        int found = 0;
+
+        // a rectangle which covers more cells than are occupied visits the occupied ones instead
+        double coveredCells = (double) (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1);
+
+        if (coveredCells > this.numberOfCells) {
+            for (Cell<T> cell : this.cells)
+                if (cell != null)
+                    found += cell.query(minimumX, minimumY, maximumX, maximumY, result);
+            return found;
+        }
+
+        for (long row = firstRow; row <= lastRow; row++) {
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                Cell<T> cell = this.cells[this.slotOf(key(column, row))];
+                if (cell != null)
+                    found += cell.query(minimumX, minimumY, maximumX, maximumY, result);
+            }
+        }
+
+        return found;
+    }
+
+    public boolean contains(T object) {
+        return this.entries.containsKey(object);
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public void clear() {
+        this.entries.clear();
+        this.keys = new long[INITIAL_CAPACITY];
+        this.cells = newCells(INITIAL_CAPACITY);
+        this.numberOfCells = 0;
+    }
+
+    // the slot where the probe sequence of the cell of (x, y) starts, for tests of the table
+    int homeSlotOf(double x, double y) {
+        return this.homeSlotOf(this.keyOf(x, y));
+    }
+
+    // the number of slots of the table, for tests
+    int getCapacity() {
+        return this.keys.length;
+    }
+
+    // the number of occupied cells, for tests
+    int getNumberOfCells() {
+        return this.numberOfCells;
+    }
+
+    private void move(Entry<T> entry, double x, double y) {
+
+        entry.x = x;
+        entry.y = y;
+
+        long key = this.keyOf(x, y);
+        if (key == entry.key) return;
+
+        this.removeFromCell(entry);
+        entry.key = key;
+        this.cellFor(key).add(entry);
+    }
+
+    // removes the entry from its cell and frees the cell if it is empty afterwards
+    private void removeFromCell(Entry<T> entry) {
+
+        int slot = this.slotOf(entry.key);
+        Cell<T> cell = this.cells[slot];
+
+        cell.remove(entry);
+        if (cell.entries.isEmpty()) this.removeCell(slot);
+    }
+
+    private long cellOf(double coordinate) {
+        return (long) Math.floor(coordinate / this.cellSize);
+    }
+
+    private long keyOf(double x, double y) {
+        return key(this.cellOf(x), this.cellOf(y));
+    }
+
+    private static long key(long column, long row) {
+        return (column << 32) ^ (row & 0xffffffffL);
+    }
+
+    // the slot where the probe sequence of the key starts
+    private int homeSlotOf(long key) {
+        long hash = key * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32)) & (this.keys.length - 1);
+    }
+
+    // the slot of the cell with the key, or the empty slot where it belongs
+    private int slotOf(long key) {
+
+        int mask = this.keys.length - 1;
+        int slot = this.homeSlotOf(key);
+
+        while (this.cells[slot] != null && this.keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    private Cell<T> cellFor(long key) {
+
+        int slot = this.slotOf(key);
+        if (this.cells[slot] != null) return this.cells[slot];
+
+        if (2 * (this.numberOfCells + 1) > this.keys.length) {
+            this.grow();
+            slot = this.slotOf(key);
+        }
+
+        this.keys[slot] = key;
+        this.cells[slot] = new Cell<T>();
+        this.numberOfCells++;
+
+        return this.cells[slot];
+    }
+
+    // empties the slot and moves the following cells of the probe sequence back, so no probe sequence breaks
+    private void removeCell(int slot) {
+
+        int mask = this.keys.length - 1;
+        int hole = slot;
+
+        this.cells[hole] = null;
+        this.numberOfCells--;
+
+        for (int next = (hole + 1) & mask; this.cells[next] != null; next = (next + 1) & mask) {
+
+            // the cell may fill the hole if the hole lies between its home slot and its slot
+            int home = this.homeSlotOf(this.keys[next]);
+            if (((next - home) & mask) < ((next - hole) & mask)) continue;
+
+            this.keys[hole] = this.keys[next];
+            this.cells[hole] = this.cells[next];
+            this.cells[next] = null;
+            hole = next;
+        }
+    }
+
+    private void grow() {
+
+        long[] oldKeys = this.keys;
+        Cell<T>[] oldCells = this.cells;
+
+        this.keys = new long[2 * oldKeys.length];
+        this.cells = newCells(2 * oldCells.length);
+
+        for (int i = 0; i < oldCells.length; i++) {
+            if (oldCells[i] == null) continue;
+            int slot = this.slotOf(oldKeys[i]);
+            this.keys[slot] = oldKeys[i];
+            this.cells[slot] = oldCells[i];
+        }
+    }
+
+    private static <T> Cell<T>[] newCells(int capacity) {
+        @SuppressWarnings("unchecked")
+        Cell<T>[] cells = (Cell<T>[]) new Cell<?>[capacity];
+        return cells;
+    }
+
+    private static final class Entry<T> {
+
+        private final T object;
+        private double x, y;
+        private long key;
+        // position inside of the list of its cell
+        private int slot;
+
+        private Entry(T object) {
+            this.object = object;
+        }
+    }
+
+    private static final class Cell<T> {
+
+        private final ArrayList<Entry<T>> entries = new ArrayList<Entry<T>>();
+
+        private void add(Entry<T> entry) {
+            entry.slot = this.entries.size();
+            this.entries.add(entry);
+        }
+
+        // replaces the entry by the last one, so removing does not shift the list
+        private void remove(Entry<T> entry) {
+            Entry<T> last = this.entries.remove(this.entries.size() - 1);
+            if (last != entry) {
+                last.slot = entry.slot;
+                this.entries.set(entry.slot, last);
+            }
+        }
+
+        private int query(double minimumX, double minimumY, double maximumX, double maximumY, List<T> result) {
+            int found = 0;
+            for (int i = 0; i < this.entries.size(); i++) {
+                Entry<T> entry = this.entries.get(i);
+                if (entry.x >= minimumX && entry.x <= maximumX && entry.y >= minimumY && entry.y <= maximumY) {
+                    result.add(entry.object);
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+}
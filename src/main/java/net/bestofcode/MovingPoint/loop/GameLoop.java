@@ -0,0 +1,214 @@
+package net.bestofcode.MovingPoint.loop;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.GameLoop
+ * The GameLoop advances the simulation of a GameLoopListener in fixed timesteps
+ * and renders it as often as the frame cap allows. The frame time does not
+ * depend on how long a frame took to draw: slow frames are caught up with
+ * additional simulation steps, fast frames wait until their deadline.
+ * <p>
+ * Waiting uses Thread.sleep() for the coarse part and Thread.yield() for the
+ * last milliseconds, since sleep() alone overshoots the deadline by up to a
+ * scheduler tick.
+ */
+public class GameLoop implements Runnable {
+
+    public static final int DEFAULT_TICKS_PER_SECOND = 60;
+    public static final int DEFAULT_FRAMES_PER_SECOND = 60;
+
+    // number of simulation steps a single frame may catch up before time is dropped
+    public static final int DEFAULT_MAXIMUM_STEPS_PER_FRAME = 5;
+
+    // the last part of a wait is spent yielding instead of sleeping
+    private static final long SPIN_THRESHOLD_IN_NANO_SECONDS = 2000000;
+
+    private static final long NANO_SECONDS_PER_SECOND = 1000000000;
+
+    private final GameLoopListener listener;
+
+    private long stepInNanoSeconds;
+    private long frameTimeInNanoSeconds;
+    private int maximumStepsPerFrame = DEFAULT_MAXIMUM_STEPS_PER_FRAME;
+
+    private volatile boolean running = false;
+
+    // statistics of the last full second
+    private volatile double framesPerSecond = 0;
+    private volatile double ticksPerSecond = 0;
+    private volatile double averageFrameTimeInMilliSeconds = 0;
+
+    /**
+     * Constructor for a loop with 60 ticks and 60 frames per second
+     *
+     * @param listener - is updated and rendered by the loop
+     */
+    public GameLoop(GameLoopListener listener) {
+        this(listener, DEFAULT_TICKS_PER_SECOND, DEFAULT_FRAMES_PER_SECOND);
+    }
+
+    /**
+     * Constructor for a loop with a custom tick rate and frame cap
+     *
+     * @param listener        - is updated and rendered by the loop
+     * @param ticksPerSecond  - number of simulation steps per second
+     * @param framesPerSecond - maximum number of frames per second, 0 for no cap
+     */
+    public GameLoop(GameLoopListener listener, int ticksPerSecond, int framesPerSecond) {
+        if (listener == null) throw new IllegalArgumentException("game loop needs a listener");
+        this.listener = listener;
+        this.setTicksPerSecond(ticksPerSecond);
+        this.setFramesPerSecond(framesPerSecond);
+    }
+
+    /**
+     * run
+     * Runs the loop on the calling thread until stop() is called.
+     */
+    @Override
+    public void run() {
+
+        this.running = true;
+
+        long previousFrame = System.nanoTime();
+        long nextFrame = previousFrame;
+        long accumulator = 0;
+
+        long statisticsStart = previousFrame;
+        int frames = 0;
+        int ticks = 0;
+
+        while (this.running) {
+
+            long now = System.nanoTime();
+            long elapsed = now - previousFrame;
+            previousFrame = now;
+
+            accumulator += elapsed;
+
+            int steps = 0;
+            double deltaInSeconds = (double) this.stepInNanoSeconds / NANO_SECONDS_PER_SECOND;
+
+            while (accumulator >= this.stepInNanoSeconds && steps < this.maximumStepsPerFrame) {
+                this.listener.update(deltaInSeconds);
+                accumulator -= this.stepInNanoSeconds;
+                steps++;
+            }
+
+            // the simulation can't keep up, drop the time instead of spiralling
+            if (accumulator >= this.stepInNanoSeconds)
+                accumulator %= this.stepInNanoSeconds;
+
+            this.listener.render((double) accumulator / this.stepInNanoSeconds);
+
+            ticks += steps;
+            frames++;
+
+            if (now - statisticsStart >= NANO_SECONDS_PER_SECOND) {
+                double seconds = (double) (now - statisticsStart) / NANO_SECONDS_PER_SECOND;
+                this.framesPerSecond = frames / seconds;
+                this.ticksPerSecond = ticks / seconds;
+                this.averageFrameTimeInMilliSeconds = seconds * 1000 / frames;
+                statisticsStart = now;
+                frames = 0;
+                ticks = 0;
+            }
+
+            if (this.frameTimeInNanoSeconds > 0) {
+                nextFrame += this.frameTimeInNanoSeconds;
+
+                // don't rush to catch up frames which are already late
+                long afterRender = System.nanoTime();
+                if (nextFrame < afterRender - this.frameTimeInNanoSeconds)
+                    nextFrame = afterRender;
+
+                this.waitUntil(nextFrame);
+            }
+        }
+    }
+
+    /**
+     * stop
+     * Stops the loop after the current frame.
+     */
+    public void stop() {
+        this.running = false;
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    public void setTicksPerSecond(int ticksPerSecond) {
+        if (ticksPerSecond <= 0) throw new IllegalArgumentException("ticks per second must be positive");
+        this.stepInNanoSeconds = NANO_SECONDS_PER_SECOND / ticksPerSecond;
+    }
+
+    /**
+     * setFramesPerSecond
+     * Caps the number of rendered frames per second. 0 renders as fast as possible.
+     */
+    public void setFramesPerSecond(int framesPerSecond) {
+        if (framesPerSecond < 0) throw new IllegalArgumentException("frames per second can't be negative");
+        this.frameTimeInNanoSeconds = framesPerSecond == 0 ? 0 : NANO_SECONDS_PER_SECOND / framesPerSecond;
+    }
+
+    public void setMaximumStepsPerFrame(int maximumStepsPerFrame) {
+        if (maximumStepsPerFrame <= 0) throw new IllegalArgumentException("a frame needs at least one step");
+        this.maximumStepsPerFrame = maximumStepsPerFrame;
+    }
+
+    /**
+     * getFramesPerSecond
+     * Returns the number of frames rendered during the last second
+     */
+    public double getFramesPerSecond() {
+        return this.framesPerSecond;
+    }
+
+    /**
+     * getTicksPerSecond
+     * Returns the number of simulation steps during the last second
+     */
+    public double getTicksPerSecond() {
+        return this.ticksPerSecond;
+    }
+
+    /**
+     * getFrameTime
+     * Returns the average time between two frames during the last second in milliseconds
+     */
+    public double getFrameTime() {
+        return this.averageFrameTimeInMilliSeconds;
+    }
+
+    /**
+     * toString
+     * Returns the statistics of the loop in a readable way, e.g. for a debug overlay.
+     */
+    @Override
+    public String toString() {
+        return String.format("fps = %.1f, ticks = %.1f, frame time = %.2f ms",
+                this.framesPerSecond, this.ticksPerSecond, this.averageFrameTimeInMilliSeconds);
+    }
+
+    // sleep for the coarse part of the wait and yield for the rest
+    private void waitUntil(long deadline) {
+
+        long remaining;
+
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+
+            if (remaining > SPIN_THRESHOLD_IN_NANO_SECONDS) {
+                try {
+                    Thread.sleep((remaining - SPIN_THRESHOLD_IN_NANO_SECONDS) / 1000000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    this.running = false;
+                    return;
+                }
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+}
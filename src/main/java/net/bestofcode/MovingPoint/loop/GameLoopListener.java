@@ -0,0 +1,25 @@
+package net.bestofcode.MovingPoint.loop;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.GameLoopListener
+ * Interface for everything which is driven by a GameLoop. The simulation is
+ * advanced in fixed steps, rendering happens as often as the frame cap allows.
+ */
+public interface GameLoopListener {
+
+    /**
+     * Invoked once per simulation step.
+     *
+     * @param deltaInSeconds the fixed timestep of the loop
+     */
+    void update(double deltaInSeconds);
+
+    /**
+     * Invoked once per frame.
+     *
+     * @param alpha how far the current frame lies between the last two
+     *              simulation steps, in range [0,1]. Use it to interpolate
+     *              between the previous and the current state.
+     */
+    void render(double alpha);
+}
@@ -0,0 +1,165 @@
+package net.bestofcode.MovingPoint.render;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.DamageTracker
+ * The DamageTracker finds the parts of the canvas which have to be redrawn.
+ * Every frame the bounds of all drawn objects are tracked: an object which
+ * moved damages its old and its new bounds, a new object its new bounds and
+ * an object which is not tracked anymore its old bounds. Overlapping damage
+ * is merged, too many rectangles are merged into their union.
+ * <p>
+ * Everything is measured in pixels of the canvas.
+ */
+public class DamageTracker {
+
+    public static final int DEFAULT_MAXIMUM_RECTANGLES = 16;
+
+    private IdentityHashMap<Object, Rectangle> previousBounds = new IdentityHashMap<Object, Rectangle>();
+    private IdentityHashMap<Object, Rectangle> currentBounds = new IdentityHashMap<Object, Rectangle>();
+    private final ArrayList<Rectangle> damage = new ArrayList<Rectangle>();
+    // the damage returned by collectDamage(), reused by every frame
+    private final ArrayList<Rectangle> collectedDamage = new ArrayList<Rectangle>();
+    // bounds of objects which are not tracked anymore, reused for newly tracked objects
+    private final ArrayList<Rectangle> spareBounds = new ArrayList<Rectangle>();
+    private final Rectangle canvas = new Rectangle();
+
+    private final int maximumRectangles;
+    private int width;
+    private int height;
+
+    // the first frame has to be drawn completely
+    private boolean invalid = true;
+
+    /**
+     * Constructor for a tracker of a width-by-height canvas
+     */
+    public DamageTracker(int width, int height) {
+        this(width, height, DEFAULT_MAXIMUM_RECTANGLES);
+    }
+
+    /**
+     * Constructor for a tracker with a custom number of damaged rectangles
+     *
+     * @param width             - width of the canvas in pixels
+     * @param height            - height of the canvas in pixels
+     * @param maximumRectangles - more damaged rectangles are merged into their union
+     */
+    public DamageTracker(int width, int height, int maximumRectangles) {
+        if (maximumRectangles <= 0) throw new IllegalArgumentException("at least one damaged rectangle is needed");
+        this.maximumRectangles = maximumRectangles;
+        this.setCanvasSize(width, height);
+    }
+
+    /**
+     * setCanvasSize
+     * Changes the size of the canvas, the next frame has to be drawn completely.
+     */
+    public void setCanvasSize(int width, int height) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("width and height must be positive");
+        this.width = width;
+        this.height = height;
+        this.canvas.setBounds(0, 0, width, height);
+        this.invalidate();
+    }
+
+    /**
+     * invalidate
+     * Damages the whole canvas, e.g. after the background or the scale changed.
+     */
+    public void invalidate() {
+        this.invalid = true;
+    }
+
+    /**
+     * track
+     * Reports where an object is drawn during the current frame.
+     *
+     * The bounds are copied, so the same rectangle can be passed for every object.
+     *
+     * @param object - the drawn object, compared by identity
+     * @param bounds - the pixels covered by the object
+     */
+    public void track(Object object, Rectangle bounds) {
+
+        Rectangle tracked = this.previousBounds.remove(object);
+
+        if (tracked == null) {
+            this.damage(bounds);
+            tracked = this.spareBounds.isEmpty() ? new Rectangle() : this.spareBounds.remove(this.spareBounds.size() - 1);
+        } else if (!tracked.equals(bounds)) {
+            this.damage(tracked);
+            this.damage(bounds);
+        }
+
+        tracked.setBounds(bounds);
+        this.currentBounds.put(object, tracked);
+    }
+
+    /**
+     * damage
+     * Marks a rectangle as damaged, e.g. because its content changed in place.
+     */
+    public void damage(Rectangle bounds) {
+
+        Rectangle damaged = bounds.intersection(this.canvas);
+        if (damaged.isEmpty()) return;
+
+        // grow the new rectangle until it overlaps no other damaged rectangle
+        for (int i = this.damage.size() - 1; i >= 0; i--) {
+            if (this.damage.get(i).intersects(damaged)) {
+                damaged.add(this.damage.remove(i));
+                i = this.damage.size();
+            }
+        }
+
+        this.damage.add(damaged);
+
+        if (this.damage.size() > this.maximumRectangles) {
+            Rectangle union = this.damage.get(0);
+            for (Rectangle rectangle : this.damage) union.add(rectangle);
+            this.damage.clear();
+            this.damage.add(union);
+        }
+    }
+
+    /**
+     * collectDamage
+     * Finishes the current frame and returns the damaged rectangles, which may
+     * be empty if nothing changed. Objects which were not tracked during this
+     * frame damage their old bounds. The returned list is reused by the next
+     * call.
+     *
+     * @return the damaged rectangles of the frame
+     */
+    public List<Rectangle> collectDamage() {
+
+        for (Rectangle removed : this.previousBounds.values()) {
+            this.damage(removed);
+            this.spareBounds.add(removed);
+        }
+
+        IdentityHashMap<Object, Rectangle> swap = this.previousBounds;
+        this.previousBounds = this.currentBounds;
+        this.currentBounds = swap;
+        this.currentBounds.clear();
+
+        if (this.invalid) {
+            this.damage.clear();
+            this.damage.add(new Rectangle(0, 0, this.width, this.height));
+            this.invalid = false;
+        }
+
+        this.collectedDamage.clear();
+        // addAll() would copy the rectangles into a temporary array
+        for (int i = 0; i < this.damage.size(); i++)
+            this.collectedDamage.add(this.damage.get(i));
+        this.damage.clear();
+
+        return this.collectedDamage;
+    }
+}
@@ -23,22 +23,41 @@ package net.bestofcode.MovingPoint.render; /************************************
  *
  ******************************************************************************/
 
+import net.bestofcode.MovingPoint.asset.AssetResolver;
+import net.bestofcode.MovingPoint.asset.PackedAsset;
 import net.bestofcode.MovingPoint.event.IMovingPointEventManager;
+import net.bestofcode.MovingPoint.render.camera.Camera;
+import net.bestofcode.MovingPoint.render.capture.FrameRecorder;
+import net.bestofcode.MovingPoint.render.command.RenderCommandBuffer;
+import net.bestofcode.MovingPoint.render.command.RenderThread;
+import net.bestofcode.MovingPoint.render.command.TiledRasterizer;
+import net.bestofcode.MovingPoint.render.layer.LayerPainter;
 import net.bestofcode.MovingPoint.render.gamewindow.GameWindow;
+import net.bestofcode.MovingPoint.render.shape.PrimitiveShape;
+import net.bestofcode.MovingPoint.render.texture.TextureAtlas;
+import net.bestofcode.MovingPoint.render.texture.TextureCache;
+import net.bestofcode.MovingPoint.render.texture.TextureImporter;
+import net.bestofcode.MovingPoint.render.texture.TextureRegion;
+import net.bestofcode.MovingPoint.render.texture.TransformedTextureCache;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.awt.image.DirectColorModel;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.TreeSet;
 
 /**
@@ -165,6 +184,18 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
 
     // default font
     private static final Font DEFAULT_FONT = new Font("SansSerif", Font.PLAIN, 16);
+    // pixel layout of the offscreen buffer
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    private static final int OFFSCREEN_IMAGE_TYPE = BufferedImage.TYPE_INT_ARGB;
+    // pixel layout of all textures, premultiplied ints are blended fastest onto the offscreen buffer
+    private static final int TEXTURE_IMAGE_TYPE = BufferedImage.TYPE_INT_ARGB_PRE;
+    // decoded images, shared by all drawing windows
+    private static final TextureCache<String> textureCache = new TextureCache<String>();
+    // packed textures, shared by all drawing windows
+    private static final TextureAtlas textureAtlas = new TextureAtlas(TEXTURE_IMAGE_TYPE);
+    // rotated and scaled variants of textures, shared by all drawing windows
+    private static final TransformedTextureCache transformedTextureCache = new TransformedTextureCache(TEXTURE_IMAGE_TYPE);
     // for synchronization
     private final Object mouseLock = new Object();
     private final Object keyLock = new Object();
@@ -185,17 +216,55 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
     // show we draw immediately or wait until next show?
     private boolean defer = false;
     private double xmin, ymin, xmax, ymax;
+    // the part of the world which is shown, null if the x- and y-scale alone decide it
+    private Camera camera;
+    private long cameraVersion;
+    // cached transform from user coordinates to pixels, computed whenever the scale or the camera changes:
+    // pixel x = originX + x * pixelsPerUnitX, pixel y = originY - y * pixelsPerUnitY, turned by cameraRotation
+    private double originX, originY;
+    private double pixelsPerUnitX, pixelsPerUnitY;
+    private double cameraSin = 0, cameraCos = 1;
+    private final AffineTransform cameraRotation = new AffineTransform();
+    // the same transform without the camera, layers are painted with it and turned into the camera view when drawn
+    private double layerOriginX, layerOriginY;
+    private double layerPixelsPerUnitX, layerPixelsPerUnitY;
+    private final AffineTransform layerTransform = new AffineTransform();
+    // changes with the canvas size and the scale, cached drawings are outdated then
+    private long canvasVersion = 0;
+    // changes with the camera as well, drawings in pixels of the canvas are outdated then
+    private long transformVersion = 0;
     // current font
     private Font font;
     // the JLabel for drawing
     private JLabel draw;
+    // the Canvas and its buffers for active rendering
+    private Canvas canvas;
+    private BufferStrategy bufferStrategy;
+    // how finished frames are presented
+    private final RenderMode renderMode;
     // double buffered graphics
     private BufferedImage offscreenImage, onscreenImage;
     private Graphics2D offscreen, onscreen;
-    // the frame for drawing to the screen
-    private GameWindow frame = new GameWindow();
+    // measures texts while the offscreen graphics belongs to the render thread
+    private Graphics2D measure;
+    // rasterizes the recorded frames, null if drawing happens on the calling thread
+    private RenderThread renderThread;
+    private RenderCommandBuffer commands;
+    // rasterizes the recorded frames on all cores, null if the render thread replays them alone
+    private TiledRasterizer tiledRasterizer;
+    // shapes which are reused by every primitive, so drawing does not allocate
+    private final PrimitiveShape shape = new PrimitiveShape();
+    private final Rectangle2D.Double rectangle = new Rectangle2D.Double();
+    private final Arc2D.Double arc = new Arc2D.Double(Arc2D.OPEN);
+    // view of the pixels of the canvas between beginPixels() and endPixels()
+    private final PixelBuffer pixelBuffer = new PixelBuffer(this);
+    // writes the shown frames into image files, null if they are not recorded
+    private FrameRecorder frameRecorder;
+    // the frame for drawing to the screen, null if the render mode is headless
+    private GameWindow frame;
     // mouse state
     private boolean isMousePressed = false;
+    private long numberOfMousePresses = 0;
     private double mouseX = 0;
     private double mouseY = 0;
 
@@ -206,14 +275,36 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * @param name the title of the drawing window.
      */
     public GraphicalComponent(String name) {
-        this.name = name;
-        init();
+        this(name, RenderMode.SWING);
     }
 
     /**
      * Initializes an empty drawing object.
      */
     public GraphicalComponent() {
+        this(RenderMode.SWING);
+    }
+
+    /**
+     * Initializes an empty drawing object, which presents its frames with the given mode.
+     *
+     * @param renderMode how finished frames are presented on the screen
+     */
+    public GraphicalComponent(RenderMode renderMode) {
+        this.renderMode = renderMode;
+        init();
+    }
+
+    /**
+     * Initializes an empty drawing object with the given name, which presents
+     * its frames with the given mode.
+     *
+     * @param name       the title of the drawing window.
+     * @param renderMode how finished frames are presented on the screen
+     */
+    public GraphicalComponent(String name, RenderMode renderMode) {
+        this.name = name;
+        this.renderMode = renderMode;
         init();
     }
 
@@ -221,41 +312,145 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      *  Drawing images.
      ***************************************************************************/
 
+    /**
+     * Returns the cache which stores all decoded images of the picture() methods.
+     *
+     * @return the shared texture cache
+     */
+    public static TextureCache<String> getTextureCache() {
+        return textureCache;
+    }
+
+    /**
+     * Returns the atlas which stores all textures packed by packTextures().
+     *
+     * @return the shared texture atlas
+     */
+    public static TextureAtlas getTextureAtlas() {
+        return textureAtlas;
+    }
+
+    /**
+     * Packs the given images into the sheets of the texture atlas. All following
+     * picture() calls of these images draw a rectangle of a shared sheet.
+     * Call this once at startup with all images of a scene.
+     *
+     * @param filenames the names of the images/pictures
+     */
+    public void packTextures(String... filenames) {
+        textureAtlas.pack(Arrays.asList(filenames), GraphicalComponent::importImage);
+    }
+
+    /**
+     * Returns the cache which stores the rotated and scaled variants of all textures.
+     *
+     * @return the shared cache of transformed textures
+     */
+    public static TransformedTextureCache getTransformedTextureCache() {
+        return transformedTextureCache;
+    }
+
+    /**
+     * Renders the given image in all rotations at once, rescaled to w-by-h.
+     * Afterwards the rotated picture() methods draw this image in steps of
+     * 360 / steps degrees and never have to rotate it again.
+     *
+     * @param filename the name of the image/picture, e.g., "ball.gif"
+     * @param w        the width of the image
+     * @param h        the height of the image
+     * @param steps    the number of rotations, e.g. 36 for steps of 10 degrees
+     * @throws IllegalArgumentException if {@code filename} is {@code null}
+     */
+    public void prebakeRotations(String filename, double w, double h, int steps) {
+        if (filename == null) throw new IllegalArgumentException("filename argument is null");
+        transformedTextureCache.prebake(filename, getTexture(filename),
+                (int) Math.round(factorX(w)), (int) Math.round(factorY(h)), steps);
+    }
+
+    /**
+     * Renders the given image in all rotations at once, in its original size.
+     *
+     * @param filename the name of the image/picture, e.g., "ball.gif"
+     * @param steps    the number of rotations, e.g. 36 for steps of 10 degrees
+     * @throws IllegalArgumentException if {@code filename} is {@code null}
+     */
+    public void prebakeRotations(String filename, int steps) {
+        if (filename == null) throw new IllegalArgumentException("filename argument is null");
+        TextureRegion texture = getTexture(filename);
+        transformedTextureCache.prebake(filename, texture, texture.getWidth(), texture.getHeight(), steps);
+    }
+
+    /**
+     * Decodes the given image and stores it inside of the texture cache, so the
+     * first picture() call does not have to read the file.
+     *
+     * @param filename the name of the image/picture, e.g., "ball.gif"
+     * @throws IllegalArgumentException if {@code filename} is {@code null}
+     */
+    public void preloadPicture(String filename) {
+        if (filename == null) throw new IllegalArgumentException("filename argument is null");
+        if (!textureAtlas.contains(filename)) getImage(filename);
+    }
+
+    /**
+     * Returns the packed region of the image, or a region covering the whole
+     * cached image if it was not packed.
+     *
+     * @param filename the name of the image/picture, e.g., "ball.gif"
+     * @return the region of the texture
+     */
+    public static TextureRegion getTexture(String filename) {
+        TextureRegion region = textureAtlas.getRegion(filename);
+        return region != null ? region : getCachedTexture(filename);
+    }
+
+    // returns the decoded image, the file is only read if it is not cached yet
     private static BufferedImage getImage(String filename) {
+        return getCachedTexture(filename).getImage();
+    }
 
-        // from a file or URL
-        try {
-            URL url = new URL(filename);
-            return ImageIO.read(url);
-        } catch (IOException e) {
-            // ignore
-        }
+    // the region of the cached image, it is stored with the image. The cache is keyed by the resolved path,
+    // so all names of the same file share one entry and equal names of different packs don't
+    private static TextureRegion getCachedTexture(String filename) {
+        return textureCache.getRegion(AssetResolver.getDefault().resolvePath(filename), GraphicalComponent::importImage);
+    }
 
-        // in case file is inside a .jar (classpath relative to net.bestofcode.MovingPointGameEngine.MovingPoint2DGraphicsMethodCollection)
-        try {
-            URL url = MovingPoint2DGraphicsMethodCollection.class.getResource(filename);
-            return ImageIO.read(url);
-        } catch (IOException e) {
-            // ignore
-        }
+    // convert once to the texture layout, so drawing it does not need the general blit loop
+    private static BufferedImage importImage(String filename) {
+        return TextureImporter.convert(readImage(filename), TEXTURE_IMAGE_TYPE);
+    }
+
+    private static BufferedImage readImage(String filename) {
+
+        // from a mounted asset pack
+        PackedAsset packedAsset = AssetResolver.getDefault().resolvePacked(filename);
+        if (packedAsset != null) return packedAsset.readImage();
+
+        // from the asset index, a file or URL
+        URL url = AssetResolver.getDefault().resolve(filename);
+        if (url == null) throw new IllegalArgumentException("image " + filename + " not found");
 
-        // in case file is inside a .jar (classpath relative to root of jar)
         try {
-            URL url = MovingPoint2DGraphicsMethodCollection.class.getResource("/" + filename);
-            return ImageIO.read(url);
+            BufferedImage image = ImageIO.read(url);
+            if (image == null) throw new IllegalArgumentException("image " + filename + " is corrupt");
+            return image;
         } catch (IOException e) {
-            // ignore
+            throw new IllegalArgumentException("image " + filename + " could not be read", e);
         }
-        throw new IllegalArgumentException("image " + filename + " not found");
     }
 
     private void init() {
+        if (pixelBuffer.isLocked()) throw new IllegalStateException("canvas can't change while its pixels are locked");
+        if (renderThread != null) renderThread.finish();
         if (frame != null) frame.setVisible(false);
-        frame = new GameWindow();
-        offscreenImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        onscreenImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        if (!renderMode.isHeadless()) frame = new GameWindow();
+        offscreenImage = new BufferedImage(width, height, OFFSCREEN_IMAGE_TYPE);
         offscreen = offscreenImage.createGraphics();
-        onscreen = onscreenImage.createGraphics();
+        measure = offscreenImage.createGraphics();
+        if (!renderMode.isActive() && !renderMode.isHeadless()) {
+            onscreenImage = new BufferedImage(width, height, OFFSCREEN_IMAGE_TYPE);
+            onscreen = onscreenImage.createGraphics();
+        }
         setXscale();
         setYscale();
         offscreen.setColor(DEFAULT_CLEAR_COLOR);
@@ -271,14 +466,29 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         hints.put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
         offscreen.addRenderingHints(hints);
 
+        // frames are only drawn into the offscreen image
+        if (renderMode.isHeadless()) return;
+
         // frame stuff
-        ImageIcon icon = new ImageIcon(onscreenImage);
-        draw = new JLabel(icon);
+        if (renderMode.isActive()) {
+            canvas = new Canvas();
+            canvas.setPreferredSize(new Dimension(width, height));
+            canvas.setIgnoreRepaint(true);     // frames are only presented by show()
+            canvas.setFocusable(false);        // keys are received by the frame
+            canvas.addMouseListener(this);
+            canvas.addMouseMotionListener(this);
+            // the menu has to be heavyweight to appear in front of the Canvas
+            JPopupMenu.setDefaultLightWeightPopupEnabled(false);
+            frame.getContentPane().add(canvas);
+        } else {
+            ImageIcon icon = new ImageIcon(onscreenImage);
+            draw = new JLabel(icon);
 
-        draw.addMouseListener(this);
-        draw.addMouseMotionListener(this);
+            draw.addMouseListener(this);
+            draw.addMouseMotionListener(this);
 
-        frame.setContentPane(draw);
+            frame.setContentPane(draw);
+        }
         frame.addKeyListener(this);    // JLabel cannot get keyboard focus
         frame.setResizable(false);
         // frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);            // closes all windows
@@ -289,6 +499,12 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         frame.pack();
         frame.requestFocusInWindow();
         frame.setVisible(true);
+
+        // buffers can only be created after the Canvas is displayable
+        if (renderMode.isActive()) {
+            canvas.createBufferStrategy(renderMode.getNumberOfBuffers());
+            bufferStrategy = canvas.getBufferStrategy();
+        }
     }
 
     /**
@@ -300,7 +516,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      */
     public void setLocationOnScreen(int x, int y) {
         if (x <= 0 || y <= 0) throw new IllegalArgumentException();
-        frame.setLocation(x, y);
+        if (frame != null) frame.setLocation(x, y);
     }
 
     /**
@@ -311,7 +527,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      *              (close current window)
      */
     public void setDefaultCloseOperation(int value) {
-        frame.setDefaultCloseOperation(value);
+        if (frame != null) frame.setDefaultCloseOperation(value);
     }
 
 
@@ -336,9 +552,40 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         }
         width = canvasWidth;
         height = canvasHeight;
+        canvasVersion++;
         init();
     }
 
+    public int getCanvasWidth() {
+        return width;
+    }
+
+    public int getCanvasHeight() {
+        return height;
+    }
+
+    /**
+     * Returns a number which changes whenever the canvas size or the scale
+     * changes, so cached drawings like layers know when to draw themselves again.
+     * Moving the camera keeps the version, since layers are painted without it.
+     *
+     * @return the version of the canvas
+     */
+    public long getCanvasVersion() {
+        return canvasVersion;
+    }
+
+    /**
+     * Returns a number which changes whenever the canvas size, the scale or the
+     * camera changes, so drawings in pixels of the canvas know when they are outdated.
+     *
+     * @return the version of the transform from user coordinates to pixels
+     */
+    public long getTransformVersion() {
+        checkCamera();
+        return transformVersion;
+    }
+
     // create the menu bar (changed to private)
     private JMenuBar createMenuBar() {
         JMenuBar menuBar = new JMenuBar();
@@ -376,6 +623,8 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double size = max - min;
         xmin = min - BORDER * size;
         xmax = max + BORDER * size;
+        canvasVersion++;
+        updateTransform();
     }
 
     /**
@@ -388,31 +637,147 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double size = max - min;
         ymin = min - BORDER * size;
         ymax = max + BORDER * size;
+        canvasVersion++;
+        updateTransform();
+    }
+
+    /**
+     * Shows the world through the camera: its position is shown in the center
+     * of the canvas, its zoom magnifies the x- and y-scale and its rotation
+     * turns the drawing around the center. Changes of the camera are applied
+     * with the next drawing, moving it never touches the drawn objects.
+     *
+     * @param camera the camera, or {@code null} to show the x- and y-scale
+     */
+    public void setCamera(Camera camera) {
+        this.camera = camera;
+        updateTransform();
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Returns the smallest rectangle of user coordinates which contains the
+     * whole canvas, e.g. to skip objects which are not visible.
+     *
+     * @return the visible rectangle, also if the camera is rotated
+     */
+    public Rectangle2D getVisibleBounds() {
+        return getVisibleBounds(new Rectangle2D.Double());
+    }
+
+    /**
+     * Stores the smallest rectangle of user coordinates which contains the
+     * whole canvas in the given rectangle, so it can be asked every frame
+     * without allocating.
+     *
+     * @param bounds the rectangle which is overwritten
+     * @return the given rectangle
+     */
+    public Rectangle2D getVisibleBounds(Rectangle2D bounds) {
+        checkCamera();
+        double minimumX = Double.POSITIVE_INFINITY, minimumY = Double.POSITIVE_INFINITY;
+        double maximumX = Double.NEGATIVE_INFINITY, maximumY = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 4; corner++) {
+            double px = (corner & 1) == 0 ? 0 : width;
+            double py = (corner & 2) == 0 ? 0 : height;
+            double x = userX(px, py);
+            double y = userY(px, py);
+            minimumX = Math.min(minimumX, x);
+            maximumX = Math.max(maximumX, x);
+            minimumY = Math.min(minimumY, y);
+            maximumY = Math.max(maximumY, y);
+        }
+        bounds.setRect(minimumX, minimumY, maximumX - minimumX, maximumY - minimumY);
+        return bounds;
+    }
+
+    // computes the transform from user coordinates to pixels again
+    private void updateTransform() {
+        double zoom = 1;
+        double rotation = 0;
+        double centerX = (xmin + xmax) / 2;
+        double centerY = (ymin + ymax) / 2;
+        if (camera != null) {
+            zoom = camera.getZoom();
+            rotation = camera.getRotation();
+            centerX = camera.getX();
+            centerY = camera.getY();
+            cameraVersion = camera.getVersion();
+        }
+        pixelsPerUnitX = zoom * width / (xmax - xmin);
+        pixelsPerUnitY = zoom * height / (ymax - ymin);
+        originX = width / 2.0 - centerX * pixelsPerUnitX;
+        originY = height / 2.0 + centerY * pixelsPerUnitY;
+        cameraSin = Math.sin(rotation);
+        cameraCos = Math.cos(rotation);
+        // the y-axis of the pixels points down, so a counterclockwise rotation has a negative angle
+        cameraRotation.setToRotation(-rotation, width / 2.0, height / 2.0);
+        layerPixelsPerUnitX = width / (xmax - xmin);
+        layerPixelsPerUnitY = height / (ymax - ymin);
+        layerOriginX = width / 2.0 - (xmin + xmax) / 2 * layerPixelsPerUnitX;
+        layerOriginY = height / 2.0 + (ymin + ymax) / 2 * layerPixelsPerUnitY;
+        transformVersion++;
+        if (offscreen != null) applyCameraRotation();
+    }
+
+    private void checkCamera() {
+        if (camera != null && camera.getVersion() != cameraVersion) updateTransform();
+    }
+
+    // the pixels are turned by the graphics, so rotated pictures and texts stay intact
+    private void applyCameraRotation() {
+        if (commands != null) commands.transform(cameraRotation);
+        else offscreen.setTransform(cameraRotation);
+    }
+
+    // drawings in pixels of the canvas, e.g. clearing it, must not be turned by the camera
+    private void beginPixelSpace() {
+        if (cameraRotation.isIdentity()) return;
+        if (commands != null) commands.transform(IDENTITY);
+        else offscreen.setTransform(IDENTITY);
+    }
+
+    private void endPixelSpace() {
+        if (!cameraRotation.isIdentity()) applyCameraRotation();
     }
 
     // helper functions that scale from user coordinates to screen coordinates and back
     private double scaleX(double x) {
-        return width * (x - xmin) / (xmax - xmin);
+        checkCamera();
+        return originX + x * pixelsPerUnitX;
     }
 
     private double scaleY(double y) {
-        return height * (ymax - y) / (ymax - ymin);
+        checkCamera();
+        return originY - y * pixelsPerUnitY;
     }
 
     private double factorX(double w) {
-        return w * width / Math.abs(xmax - xmin);
+        checkCamera();
+        return w * Math.abs(pixelsPerUnitX);
     }
 
     private double factorY(double h) {
-        return h * height / Math.abs(ymax - ymin);
+        checkCamera();
+        return h * Math.abs(pixelsPerUnitY);
     }
 
-    private double userX(double x) {
-        return xmin + x * (xmax - xmin) / width;
+    // the inverse of scaleX and scaleY for the pixel (x, y), called by the event thread with the cached transform
+    private double userX(double x, double y) {
+        double dx = x - width / 2.0;
+        double dy = y - height / 2.0;
+        double unrotatedX = width / 2.0 + dx * cameraCos - dy * cameraSin;
+        return (unrotatedX - originX) / pixelsPerUnitX;
     }
 
-    private double userY(double y) {
-        return ymax - y * (ymax - ymin) / height;
+    private double userY(double x, double y) {
+        double dx = x - width / 2.0;
+        double dy = y - height / 2.0;
+        double unrotatedY = height / 2.0 + dx * cameraSin + dy * cameraCos;
+        return (originY - unrotatedY) / pixelsPerUnitY;
     }
 
     /**
@@ -428,12 +793,158 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * @param color the color to make the background
      */
     public void clear(Color color) {
-        offscreen.setColor(color);
-        offscreen.fillRect(0, 0, width, height);
-        offscreen.setColor(penColor);
+        checkCamera();
+        beginPixelSpace();
+        if (commands != null) {
+            commands.color(color);
+            commands.rectangle(0, 0, width, height, true);
+            commands.color(penColor);
+        } else {
+            offscreen.setColor(color);
+            offscreen.fillRect(0, 0, width, height);
+            offscreen.setColor(penColor);
+        }
+        endPixelSpace();
         draw();
     }
 
+    /**
+     * Restricts all subsequent drawings to the given rectangle in pixels, e.g.
+     * to redraw only a damaged part of the canvas.
+     *
+     * @param region the rectangle to draw into
+     */
+    public void setClip(Rectangle region) {
+        if (region == null) throw new IllegalArgumentException("region is null");
+        beginPixelSpace();
+        if (commands != null) commands.clip(region.x, region.y, region.width, region.height);
+        else offscreen.setClip(region.x, region.y, region.width, region.height);
+        endPixelSpace();
+    }
+
+    /**
+     * Allows subsequent drawings on the whole canvas again.
+     */
+    public void resetClip() {
+        if (commands != null) commands.resetClip();
+        else offscreen.setClip(null);
+    }
+
+    /**
+     * Returns the pixel column of the x-coordinate, without the rotation of the camera.
+     *
+     * @param x the x-coordinate
+     * @return the column, not rounded
+     */
+    public double toPixelX(double x) {
+        return scaleX(x);
+    }
+
+    /**
+     * Returns the pixel row of the y-coordinate, without the rotation of the camera.
+     *
+     * @param y the y-coordinate
+     * @return the row, not rounded
+     */
+    public double toPixelY(double y) {
+        return scaleY(y);
+    }
+
+    /**
+     * Returns the pixels which are covered by a halfWidth-by-halfHeight box
+     * centered on (x, y), including the pen and the antialiased edge.
+     *
+     * @param x          the center x-coordinate
+     * @param y          the center y-coordinate
+     * @param halfWidth  is half the width of the box
+     * @param halfHeight is half the height of the box
+     * @return the bounds in pixels
+     */
+    public Rectangle getPixelBounds(double x, double y, double halfWidth, double halfHeight) {
+        return getPixelBounds(x, y, halfWidth, halfHeight, new Rectangle());
+    }
+
+    /**
+     * Stores the pixels which are covered by a halfWidth-by-halfHeight box
+     * centered on (x, y) in the given rectangle, so it can be reused by every frame.
+     *
+     * @param x          the center x-coordinate
+     * @param y          the center y-coordinate
+     * @param halfWidth  is half the width of the box
+     * @param halfHeight is half the height of the box
+     * @param bounds     the rectangle to store the bounds in
+     * @return the bounds in pixels
+     */
+    public Rectangle getPixelBounds(double x, double y, double halfWidth, double halfHeight, Rectangle bounds) {
+        double xs = scaleX(x);
+        double ys = scaleY(y);
+        double ws = Math.abs(factorX(halfWidth));
+        double hs = Math.abs(factorY(halfHeight));
+        return pixelBounds(xs - ws, ys - hs, xs + ws, ys + hs, bounds);
+    }
+
+    /**
+     * Returns the pixels which are covered by the line from (x0, y0) to (x1, y1).
+     *
+     * @return the bounds in pixels
+     */
+    public Rectangle getLineBounds(double x0, double y0, double x1, double y1) {
+        return getLineBounds(x0, y0, x1, y1, new Rectangle());
+    }
+
+    /**
+     * Stores the pixels which are covered by the line from (x0, y0) to (x1, y1)
+     * in the given rectangle.
+     *
+     * @param bounds the rectangle to store the bounds in
+     * @return the bounds in pixels
+     */
+    public Rectangle getLineBounds(double x0, double y0, double x1, double y1, Rectangle bounds) {
+        double xs0 = scaleX(x0), ys0 = scaleY(y0);
+        double xs1 = scaleX(x1), ys1 = scaleY(y1);
+        return pixelBounds(Math.min(xs0, xs1), Math.min(ys0, ys1), Math.max(xs0, xs1), Math.max(ys0, ys1), bounds);
+    }
+
+    /**
+     * Returns the pixels which are covered by the picture centered on (x, y).
+     *
+     * @param filename the name of the image/picture, e.g., "ball.gif"
+     * @return the bounds in pixels
+     */
+    public Rectangle getPictureBounds(double x, double y, String filename) {
+        return getPictureBounds(x, y, filename, new Rectangle());
+    }
+
+    /**
+     * Stores the pixels which are covered by the picture centered on (x, y) in
+     * the given rectangle.
+     *
+     * @param filename the name of the image/picture, e.g., "ball.gif"
+     * @param bounds   the rectangle to store the bounds in
+     * @return the bounds in pixels
+     */
+    public Rectangle getPictureBounds(double x, double y, String filename, Rectangle bounds) {
+        if (filename == null) throw new IllegalArgumentException("filename argument is null");
+        if (bounds == null) throw new IllegalArgumentException("bounds argument is null");
+        TextureRegion texture = getTexture(filename);
+        int xs = (int) Math.round(scaleX(x) - texture.getWidth() / 2.0);
+        int ys = (int) Math.round(scaleY(y) - texture.getHeight() / 2.0);
+        bounds.setBounds(xs, ys, texture.getWidth(), texture.getHeight());
+        return bounds;
+    }
+
+    // pixels between the corners, grown by the pen and one pixel of antialiasing
+    private Rectangle pixelBounds(double minimumX, double minimumY, double maximumX, double maximumY, Rectangle bounds) {
+        if (bounds == null) throw new IllegalArgumentException("bounds argument is null");
+        double border = penRadius / 2 + 1;
+        int x = (int) Math.floor(minimumX - border);
+        int y = (int) Math.floor(minimumY - border);
+        bounds.setBounds(x, y,
+                (int) Math.ceil(maximumX + border) - x,
+                (int) Math.ceil(maximumY + border) - y);
+        return bounds;
+    }
+
     /**
      * Gets the current pen radius.
      *
@@ -454,7 +965,8 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         penRadius = r * DEFAULT_SIZE;
         BasicStroke stroke = new BasicStroke((float) penRadius, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
         // BasicStroke stroke = new BasicStroke((float) penRadius);
-        offscreen.setStroke(stroke);
+        if (commands != null) commands.stroke(stroke);
+        else offscreen.setStroke(stroke);
     }
 
     /**
@@ -480,7 +992,8 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      */
     public void setPenColor(Color color) {
         penColor = color;
-        offscreen.setColor(penColor);
+        if (commands != null) commands.color(penColor);
+        else offscreen.setColor(penColor);
     }
 
     /**
@@ -509,14 +1022,16 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * Turns on xor mode.
      */
     public void xorOn() {
-        offscreen.setXORMode(DEFAULT_CLEAR_COLOR);
+        if (commands != null) commands.xorMode(DEFAULT_CLEAR_COLOR);
+        else offscreen.setXORMode(DEFAULT_CLEAR_COLOR);
     }
 
     /**
      * Turns off xor mode.
      */
     public void xorOff() {
-        offscreen.setPaintMode();
+        if (commands != null) commands.paintMode();
+        else offscreen.setPaintMode();
     }
 
     public GameWindow getJFrame() {
@@ -526,7 +1041,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
     /**
      * Gets the current {@code JLabel} for use in some other GUI.
      *
-     * @return the current {@code JLabel}
+     * @return the current {@code JLabel}, or {@code null} if the frames are rendered actively
      */
     public JLabel getJLabel() {
         return draw;
@@ -571,7 +1086,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * @param y1 the y-coordinate of the destination point
      */
     public void line(double x0, double y0, double x1, double y1) {
-        offscreen.draw(new Line2D.Double(scaleX(x0), scaleY(y0), scaleX(x1), scaleY(y1)));
+        drawLine(scaleX(x0), scaleY(y0), scaleX(x1), scaleY(y1));
         draw();
     }
 
@@ -582,7 +1097,45 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * @param y the y-coordinate of the pixel
      */
     private void pixel(double x, double y) {
-        offscreen.fillRect((int) Math.round(scaleX(x)), (int) Math.round(scaleY(y)), 1, 1);
+        if (commands != null) commands.pixel((int) Math.round(scaleX(x)), (int) Math.round(scaleY(y)));
+        else offscreen.fillRect((int) Math.round(scaleX(x)), (int) Math.round(scaleY(y)), 1, 1);
+    }
+
+    // draws a line in pixel coordinates
+    private void drawLine(double x0, double y0, double x1, double y1) {
+        if (commands != null) {
+            commands.line(x0, y0, x1, y1);
+            return;
+        }
+        shape.setLine(x0, y0, x1, y1);
+        offscreen.draw(shape);
+    }
+
+    // draws the outline or the interior of an ellipse in pixel coordinates
+    private void drawEllipse(double x, double y, double w, double h, boolean filled) {
+        if (commands != null) {
+            commands.ellipse(x, y, w, h, filled);
+            return;
+        }
+        shape.setEllipse(x, y, w, h);
+        if (filled) offscreen.fill(shape);
+        else offscreen.draw(shape);
+    }
+
+    // draws the outline or the interior of a rectangle in pixel coordinates
+    private void drawRectangle(double x, double y, double w, double h, boolean filled) {
+        if (commands != null) {
+            commands.rectangle(x, y, w, h, filled);
+            return;
+        }
+        // filled rectangles take a faster path in Java2D than general shapes
+        if (filled) {
+            rectangle.setRect(x, y, w, h);
+            offscreen.fill(rectangle);
+        } else {
+            shape.setRectangle(x, y, w, h);
+            offscreen.draw(shape);
+        }
     }
 
     /**
@@ -599,7 +1152,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         // double hs = factorY(2*r);
         // if (ws <= 1 && hs <= 1) pixel(x, y);
         if (r <= 1) pixel(x, y);
-        else offscreen.fill(new Ellipse2D.Double(xs - r / 2, ys - r / 2, r, r));
+        else drawEllipse(xs - r / 2, ys - r / 2, r, r, true);
         draw();
     }
 
@@ -618,7 +1171,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * r);
         double hs = factorY(2 * r);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.draw(new Ellipse2D.Double(xs - ws / 2, ys - hs / 2, ws, hs));
+        else drawEllipse(xs - ws / 2, ys - hs / 2, ws, hs, false);
         draw();
     }
 
@@ -637,7 +1190,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * r);
         double hs = factorY(2 * r);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.fill(new Ellipse2D.Double(xs - ws / 2, ys - hs / 2, ws, hs));
+        else drawEllipse(xs - ws / 2, ys - hs / 2, ws, hs, true);
         draw();
     }
 
@@ -658,7 +1211,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * semiMajorAxis);
         double hs = factorY(2 * semiMinorAxis);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.draw(new Ellipse2D.Double(xs - ws / 2, ys - hs / 2, ws, hs));
+        else drawEllipse(xs - ws / 2, ys - hs / 2, ws, hs, false);
         draw();
     }
 
@@ -679,7 +1232,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * semiMajorAxis);
         double hs = factorY(2 * semiMinorAxis);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.fill(new Ellipse2D.Double(xs - ws / 2, ys - hs / 2, ws, hs));
+        else drawEllipse(xs - ws / 2, ys - hs / 2, ws, hs, true);
         draw();
     }
 
@@ -702,7 +1255,11 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * r);
         double hs = factorY(2 * r);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.draw(new Arc2D.Double(xs - ws / 2, ys - hs / 2, ws, hs, angle1, angle2 - angle1, Arc2D.OPEN));
+        else if (commands != null) commands.arc(xs - ws / 2, ys - hs / 2, ws, hs, angle1, angle2 - angle1);
+        else {
+            arc.setArc(xs - ws / 2, ys - hs / 2, ws, hs, angle1, angle2 - angle1, Arc2D.OPEN);
+            offscreen.draw(arc);
+        }
         draw();
     }
 
@@ -721,7 +1278,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * r);
         double hs = factorY(2 * r);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.draw(new Rectangle2D.Double(xs - ws / 2, ys - hs / 2, ws, hs));
+        else drawRectangle(xs - ws / 2, ys - hs / 2, ws, hs, false);
         draw();
     }
 
@@ -740,7 +1297,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * r);
         double hs = factorY(2 * r);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.fill(new Rectangle2D.Double(xs - ws / 2, ys - hs / 2, ws, hs));
+        else drawRectangle(xs - ws / 2, ys - hs / 2, ws, hs, true);
         draw();
     }
 
@@ -761,7 +1318,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * halfWidth);
         double hs = factorY(2 * halfHeight);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.draw(new Rectangle2D.Double(xs - ws / 2, ys - hs / 2, ws, hs));
+        else drawRectangle(xs - ws / 2, ys - hs / 2, ws, hs, false);
         draw();
     }
 
@@ -782,7 +1339,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         double ws = factorX(2 * halfWidth);
         double hs = factorY(2 * halfHeight);
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else offscreen.fill(new Rectangle2D.Double(xs - ws / 2, ys - hs / 2, ws, hs));
+        else drawRectangle(xs - ws / 2, ys - hs / 2, ws, hs, true);
         draw();
     }
 
@@ -794,12 +1351,20 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      */
     public void polygon(double[] x, double[] y) {
         int n = x.length;
-        GeneralPath path = new GeneralPath();
-        path.moveTo((float) scaleX(x[0]), (float) scaleY(y[0]));
+        if (commands != null) {
+            commands.beginPolygon(false);
+            for (int i = 0; i < n; i++)
+                commands.vertex(scaleX(x[i]), scaleY(y[i]));
+            commands.endVertices();
+            draw();
+            return;
+        }
+        shape.reset();
+        shape.moveTo((float) scaleX(x[0]), (float) scaleY(y[0]));
         for (int i = 0; i < n; i++)
-            path.lineTo((float) scaleX(x[i]), (float) scaleY(y[i]));
-        path.closePath();
-        offscreen.draw(path);
+            shape.lineTo((float) scaleX(x[i]), (float) scaleY(y[i]));
+        shape.closePath();
+        offscreen.draw(shape);
         draw();
     }
 
@@ -811,15 +1376,117 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      */
     public void filledPolygon(double[] x, double[] y) {
         int n = x.length;
-        GeneralPath path = new GeneralPath();
-        path.moveTo((float) scaleX(x[0]), (float) scaleY(y[0]));
+        if (commands != null) {
+            commands.beginPolygon(true);
+            for (int i = 0; i < n; i++)
+                commands.vertex(scaleX(x[i]), scaleY(y[i]));
+            commands.endVertices();
+            draw();
+            return;
+        }
+        shape.reset();
+        shape.moveTo((float) scaleX(x[0]), (float) scaleY(y[0]));
         for (int i = 0; i < n; i++)
-            path.lineTo((float) scaleX(x[i]), (float) scaleY(y[i]));
-        path.closePath();
-        offscreen.fill(path);
+            shape.lineTo((float) scaleX(x[i]), (float) scaleY(y[i]));
+        shape.closePath();
+        offscreen.fill(shape);
+        draw();
+    }
+
+    /**
+     * Draws filled circles of radius r, centered on (xs[i], ys[i]) for the first
+     * count coordinates. All circles are rasterized in one pass, which is much
+     * faster than a call of filledCircle() per circle.
+     *
+     * @param xs    the x-coordinates of the centers
+     * @param ys    the y-coordinates of the centers
+     * @param r     the radius of every circle
+     * @param count the number of circles
+     * @throws IllegalArgumentException if the radius is negative
+     * @throws IllegalArgumentException if there are less than count coordinates
+     */
+    public void filledCircles(double[] xs, double[] ys, double r, int count) {
+        if (r < 0) throw new IllegalArgumentException("circle radius can't be negative");
+        validateBatch(xs, ys, count);
+        filledEllipses(xs, ys, factorX(2 * r), factorY(2 * r), count);
+        draw();
+    }
+
+    /**
+     * Draws points at (xs[i], ys[i]) for the first count coordinates in one pass.
+     *
+     * @param xs    the x-coordinates of the points
+     * @param ys    the y-coordinates of the points
+     * @param count the number of points
+     * @throws IllegalArgumentException if there are less than count coordinates
+     */
+    public void points(double[] xs, double[] ys, int count) {
+        validateBatch(xs, ys, count);
+        filledEllipses(xs, ys, penRadius, penRadius, count);
+        draw();
+    }
+
+    /**
+     * Draws an open line through all (x[i], y[i]) coordinates in one pass.
+     *
+     * @param x an array of all the x-coordinates of the line
+     * @param y an array of all the y-coordinates of the line
+     */
+    public void polyline(double[] x, double[] y) {
+        if (x == null || y == null) throw new IllegalArgumentException("coordinates are null");
+        polyline(x, y, Math.min(x.length, y.length));
+    }
+
+    /**
+     * Draws an open line through the first count (xs[i], ys[i]) coordinates in one pass.
+     *
+     * @param xs    the x-coordinates of the line
+     * @param ys    the y-coordinates of the line
+     * @param count the number of coordinates
+     * @throws IllegalArgumentException if there are less than count coordinates
+     */
+    public void polyline(double[] xs, double[] ys, int count) {
+        validateBatch(xs, ys, count);
+        if (count == 0) return;
+        if (commands != null) {
+            commands.beginPolyline();
+            for (int i = 0; i < count; i++)
+                commands.vertex(scaleX(xs[i]), scaleY(ys[i]));
+            commands.endVertices();
+        } else {
+            shape.reset();
+            shape.moveTo(scaleX(xs[0]), scaleY(ys[0]));
+            for (int i = 1; i < count; i++)
+                shape.lineTo(scaleX(xs[i]), scaleY(ys[i]));
+            offscreen.draw(shape);
+        }
         draw();
     }
 
+    // draws ws-by-hs pixel ellipses centered on the given coordinates with a single fill
+    private void filledEllipses(double[] xs, double[] ys, double ws, double hs, int count) {
+        if (ws <= 1 && hs <= 1) {
+            for (int i = 0; i < count; i++)
+                pixel(xs[i], ys[i]);
+        } else if (commands != null) {
+            commands.beginEllipses(ws, hs, true);
+            for (int i = 0; i < count; i++)
+                commands.vertex(scaleX(xs[i]) - ws / 2, scaleY(ys[i]) - hs / 2);
+            commands.endVertices();
+        } else {
+            shape.reset();
+            for (int i = 0; i < count; i++)
+                shape.appendEllipse(scaleX(xs[i]) - ws / 2, scaleY(ys[i]) - hs / 2, ws, hs);
+            offscreen.fill(shape);
+        }
+    }
+
+    private static void validateBatch(double[] xs, double[] ys, int count) {
+        if (xs == null || ys == null) throw new IllegalArgumentException("coordinates are null");
+        if (count < 0 || count > xs.length || count > ys.length)
+            throw new IllegalArgumentException("count " + count + " exceeds the number of coordinates");
+    }
+
     /**
      * Draws picture (gif, jpg, or png) centered on (x, y).
      *
@@ -831,14 +1498,35 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      */
     public void picture(double x, double y, String filename) {
         if (filename == null) throw new IllegalArgumentException("filename argument is null");
-        BufferedImage image = getImage(filename);
+        TextureRegion texture = getTexture(filename);
         double xs = scaleX(x);
         double ys = scaleY(y);
-        int ws = image.getWidth();
-        int hs = image.getHeight();
+        int ws = texture.getWidth();
+        int hs = texture.getHeight();
         if (ws < 0 || hs < 0) throw new IllegalArgumentException("image " + filename + " is corrupt");
 
-        offscreen.drawImage(image, (int) Math.round(xs - ws / 2.0), (int) Math.round(ys - hs / 2.0), null);
+        if (commands != null) commands.texture(texture, (int) Math.round(xs - ws / 2.0), (int) Math.round(ys - hs / 2.0));
+        else texture.draw(offscreen, (int) Math.round(xs - ws / 2.0), (int) Math.round(ys - hs / 2.0));
+        draw();
+    }
+
+    /**
+     * Draws a region of a texture, e.g. a frame of a sprite sheet, centered on (x, y).
+     *
+     * @param x       the center x-coordinate of the image
+     * @param y       the center y-coordinate of the image
+     * @param texture the region to draw
+     * @throws IllegalArgumentException if {@code texture} is {@code null}
+     */
+    public void picture(double x, double y, TextureRegion texture) {
+        if (texture == null) throw new IllegalArgumentException("texture argument is null");
+        double xs = scaleX(x);
+        double ys = scaleY(y);
+        int ws = texture.getWidth();
+        int hs = texture.getHeight();
+
+        if (commands != null) commands.texture(texture, (int) Math.round(xs - ws / 2.0), (int) Math.round(ys - hs / 2.0));
+        else texture.draw(offscreen, (int) Math.round(xs - ws / 2.0), (int) Math.round(ys - hs / 2.0));
         draw();
     }
 
@@ -855,16 +1543,14 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      */
     public void picture(double x, double y, String filename, double degrees) {
         if (filename == null) throw new IllegalArgumentException("filename argument is null");
-        BufferedImage image = getImage(filename);
+        TextureRegion texture = getTexture(filename);
         double xs = scaleX(x);
         double ys = scaleY(y);
-        int ws = image.getWidth();
-        int hs = image.getHeight();
+        int ws = texture.getWidth();
+        int hs = texture.getHeight();
         if (ws < 0 || hs < 0) throw new IllegalArgumentException("image " + filename + " is corrupt");
 
-        offscreen.rotate(Math.toRadians(-degrees), xs, ys);
-        offscreen.drawImage(image, (int) Math.round(xs - ws / 2.0), (int) Math.round(ys - hs / 2.0), null);
-        offscreen.rotate(Math.toRadians(+degrees), xs, ys);
+        transformedPicture(filename, texture, xs, ys, ws, hs, degrees);
 
         draw();
     }
@@ -882,19 +1568,14 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      */
     public void picture(double x, double y, String filename, double w, double h) {
         if (filename == null) throw new IllegalArgumentException("filename argument is null");
-        Image image = getImage(filename);
+        TextureRegion texture = getTexture(filename);
         double xs = scaleX(x);
         double ys = scaleY(y);
         double ws = factorX(w);
         double hs = factorY(h);
         if (ws < 0 || hs < 0) throw new IllegalArgumentException("image " + filename + " is corrupt");
         if (ws <= 1 && hs <= 1) pixel(x, y);
-        else {
-            offscreen.drawImage(image, (int) Math.round(xs - ws / 2.0),
-                    (int) Math.round(ys - hs / 2.0),
-                    (int) Math.round(ws),
-                    (int) Math.round(hs), null);
-        }
+        else transformedPicture(filename, texture, xs, ys, ws, hs, 0);
         draw();
     }
 
@@ -918,24 +1599,28 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      */
     public void picture(double x, double y, String filename, double w, double h, double degrees) {
         if (filename == null) throw new IllegalArgumentException("filename argument is null");
-        Image image = getImage(filename);
+        TextureRegion texture = getTexture(filename);
         double xs = scaleX(x);
         double ys = scaleY(y);
         double ws = factorX(w);
         double hs = factorY(h);
         if (ws < 0 || hs < 0) throw new IllegalArgumentException("image " + filename + " is corrupt");
         if (ws <= 1 && hs <= 1) pixel(x, y);
-
-        offscreen.rotate(Math.toRadians(-degrees), xs, ys);
-        offscreen.drawImage(image, (int) Math.round(xs - ws / 2.0),
-                (int) Math.round(ys - hs / 2.0),
-                (int) Math.round(ws),
-                (int) Math.round(hs), null);
-        offscreen.rotate(Math.toRadians(+degrees), xs, ys);
+        else transformedPicture(filename, texture, xs, ys, ws, hs, degrees);
 
         draw();
     }
 
+    // draws the cached rotated and rescaled variant of the texture centered on (xs, ys)
+    private void transformedPicture(String filename, TextureRegion texture, double xs, double ys, double ws, double hs, double degrees) {
+        BufferedImage variant = transformedTextureCache.get(filename, texture,
+                (int) Math.round(ws), (int) Math.round(hs), degrees);
+        int xv = (int) Math.round(xs - variant.getWidth() / 2.0);
+        int yv = (int) Math.round(ys - variant.getHeight() / 2.0);
+        if (commands != null) commands.image(variant, xv, yv);
+        else offscreen.drawImage(variant, xv, yv, null);
+    }
+
     /**
      * Writes the given text string in the current font, centered on (x, y).
      *
@@ -944,13 +1629,13 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * @param s the text
      */
     public void text(double x, double y, String s) {
-        offscreen.setFont(font);
-        FontMetrics metrics = offscreen.getFontMetrics();
+        FontMetrics metrics = fontMetrics();
         double xs = scaleX(x);
         double ys = scaleY(y);
         int ws = metrics.stringWidth(s);
         int hs = metrics.getDescent();
-        offscreen.drawString(s, (float) (xs - ws / 2.0), (float) (ys + hs));
+        if (commands != null) commands.text(s, (float) (xs - ws / 2.0), (float) (ys + hs));
+        else offscreen.drawString(s, (float) (xs - ws / 2.0), (float) (ys + hs));
         draw();
     }
 
@@ -966,9 +1651,9 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
     public void text(double x, double y, String s, double degrees) {
         double xs = scaleX(x);
         double ys = scaleY(y);
-        offscreen.rotate(Math.toRadians(-degrees), xs, ys);
+        rotate(Math.toRadians(-degrees), xs, ys);
         text(x, y, s);
-        offscreen.rotate(Math.toRadians(+degrees), xs, ys);
+        rotate(Math.toRadians(+degrees), xs, ys);
     }
 
     /**
@@ -979,16 +1664,32 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * @param s the text
      */
     public void textLeft(double x, double y, String s) {
-        offscreen.setFont(font);
-        FontMetrics metrics = offscreen.getFontMetrics();
+        FontMetrics metrics = fontMetrics();
         double xs = scaleX(x);
         double ys = scaleY(y);
         // int ws = metrics.stringWidth(s);
         int hs = metrics.getDescent();
-        offscreen.drawString(s, (float) xs, (float) (ys + hs));
+        if (commands != null) commands.text(s, (float) xs, (float) (ys + hs));
+        else offscreen.drawString(s, (float) xs, (float) (ys + hs));
         draw();
     }
 
+    // selects the current font and returns its metrics
+    private FontMetrics fontMetrics() {
+        if (commands != null) {
+            commands.font(font);
+            return measure.getFontMetrics(font);
+        }
+        offscreen.setFont(font);
+        return offscreen.getFontMetrics();
+    }
+
+    // rotates all subsequent drawings around (xs, ys)
+    private void rotate(double radians, double xs, double ys) {
+        if (commands != null) commands.rotate(radians, xs, ys);
+        else offscreen.rotate(radians, xs, ys);
+    }
+
     /**
      * Copies the offscreen buffer to the onscreen buffer, pauses for t milliseconds
      * and enables double buffering.
@@ -1021,10 +1722,335 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * this method unless double buffering is enabled.
      */
     public void show() {
+        if (renderThread != null) {
+            commands = renderThread.submit();
+            return;
+        }
+        present();
+    }
+
+    /**
+     * Draws a layer which covers the whole canvas, e.g. a cached static layer,
+     * with a single blit.
+     *
+     * @param layer an image of the size of the canvas
+     */
+    public void composite(BufferedImage layer) {
+        if (layer == null) throw new IllegalArgumentException("layer is null");
+        beginPixelSpace();
+        if (commands != null) commands.image(layer, 0, 0);
+        else offscreen.drawImage(layer, 0, 0, null);
+        endPixelSpace();
+        draw();
+    }
+
+    /**
+     * Draws a layer painted by {@link #paintLayer} through the camera, so the
+     * layer is moved, zoomed and turned with the world instead of being painted again.
+     *
+     * @param layer an image of the size of the canvas
+     */
+    public void compositeLayer(BufferedImage layer) {
+        if (layer == null) throw new IllegalArgumentException("layer is null");
+        checkCamera();
+        double zoomX = pixelsPerUnitX / layerPixelsPerUnitX;
+        double zoomY = pixelsPerUnitY / layerPixelsPerUnitY;
+        layerTransform.setTransform(cameraRotation);
+        layerTransform.translate(originX - zoomX * layerOriginX, originY - zoomY * layerOriginY);
+        layerTransform.scale(zoomX, zoomY);
+        if (commands != null) {
+            commands.transform(layerTransform);
+            commands.image(layer, 0, 0);
+        } else {
+            offscreen.setTransform(layerTransform);
+            offscreen.drawImage(layer, 0, 0, null);
+        }
+        applyCameraRotation();
+        draw();
+    }
+
+    /**
+     * Waits until the render thread has drawn all frames handed to it, e.g.
+     * before the pixels of an image are changed which these frames draw.
+     */
+    public void finishRendering() {
+        if (renderThread != null) renderThread.finish();
+    }
+
+    /**
+     * Lets the painter draw into the given image instead of the canvas. The
+     * image is cleared to transparent first and uses the scale, pen and font of
+     * the canvas, but not the camera: draw it with {@link #compositeLayer}, so
+     * it follows the camera without being painted again. Nothing is shown on
+     * the screen meanwhile.
+     *
+     * @param image   the image to draw into, usually of the size of the canvas
+     * @param painter draws the content of the image
+     */
+    public void paintLayer(BufferedImage image, LayerPainter painter) {
+        if (image == null || painter == null) throw new IllegalArgumentException("image and painter must not be null");
+
+        // pending frames may still reference the image
+        if (renderThread != null) renderThread.finish();
+
+        Graphics2D layer = image.createGraphics();
+        layer.setComposite(AlphaComposite.Clear);
+        layer.fillRect(0, 0, image.getWidth(), image.getHeight());
+        layer.setComposite(AlphaComposite.SrcOver);
+        layer.setRenderingHints(offscreen.getRenderingHints());
+        layer.setColor(penColor);
+        layer.setStroke(new BasicStroke((float) penRadius, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        layer.setFont(font);
+        checkCamera();
+
+        Graphics2D target = offscreen;
+        RenderCommandBuffer recording = commands;
+        boolean deferred = defer;
+        Color color = penColor;
+        double radius = penRadius;
+        Font currentFont = font;
+        double cameraOriginX = originX, cameraOriginY = originY;
+        double cameraPixelsPerUnitX = pixelsPerUnitX, cameraPixelsPerUnitY = pixelsPerUnitY;
+        double sin = cameraSin, cos = cameraCos;
+        AffineTransform rotation = new AffineTransform(cameraRotation);
+
+        offscreen = layer;
+        commands = null;
+        defer = true;
+        // the layer is painted in the world space of the x- and y-scale
+        originX = layerOriginX;
+        originY = layerOriginY;
+        pixelsPerUnitX = layerPixelsPerUnitX;
+        pixelsPerUnitY = layerPixelsPerUnitY;
+        cameraSin = 0;
+        cameraCos = 1;
+        cameraRotation.setToIdentity();
+
+        try {
+            painter.paint(this);
+        } finally {
+            offscreen = target;
+            commands = recording;
+            defer = deferred;
+            originX = cameraOriginX;
+            originY = cameraOriginY;
+            pixelsPerUnitX = cameraPixelsPerUnitX;
+            pixelsPerUnitY = cameraPixelsPerUnitY;
+            cameraSin = sin;
+            cameraCos = cos;
+            cameraRotation.setTransform(rotation);
+            layer.dispose();
+            // the painter may have changed the pen, which belongs to the canvas
+            setPenColor(color);
+            setPenRadius(radius / DEFAULT_SIZE);
+            setFont(currentFont);
+            // the camera may have changed while the layer was painted
+            applyCameraRotation();
+        }
+    }
+
+    /**
+     * Copies only the given regions of the offscreen buffer onto the screen,
+     * e.g. the damaged parts of a frame. Frames which are rasterized on the
+     * render thread or flipped by a BufferStrategy are always shown completely.
+     *
+     * @param regions the rectangles to show in pixels
+     */
+    public void show(List<Rectangle> regions) {
+        if (regions == null) throw new IllegalArgumentException("regions are null");
+        if (renderThread != null || bufferStrategy != null || onscreen == null || frameRecorder != null) {
+            show();
+            return;
+        }
+        for (Rectangle region : regions) {
+            int x0 = region.x, y0 = region.y;
+            int x1 = region.x + region.width, y1 = region.y + region.height;
+            onscreen.drawImage(offscreenImage, x0, y0, x1, y1, x0, y0, x1, y1, null);
+            draw.repaint(region);
+        }
+    }
+
+    /**
+     * Moves the rasterization onto a separate render thread. Drawing methods
+     * only record commands from now on, show() hands the recorded frame to the
+     * render thread and returns immediately, so the next frame can be computed
+     * while the previous one is drawn. Use it together with double buffering.
+     */
+    public void enableRenderThread() {
+        if (renderThread != null) return;
+        renderThread = new RenderThread(name + " renderer", recorded -> {
+            if (tiledRasterizer != null) tiledRasterizer.rasterize(recorded, offscreen, width, height);
+            else recorded.replay(offscreen);
+            present();
+        });
+        commands = renderThread.getRecordingBuffer();
+    }
+
+    /**
+     * Draws on the calling thread again. Commands which have been recorded
+     * since the last call of show() are drawn immediately.
+     */
+    public void disableRenderThread() {
+        if (renderThread == null) return;
+        renderThread.stop();
+        commands.replay(offscreen);
+        commands.clear();
+        renderThread = null;
+        commands = null;
+    }
+
+    public boolean isRenderThreadEnabled() {
+        return renderThread != null;
+    }
+
+    /**
+     * Rasterizes the recorded frames on all cores of the common fork-join pool,
+     * e.g. for large canvases. The canvas is split into tiles which replay the
+     * frame at the same time. Enables the render thread.
+     */
+    public void enableTiledRasterization() {
+        enableTiledRasterization(new TiledRasterizer());
+    }
+
+    /**
+     * Rasterizes the recorded frames with the given rasterizer, e.g. one with
+     * its own pool or number of tiles. Enables the render thread.
+     *
+     * @param rasterizer the rasterizer of the frames
+     */
+    public void enableTiledRasterization(TiledRasterizer rasterizer) {
+        if (rasterizer == null) throw new IllegalArgumentException("rasterizer is null");
+        if (renderThread != null) renderThread.finish();
+        tiledRasterizer = rasterizer;
+        enableRenderThread();
+    }
+
+    /**
+     * Rasterizes the recorded frames on the render thread alone again.
+     */
+    public void disableTiledRasterization() {
+        if (renderThread != null) renderThread.finish();
+        tiledRasterizer = null;
+    }
+
+    public boolean isTiledRasterizationEnabled() {
+        return tiledRasterizer != null;
+    }
+
+    // copy the offscreen buffer onto the screen
+    private void present() {
+        if (frameRecorder != null) frameRecorder.capture(offscreenImage);
+        if (frame == null) return;
+        if (bufferStrategy != null) {
+            showActive();
+            return;
+        }
         onscreen.drawImage(offscreenImage, 0, 0, null);
         frame.repaint();
     }
 
+    /**
+     * Copies the pixels of the canvas into the given array, e.g. to compare the
+     * frames of a headless game. If the frames are rasterized on the render
+     * thread, these are the pixels of the last shown frame.
+     *
+     * @param pixels the array to copy into, a new one is created if it is
+     *               {@code null} or too small
+     * @return the pixels as ARGB values, row by row from the upper left corner
+     */
+    public int[] getPixels(int[] pixels) {
+        if (renderThread != null) renderThread.finish();
+        if (pixels == null || pixels.length < width * height) pixels = new int[width * height];
+        offscreenImage.getRaster().getDataElements(0, 0, width, height, pixels);
+        return pixels;
+    }
+
+    /**
+     * Locks the pixels of the canvas for direct writes, e.g. for particles or
+     * heatmaps. Drawing commands which are recorded for the render thread are
+     * drawn first, so the pixels are written on top of them. Don't use the
+     * drawing methods until the pixels are released by endPixels().
+     *
+     * @return the view of the pixels, valid until endPixels() is called
+     * @throws IllegalStateException if the pixels are already locked
+     */
+    public PixelBuffer beginPixels() {
+        if (pixelBuffer.isLocked()) throw new IllegalStateException("pixels are already locked, call endPixels() first");
+        if (renderThread != null) {
+            renderThread.finish();
+            if (tiledRasterizer != null) tiledRasterizer.rasterize(commands, offscreen, width, height);
+            else commands.replay(offscreen);
+            commands.clear();
+        }
+        DataBufferInt buffer = (DataBufferInt) offscreenImage.getRaster().getDataBuffer();
+        SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) offscreenImage.getSampleModel();
+        checkCamera();
+        pixelBuffer.lock(buffer.getData(), buffer.getOffset(), model.getScanlineStride(), width, height,
+                originX, pixelsPerUnitX, originY, pixelsPerUnitY);
+        return pixelBuffer;
+    }
+
+    /**
+     * Releases the pixels which were locked by beginPixels(). Without double
+     * buffering the canvas is shown immediately, like after every drawing method.
+     *
+     * @throws IllegalStateException if the pixels are not locked
+     */
+    public void endPixels() {
+        if (!pixelBuffer.isLocked()) throw new IllegalStateException("pixels are not locked, call beginPixels() first");
+        pixelBuffer.unlock();
+        draw();
+    }
+
+    /**
+     * Writes every frame which is shown from now on into an image file. The
+     * files are written on a background thread, call stopRecording() to write
+     * the remaining ones.
+     *
+     * @param filenamePattern the name of the files with a format specifier for the
+     *                        frame number and suffix png or jpg, e.g. "frame-%05d.png"
+     */
+    public void startRecording(String filenamePattern) {
+        stopRecording();
+        frameRecorder = new FrameRecorder(filenamePattern);
+    }
+
+    /**
+     * Stops recording the shown frames and waits until all files are written.
+     */
+    public void stopRecording() {
+        if (frameRecorder == null) return;
+        if (renderThread != null) renderThread.finish();
+        frameRecorder.stop();
+        frameRecorder = null;
+    }
+
+    public boolean isRecording() {
+        return frameRecorder != null;
+    }
+
+    /**
+     * Returns how this drawing presents its frames.
+     *
+     * @return the render mode
+     */
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    // copy the offscreen buffer into the back buffer and flip it onto the screen
+    private void showActive() {
+        do {
+            do {
+                Graphics graphics = bufferStrategy.getDrawGraphics();
+                graphics.drawImage(offscreenImage, 0, 0, null);
+                graphics.dispose();
+            } while (bufferStrategy.contentsRestored());
+            bufferStrategy.show();
+        } while (bufferStrategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
     // draw onscreen if defer is false
     private void draw() {
         if (!defer) show();
@@ -1056,6 +2082,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
      * @param filename the name of the file (with suffix png, jpg, or gif)
      */
     public void save(String filename) {
+        if (renderThread != null) renderThread.finish();
         File file = new File(filename);
         String suffix = filename.substring(filename.lastIndexOf('.') + 1);
 
@@ -1122,6 +2149,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         // ensure there is a window for listenting to events
         show();
         listeners.add(listener);
+        if (frame == null) return;
         frame.addKeyListener(this);
         frame.addMouseListener(this);
         frame.addMouseMotionListener(this);
@@ -1140,6 +2168,18 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         }
     }
 
+    /**
+     * Returns how often the mouse has been pressed, so a drag can tell whether
+     * it continues the previous one.
+     *
+     * @return the number of mouse presses
+     */
+    public long getNumberOfMousePresses() {
+        synchronized (mouseLock) {
+            return numberOfMousePresses;
+        }
+    }
+
     /**
      * Returns true if the mouse is being pressed.
      *
@@ -1206,13 +2246,14 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
     @Override
     public void mousePressed(MouseEvent e) {
         synchronized (mouseLock) {
-            mouseX = userX(e.getX());
-            mouseY = userY(e.getY());
+            mouseX = userX(e.getX(), e.getY());
+            mouseY = userY(e.getX(), e.getY());
             isMousePressed = true;
+            numberOfMousePresses++;
         }
         if (e.getButton() == MouseEvent.BUTTON1) {
             for (IMovingPointEventManager listener : listeners)
-                listener.mousePressed(userX(e.getX()), userY(e.getY()));
+                listener.mousePressed(userX(e.getX(), e.getY()), userY(e.getX(), e.getY()));
         }
 
     }
@@ -1227,7 +2268,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
         }
         if (e.getButton() == MouseEvent.BUTTON1) {
             for (IMovingPointEventManager listener : listeners)
-                listener.mouseReleased(userX(e.getX()), userY(e.getY()));
+                listener.mouseReleased(userX(e.getX(), e.getY()), userY(e.getX(), e.getY()));
         }
     }
 
@@ -1237,12 +2278,12 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
     @Override
     public void mouseDragged(MouseEvent e) {
         synchronized (mouseLock) {
-            mouseX = userX(e.getX());
-            mouseY = userY(e.getY());
+            mouseX = userX(e.getX(), e.getY());
+            mouseY = userY(e.getX(), e.getY());
         }
         // doesn't seem to work if a button is specified
         for (IMovingPointEventManager listener : listeners)
-            listener.mouseDragged(userX(e.getX()), userY(e.getY()));
+            listener.mouseDragged(userX(e.getX(), e.getY()), userY(e.getX(), e.getY()));
     }
 
 
@@ -1256,8 +2297,8 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
     @Override
     public void mouseMoved(MouseEvent e) {
         synchronized (mouseLock) {
-            mouseX = userX(e.getX());
-            mouseY = userY(e.getY());
+            mouseX = userX(e.getX(), e.getY());
+            mouseY = userY(e.getX(), e.getY());
         }
     }
 
@@ -1340,7 +2381,7 @@ public final class GraphicalComponent implements ActionListener, MouseListener,
 
         // notify all listeners
         for (IMovingPointEventManager listener : listeners)
-            listener.keyPressed(e.getKeyCode());
+            listener.keyReleased(e.getKeyCode());
     }
 
 }
\ No newline at end of file
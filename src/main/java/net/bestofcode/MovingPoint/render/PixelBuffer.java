@@ -0,0 +1,205 @@
+package net.bestofcode.MovingPoint.render;
+
+import java.util.Arrays;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.PixelBuffer
+ * The PixelBuffer is a view of the pixels of the canvas for effects which
+ * write single pixels, e.g. particles or heatmaps. A write is a plain array
+ * store instead of a drawing call of Graphics2D.
+ * <p>
+ * The view is only valid between GraphicalComponent.beginPixels() and
+ * endPixels(), or while it is open in a try-with-resources block:
+ * <pre>
+ * try (PixelBuffer pixels = graphicalComponent.beginPixels()) {
+ *     pixels.plot(x, y, 0xffff0000);
+ * }
+ * </pre>
+ * The pixels are stored row by row as ARGB values without premultiplied
+ * alpha, the pixel (px, py) is at data[offset + py * stride + px], where
+ * (0, 0) is the upper left corner. Don't keep a reference to the array after
+ * the view was closed, it changes when the canvas is resized. The pixels are
+ * not turned by the rotation of a camera, toPixelX() and toPixelY() ignore it.
+ */
+public final class PixelBuffer implements AutoCloseable {
+
+    private final GraphicalComponent owner;
+
+    private int[] data;
+    private int offset;
+    private int stride;
+    private int width;
+    private int height;
+
+    // maps user coordinates to pixels like GraphicalComponent.scaleX() and scaleY()
+    private double originX, originY;
+    private double pixelsPerUnitX, pixelsPerUnitY;
+
+    private boolean locked = false;
+
+    PixelBuffer(GraphicalComponent owner) {
+        this.owner = owner;
+    }
+
+    void lock(int[] data, int offset, int stride, int width, int height,
+              double originX, double pixelsPerUnitX, double originY, double pixelsPerUnitY) {
+        this.data = data;
+        this.offset = offset;
+        this.stride = stride;
+        this.width = width;
+        this.height = height;
+        this.originX = originX;
+        this.originY = originY;
+        this.pixelsPerUnitX = pixelsPerUnitX;
+        this.pixelsPerUnitY = pixelsPerUnitY;
+        this.locked = true;
+    }
+
+    void unlock() {
+        this.data = null;
+        this.locked = false;
+    }
+
+    public boolean isLocked() {
+        return this.locked;
+    }
+
+    /**
+     * close
+     * Ends the access to the pixels, same as GraphicalComponent.endPixels().
+     */
+    @Override
+    public void close() {
+        this.owner.endPixels();
+    }
+
+    /**
+     * getData
+     * Returns the array which backs the canvas for loops which compute the
+     * index of a pixel by themselves, see index().
+     */
+    public int[] getData() {
+        this.checkLocked();
+        return this.data;
+    }
+
+    public int getOffset() {
+        return this.offset;
+    }
+
+    public int getStride() {
+        return this.stride;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * index
+     * Returns the position of the pixel (px, py) inside of the array.
+     */
+    public int index(int px, int py) {
+        return this.offset + py * this.stride + px;
+    }
+
+    /**
+     * toPixelX
+     * Returns the column of the pixel which contains the x-coordinate of the canvas.
+     */
+    public int toPixelX(double x) {
+        return (int) Math.round(this.originX + x * this.pixelsPerUnitX);
+    }
+
+    /**
+     * toPixelY
+     * Returns the row of the pixel which contains the y-coordinate of the canvas.
+     */
+    public int toPixelY(double y) {
+        return (int) Math.round(this.originY - y * this.pixelsPerUnitY);
+    }
+
+    public boolean contains(int px, int py) {
+        return px >= 0 && py >= 0 && px < this.width && py < this.height;
+    }
+
+    public int get(int px, int py) {
+        this.checkLocked();
+        if (!this.contains(px, py)) throw new IllegalArgumentException("pixel (" + px + ", " + py + ") is outside of the canvas");
+        return this.data[this.index(px, py)];
+    }
+
+    /**
+     * set
+     * Replaces the pixel (px, py) by the color, pixels outside of the canvas are ignored.
+     *
+     * @param argb - the color, e.g. 0xffff0000 for opaque red
+     */
+    public void set(int px, int py, int argb) {
+        this.checkLocked();
+        if (this.contains(px, py)) this.data[this.index(px, py)] = argb;
+    }
+
+    /**
+     * plot
+     * Replaces the pixel at the coordinates (x, y) of the canvas by the color.
+     */
+    public void plot(double x, double y, int argb) {
+        this.set(this.toPixelX(x), this.toPixelY(y), argb);
+    }
+
+    /**
+     * blend
+     * Draws the color over the pixel (px, py) like a translucent primitive,
+     * pixels outside of the canvas are ignored.
+     *
+     * @param argb - the color, its alpha decides how much of the pixel is covered
+     */
+    public void blend(int px, int py, int argb) {
+
+        this.checkLocked();
+        if (!this.contains(px, py)) return;
+
+        int sourceAlpha = argb >>> 24;
+        if (sourceAlpha == 0) return;
+
+        int index = this.index(px, py);
+
+        if (sourceAlpha == 255) {
+            this.data[index] = argb;
+            return;
+        }
+
+        // source over destination, both without premultiplied alpha, all weights are scaled by 255 * 255
+        int destination = this.data[index];
+        int sourceWeight = sourceAlpha * 255;
+        int destinationWeight = (destination >>> 24) * (255 - sourceAlpha);
+        int alpha = sourceWeight + destinationWeight;
+
+        int red = (((argb >> 16) & 0xff) * sourceWeight + ((destination >> 16) & 0xff) * destinationWeight) / alpha;
+        int green = (((argb >> 8) & 0xff) * sourceWeight + ((destination >> 8) & 0xff) * destinationWeight) / alpha;
+        int blue = ((argb & 0xff) * sourceWeight + (destination & 0xff) * destinationWeight) / alpha;
+
+        this.data[index] = ((alpha + 127) / 255) << 24 | red << 16 | green << 8 | blue;
+    }
+
+    /**
+     * fill
+     * Replaces all pixels of the canvas by the color.
+     */
+    public void fill(int argb) {
+        this.checkLocked();
+        for (int py = 0; py < this.height; py++) {
+            int row = this.index(0, py);
+            Arrays.fill(this.data, row, row + this.width, argb);
+        }
+    }
+
+    private void checkLocked() {
+        if (!this.locked) throw new IllegalStateException("pixels are not locked, call beginPixels() first");
+    }
+}
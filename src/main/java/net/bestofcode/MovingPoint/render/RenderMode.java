@@ -0,0 +1,71 @@
+package net.bestofcode.MovingPoint.render;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.RenderMode
+ * Decides how net.bestofcode.MovingPointGameEngine.GraphicalComponent presents a
+ * finished frame on the screen.
+ */
+public enum RenderMode {
+
+    /**
+     * The frame is copied into an ImageIcon of a JLabel, which Swing repaints
+     * asynchronously. This is the default.
+     */
+    SWING(0),
+
+    /**
+     * The frame is copied into the back buffer of a Canvas and flipped onto the
+     * screen immediately (active rendering with two buffers). On platforms with
+     * hardware acceleration the back buffer is a VolatileImage in video memory.
+     */
+    ACTIVE(2),
+
+    /**
+     * Same as ACTIVE, but with three buffers, so rendering does not wait for the
+     * flip of the previous frame.
+     */
+    ACTIVE_TRIPLE_BUFFERED(3),
+
+    /**
+     * No window is opened, frames are only drawn into the offscreen image. They
+     * can be read as pixels or recorded into image files, so the engine also
+     * runs on machines without a display, e.g. with java.awt.headless=true.
+     */
+    HEADLESS(0, false, true),
+
+    /**
+     * No window is opened and the engine does not draw any frames, e.g. for
+     * simulations and bots which only need the game logic.
+     */
+    NONE(0, false, false);
+
+    private final int numberOfBuffers;
+    private final boolean windowed;
+    private final boolean rendering;
+
+    RenderMode(int numberOfBuffers) {
+        this(numberOfBuffers, true, true);
+    }
+
+    RenderMode(int numberOfBuffers, boolean windowed, boolean rendering) {
+        this.numberOfBuffers = numberOfBuffers;
+        this.windowed = windowed;
+        this.rendering = rendering;
+    }
+
+    public int getNumberOfBuffers() {
+        return numberOfBuffers;
+    }
+
+    public boolean isActive() {
+        return numberOfBuffers > 0;
+    }
+
+    public boolean isHeadless() {
+        return !windowed;
+    }
+
+    public boolean isRendering() {
+        return rendering;
+    }
+}
@@ -0,0 +1,87 @@
+package net.bestofcode.MovingPoint.render;
+
+import java.util.Arrays;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TiledRasterizationBenchmark
+ * Draws a 4K frame of 20000 circles, lines and texts, once rasterized by the
+ * render thread alone and once by the tiled rasterizer on all cores, and
+ * prints the milliseconds per frame of both. The benchmark fails if the tiles
+ * produce other pixels than the single render thread. It runs headless, run
+ * it with "gradle runTiledRasterizationBenchmark".
+ */
+public final class TiledRasterizationBenchmark {
+
+    private static final int WIDTH = 3840;
+    private static final int HEIGHT = 2160;
+    private static final int PRIMITIVES_PER_FRAME = 20000;
+    private static final int WARMUP_FRAMES = 10;
+    private static final int MEASURED_FRAMES = 20;
+
+    private TiledRasterizationBenchmark() {
+        // can not instantiate
+    }
+
+    public static void main(String[] args) {
+
+        GraphicalComponent graphicalComponent = new GraphicalComponent("TiledRasterizationBenchmark", RenderMode.HEADLESS);
+        graphicalComponent.setCanvasSize(WIDTH, HEIGHT);
+        graphicalComponent.setXscale(-1, 1);
+        graphicalComponent.setYscale(-1, 1);
+        graphicalComponent.enableDoubleBuffering();
+        graphicalComponent.enableRenderThread();
+
+        double single = measure(graphicalComponent);
+        int[] expected = graphicalComponent.getPixels(null);
+
+        graphicalComponent.enableTiledRasterization();
+
+        double tiled = measure(graphicalComponent);
+        int[] actual = graphicalComponent.getPixels(null);
+
+        graphicalComponent.disableRenderThread();
+
+        boolean identical = Arrays.equals(expected, actual);
+
+        System.out.println(String.format("render thread   %8.2f ms/frame", single));
+        System.out.println(String.format("tiled (%2d cores) %7.2f ms/frame, %.2fx %s",
+                Runtime.getRuntime().availableProcessors(), tiled, single / tiled,
+                identical ? "ok" : "PIXELS DIFFER"));
+
+        if (!identical) System.exit(1);
+    }
+
+    // returns the milliseconds per frame, measured until the last frame has been rasterized
+    private static double measure(GraphicalComponent graphicalComponent) {
+
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++)
+            drawFrame(graphicalComponent);
+        graphicalComponent.getPixels(null);
+
+        long start = System.nanoTime();
+
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++)
+            drawFrame(graphicalComponent);
+        graphicalComponent.getPixels(null);
+
+        return (System.nanoTime() - start) / 1e6 / MEASURED_FRAMES;
+    }
+
+    private static void drawFrame(GraphicalComponent graphicalComponent) {
+
+        graphicalComponent.clear(GraphicalComponent.LIGHT_GRAY);
+
+        for (int i = 0; i < PRIMITIVES_PER_FRAME; i++) {
+            double x = ((i * 7919) % 2000) / 1000.0 - 1;
+            double y = ((i * 104729) % 2000) / 1000.0 - 1;
+
+            graphicalComponent.setPenColor(i % 2 == 0 ? GraphicalComponent.BLUE : GraphicalComponent.RED);
+            graphicalComponent.filledCircle(x, y, 0.01);
+
+            if (i % 10 == 0) graphicalComponent.line(x, y, -y, x);
+            if (i % 100 == 0) graphicalComponent.text(x, y, "tile");
+        }
+
+        graphicalComponent.show();
+    }
+}
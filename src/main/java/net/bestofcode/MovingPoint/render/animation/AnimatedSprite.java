@@ -0,0 +1,70 @@
+package net.bestofcode.MovingPoint.render.animation;
+
+import net.bestofcode.MovingPoint.render.IGraphicalComponent;
+import net.bestofcode.MovingPoint.render.texture.TextureRegion;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AnimatedSprite
+ * An AnimatedSprite plays an net.bestofcode.MovingPointGameEngine.Animation. It only
+ * stores the animation, its start time and the current frame index, so thousands
+ * of sprites can share one decoded sprite sheet.
+ */
+public class AnimatedSprite implements IGraphicalComponent {
+
+    private Animation animation;
+    private long startTime;
+    private int frame;
+
+    /**
+     * AnimatedSprite
+     *
+     * @param animation - the animation to play
+     * @param clock     - the clock whose current time is the start of the animation
+     */
+    public AnimatedSprite(Animation animation, AnimationClock clock) {
+        this.play(animation, clock);
+    }
+
+    /**
+     * play
+     * Starts another animation at the current time of the clock
+     */
+    public void play(Animation animation, AnimationClock clock) {
+        this.animation = animation;
+        this.startTime = clock.getTime();
+        this.frame = animation.frameAt(0);
+    }
+
+    /**
+     * update
+     * Moves to the frame which belongs to the current time of the clock
+     */
+    public void update(AnimationClock clock) {
+        this.frame = this.animation.frameAt(clock.getTime() - this.startTime);
+    }
+
+    /**
+     * isFinished
+     * Returns true if a non looping animation showed its last frame
+     */
+    public boolean isFinished(AnimationClock clock) {
+        return !this.animation.isLooping() && clock.getTime() - this.startTime >= this.animation.getDuration();
+    }
+
+    public TextureRegion getCurrentFrame() {
+        return this.animation.getSpriteSheet().getFrame(this.frame);
+    }
+
+    public int getFrameIndex() {
+        return this.frame;
+    }
+
+    public Animation getAnimation() {
+        return this.animation;
+    }
+
+    // the sheet is the file which is drawn
+    public String getFilePath() {
+        return this.animation.getSpriteSheet().getFilePath();
+    }
+}
@@ -0,0 +1,106 @@
+package net.bestofcode.MovingPoint.render.animation;
+
+import java.util.Arrays;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.Animation
+ * An Animation is a sequence of frames of a net.bestofcode.MovingPointGameEngine.SpriteSheet,
+ * each shown for its own duration. Animations are immutable and can be shared
+ * by any number of animated sprites.
+ */
+public class Animation {
+
+    private final SpriteSheet spriteSheet;
+    private final int[] frames;
+
+    // time at which each frame ends, relative to the start of the animation
+    private final long[] frameEnds;
+    private final boolean loop;
+
+    /**
+     * Constructor for an animation where every frame has the same duration
+     *
+     * @param spriteSheet   - the sheet which contains the frames
+     * @param frameDuration - duration of each frame in milliseconds
+     * @param loop          - true if the animation starts again after the last frame
+     * @param frames        - indices of the frames inside of the sheet
+     */
+    public Animation(SpriteSheet spriteSheet, long frameDuration, boolean loop, int... frames) {
+        this(spriteSheet, uniform(frameDuration, frames.length), loop, frames);
+    }
+
+    /**
+     * Constructor for an animation with an individual duration per frame
+     *
+     * @param spriteSheet    - the sheet which contains the frames
+     * @param frameDurations - duration of each frame in milliseconds
+     * @param loop           - true if the animation starts again after the last frame
+     * @param frames         - indices of the frames inside of the sheet
+     */
+    public Animation(SpriteSheet spriteSheet, long[] frameDurations, boolean loop, int... frames) {
+
+        if (frames.length == 0) throw new IllegalArgumentException("animation needs at least one frame");
+        if (frameDurations.length != frames.length)
+            throw new IllegalArgumentException("animation needs one duration per frame");
+
+        this.spriteSheet = spriteSheet;
+        this.frames = frames.clone();
+        this.frameEnds = new long[frames.length];
+        this.loop = loop;
+
+        long end = 0;
+        for (int i = 0; i < frames.length; i++) {
+            if (frames[i] < 0 || frames[i] >= spriteSheet.getNumberOfFrames())
+                throw new IllegalArgumentException("frame " + frames[i] + " is not part of the sprite sheet");
+            if (frameDurations[i] <= 0) throw new IllegalArgumentException("frame duration must be positive");
+            end += frameDurations[i];
+            this.frameEnds[i] = end;
+        }
+    }
+
+    /**
+     * frameAt
+     * Returns the index of the sheet frame which is shown at the given time.
+     * Does not allocate, so it can be called for thousands of sprites per tick.
+     *
+     * @param timeInMilliSeconds - time since the start of the animation
+     * @return index of the frame inside of the sprite sheet
+     */
+    public int frameAt(long timeInMilliSeconds) {
+
+        long duration = this.getDuration();
+        long time = timeInMilliSeconds < 0 ? 0 : timeInMilliSeconds;
+
+        if (time >= duration) {
+            if (!this.loop) return this.frames[this.frames.length - 1];
+            time %= duration;
+        }
+
+        int position = Arrays.binarySearch(this.frameEnds, time);
+
+        // an exact hit is the end of a frame and thus the start of the next one
+        position = position >= 0 ? position + 1 : -position - 1;
+
+        return this.frames[position];
+    }
+
+    public long getDuration() {
+        return this.frameEnds[this.frameEnds.length - 1];
+    }
+
+    public SpriteSheet getSpriteSheet() {
+        return this.spriteSheet;
+    }
+
+    public boolean isLooping() {
+        return this.loop;
+    }
+
+    private static long[] uniform(long frameDuration, int numberOfFrames) {
+
+        long[] frameDurations = new long[numberOfFrames];
+        Arrays.fill(frameDurations, frameDuration);
+
+        return frameDurations;
+    }
+}
@@ -0,0 +1,57 @@
+package net.bestofcode.MovingPoint.render.animation;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AnimationClock
+ * The AnimationClock is the shared time source of all animated sprites. The
+ * engine advances it once per tick, every sprite only reads it.
+ */
+public class AnimationClock {
+
+    private long timeInNanoSeconds = 0;
+    private long lastTickInNanoSeconds = -1;
+
+    /**
+     * tick
+     * Advances the clock by the real time which passed since the last tick.
+     */
+    public void tick() {
+
+        long now = System.nanoTime();
+
+        if (this.lastTickInNanoSeconds >= 0)
+            this.timeInNanoSeconds += now - this.lastTickInNanoSeconds;
+
+        this.lastTickInNanoSeconds = now;
+    }
+
+    /**
+     * advance
+     * Advances the clock by a fixed amount of time, e.g. by the timestep of the game loop.
+     */
+    public void advance(long deltaInMilliSeconds) {
+        if (deltaInMilliSeconds < 0) throw new IllegalArgumentException("time can't run backwards");
+        this.timeInNanoSeconds += deltaInMilliSeconds * 1000000;
+    }
+
+    /**
+     * advanceInSeconds
+     * Advances the clock by a fractional amount of time, e.g. by the timestep of the game loop.
+     */
+    public void advanceInSeconds(double deltaInSeconds) {
+        if (deltaInSeconds < 0) throw new IllegalArgumentException("time can't run backwards");
+        this.timeInNanoSeconds += Math.round(deltaInSeconds * 1000000000);
+    }
+
+    /**
+     * getTime
+     * Returns the time since the clock was started in milliseconds
+     */
+    public long getTime() {
+        return this.timeInNanoSeconds / 1000000;
+    }
+
+    public void reset() {
+        this.timeInNanoSeconds = 0;
+        this.lastTickInNanoSeconds = -1;
+    }
+}
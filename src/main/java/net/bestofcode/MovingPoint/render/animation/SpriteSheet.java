@@ -0,0 +1,76 @@
+package net.bestofcode.MovingPoint.render.animation;
+
+import net.bestofcode.MovingPoint.asset.AssetResolver;
+import net.bestofcode.MovingPoint.render.GraphicalComponent;
+import net.bestofcode.MovingPoint.render.texture.TextureRegion;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.SpriteSheet
+ * A SpriteSheet is a single image which contains all frames of one or more
+ * animations. The sheet is decoded once and cut into frame rectangles, which
+ * are shared by every net.bestofcode.MovingPointGameEngine.AnimatedSprite using it.
+ */
+public class SpriteSheet {
+
+    private final String filePath;
+    private final TextureRegion[] frames;
+
+    /**
+     * Constructor for a sheet with frames of equal size, which are numbered
+     * row by row starting at the upper left corner.
+     *
+     * @param filePath    - name of the sheet, e.g. "Doodler.png"
+     * @param frameWidth  - width of a single frame in pixels
+     * @param frameHeight - height of a single frame in pixels
+     */
+    public SpriteSheet(String filePath, int frameWidth, int frameHeight) {
+
+        if (frameWidth < 1 || frameHeight < 1) throw new IllegalArgumentException("frame size must be positive");
+
+        this.filePath = AssetResolver.getDefault().resolvePath(filePath);
+
+        TextureRegion sheet = GraphicalComponent.getTexture(this.filePath);
+        int columns = sheet.getWidth() / frameWidth;
+        int rows = sheet.getHeight() / frameHeight;
+
+        this.frames = new TextureRegion[columns * rows];
+
+        for (int row = 0; row < rows; row++)
+            for (int column = 0; column < columns; column++)
+                this.frames[row * columns + column] = new TextureRegion(sheet.getImage(),
+                        sheet.getX() + column * frameWidth, sheet.getY() + row * frameHeight, frameWidth, frameHeight);
+    }
+
+    /**
+     * Constructor for a sheet with frames of different sizes
+     *
+     * @param filePath   - name of the sheet, e.g. "Doodler.png"
+     * @param rectangles - one {x, y, width, height} rectangle per frame, in pixels of the sheet
+     */
+    public SpriteSheet(String filePath, int[][] rectangles) {
+
+        this.filePath = AssetResolver.getDefault().resolvePath(filePath);
+
+        TextureRegion sheet = GraphicalComponent.getTexture(this.filePath);
+
+        this.frames = new TextureRegion[rectangles.length];
+
+        for (int i = 0; i < rectangles.length; i++) {
+            int[] rectangle = rectangles[i];
+            this.frames[i] = new TextureRegion(sheet.getImage(),
+                    sheet.getX() + rectangle[0], sheet.getY() + rectangle[1], rectangle[2], rectangle[3]);
+        }
+    }
+
+    public TextureRegion getFrame(int index) {
+        return this.frames[index];
+    }
+
+    public int getNumberOfFrames() {
+        return this.frames.length;
+    }
+
+    public String getFilePath() {
+        return this.filePath;
+    }
+}
@@ -0,0 +1,117 @@
+package net.bestofcode.MovingPoint.render.camera;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.Camera
+ * The Camera decides which part of the world is shown on the canvas. Its
+ * position is the point of the world in the center of the canvas, the zoom
+ * magnifies the x- and y-range of the canvas and the rotation turns the world
+ * around the center of the canvas. Moving the camera only changes a few
+ * numbers, the world itself is never touched, so scrolling costs the same
+ * for every size of the world.
+ * <p>
+ * Every change increases the version of the camera, so
+ * net.bestofcode.MovingPointGameEngine.GraphicalComponent knows when it has to
+ * compute its transform again.
+ */
+public class Camera {
+
+    private double x;
+    private double y;
+    private double zoom = 1;
+    private double rotation = 0;
+
+    private long version = 0;
+
+    /**
+     * Constructor for a Camera looking at the origin of the world
+     */
+    public Camera() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructor for a Camera looking at (x, y)
+     *
+     * @param x - x-coordinate of the world in the center of the canvas
+     * @param y - y-coordinate of the world in the center of the canvas
+     */
+    public Camera(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * setPosition
+     * Moves the camera, so (x, y) is shown in the center of the canvas.
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+        this.version++;
+    }
+
+    /**
+     * move
+     * Scrolls the camera by (dx, dy) in coordinates of the world.
+     */
+    public void move(double dx, double dy) {
+        this.setPosition(this.x + dx, this.y + dy);
+    }
+
+    /**
+     * setZoom
+     * Sets the magnification, 2 shows half of the x- and y-range twice as large.
+     */
+    public void setZoom(double zoom) {
+        if (!(zoom > 0) || Double.isInfinite(zoom)) throw new IllegalArgumentException("zoom must be positive");
+        this.zoom = zoom;
+        this.version++;
+    }
+
+    /**
+     * zoom
+     * Multiplies the magnification by the factor, e.g. 1.1 to zoom in a bit.
+     */
+    public void zoom(double factor) {
+        this.setZoom(this.zoom * factor);
+    }
+
+    /**
+     * setRotation
+     * Turns the world counterclockwise around the center of the canvas.
+     *
+     * @param radians - the angle of the rotation
+     */
+    public void setRotation(double radians) {
+        this.rotation = radians;
+        this.version++;
+    }
+
+    /**
+     * rotate
+     * Turns the world further by the angle in radians.
+     */
+    public void rotate(double radians) {
+        this.setRotation(this.rotation + radians);
+    }
+
+    public double getX() {
+        return this.x;
+    }
+
+    public double getY() {
+        return this.y;
+    }
+
+    public double getZoom() {
+        return this.zoom;
+    }
+
+    public double getRotation() {
+        return this.rotation;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+}
@@ -0,0 +1,167 @@
+package net.bestofcode.MovingPoint.render.capture;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.FrameRecorder
+ * The FrameRecorder writes frames into numbered image files on a background
+ * thread. capture() only copies the pixels of a frame into one of a few
+ * reused images, encoding and writing the file happens on the writer thread.
+ * If all images are still waiting to be written, capture() waits for the
+ * writer, so a slow disk slows down the game instead of filling the memory.
+ * <p>
+ * The writer thread is a daemon, call stop() to write the remaining frames
+ * before the program exits.
+ */
+public class FrameRecorder {
+
+    public static final int DEFAULT_NUMBER_OF_IMAGES = 3;
+
+    private final String filenamePattern;
+    private final String suffix;
+    private final int imageType;
+
+    private final int numberOfImages;
+    private final ArrayBlockingQueue<BufferedImage> freeImages;
+    private int allocatedImages = 0;
+
+    private final ExecutorService writer;
+    private int numberOfFrames = 0;
+    private boolean stopped = false;
+
+    /**
+     * Constructor for a FrameRecorder
+     *
+     * @param filenamePattern - the name of the files with a format specifier for
+     *                        the frame number and suffix png or jpg, e.g. "frame-%05d.png"
+     */
+    public FrameRecorder(String filenamePattern) {
+        this(filenamePattern, DEFAULT_NUMBER_OF_IMAGES);
+    }
+
+    /**
+     * Constructor for a FrameRecorder with a custom number of images
+     *
+     * @param filenamePattern - the name of the files, e.g. "frame-%05d.png"
+     * @param numberOfImages  - the number of frames which may wait to be written
+     */
+    public FrameRecorder(String filenamePattern, int numberOfImages) {
+
+        if (filenamePattern == null) throw new IllegalArgumentException("filename pattern is null");
+        if (numberOfImages <= 0) throw new IllegalArgumentException("at least one image is needed");
+
+        this.filenamePattern = filenamePattern;
+        this.suffix = filenamePattern.substring(filenamePattern.lastIndexOf('.') + 1).toLowerCase();
+
+        // jpg has no alpha channel
+        if ("png".equals(this.suffix)) this.imageType = BufferedImage.TYPE_INT_ARGB;
+        else if ("jpg".equals(this.suffix)) this.imageType = BufferedImage.TYPE_INT_RGB;
+        else throw new IllegalArgumentException("Invalid image file type: " + this.suffix);
+
+        this.numberOfImages = numberOfImages;
+        this.freeImages = new ArrayBlockingQueue<BufferedImage>(numberOfImages);
+
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "frame recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * capture
+     * Copies the frame and writes it into the next file in the background.
+     *
+     * @param frame - the image of the frame, it may be changed as soon as capture() returns
+     */
+    public synchronized void capture(BufferedImage frame) {
+
+        if (this.stopped) throw new IllegalStateException("frame recorder is stopped");
+
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+
+        BufferedImage image = this.takeImage(width, height);
+        // the canvas has been resized
+        if (image.getWidth() != width || image.getHeight() != height)
+            image = new BufferedImage(width, height, this.imageType);
+
+        // argb and rgb images store their pixels the same way, jpg simply ignores the alpha bits
+        int type = frame.getType();
+        if (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB) {
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            frame.getRaster().getDataElements(0, 0, width, height, pixels);
+        } else {
+            Graphics2D graphics = image.createGraphics();
+            graphics.setComposite(AlphaComposite.Src);
+            graphics.drawImage(frame, 0, 0, null);
+            graphics.dispose();
+        }
+
+        File file = new File(String.format(this.filenamePattern, this.numberOfFrames++));
+        BufferedImage captured = image;
+
+        this.writer.execute(() -> {
+            try {
+                ImageIO.write(captured, this.suffix, file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                this.freeImages.offer(captured);
+            }
+        });
+    }
+
+    /**
+     * stop
+     * Writes all captured frames and stops the writer thread.
+     */
+    public synchronized void stop() {
+
+        if (this.stopped) return;
+        this.stopped = true;
+        this.writer.shutdown();
+
+        try {
+            this.writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * getNumberOfFrames
+     * Returns the number of captured frames, which is the number of the next file.
+     */
+    public synchronized int getNumberOfFrames() {
+        return this.numberOfFrames;
+    }
+
+    // a free image, a new one while there are less than numberOfImages or else the next one which has been written
+    private BufferedImage takeImage(int width, int height) {
+
+        BufferedImage image = this.freeImages.poll();
+        if (image != null) return image;
+
+        if (this.allocatedImages < this.numberOfImages) {
+            this.allocatedImages++;
+            return new BufferedImage(width, height, this.imageType);
+        }
+
+        try {
+            return this.freeImages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the frame recorder", e);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package net.bestofcode.MovingPoint.render.command;
+
+import net.bestofcode.MovingPoint.render.shape.PrimitiveShape;
+import net.bestofcode.MovingPoint.render.texture.TextureRegion;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.RenderCommandBuffer
+ * The RenderCommandBuffer records the drawing calls of one frame, so they can
+ * be rasterized later on another thread. Every command is stored as an opcode,
+ * its numeric arguments in pixel coordinates and, if needed, a reference to a
+ * color, stroke, font, text or image. The arrays grow once and are reused for
+ * every following frame, so recording a frame does not allocate.
+ * <p>
+ * A buffer is not thread-safe, it is either recorded or replayed at a time.
+ */
+public class RenderCommandBuffer {
+
+    private static final int COLOR = 0;
+    private static final int STROKE = 1;
+    private static final int FONT = 2;
+    private static final int XOR_MODE = 3;
+    private static final int PAINT_MODE = 4;
+    private static final int LINE = 5;
+    private static final int PIXEL = 6;
+    private static final int ELLIPSE = 7;
+    private static final int FILLED_ELLIPSE = 8;
+    private static final int RECTANGLE = 9;
+    private static final int FILLED_RECTANGLE = 10;
+    private static final int ARC = 11;
+    private static final int POLYGON = 12;
+    private static final int FILLED_POLYGON = 13;
+    private static final int TEXTURE = 14;
+    private static final int IMAGE = 15;
+    private static final int TEXT = 16;
+    private static final int ROTATE = 17;
+    private static final int POLYLINE = 18;
+    private static final int ELLIPSES = 19;
+    private static final int FILLED_ELLIPSES = 20;
+    private static final int CLIP = 21;
+    private static final int RESET_CLIP = 22;
+    private static final int TRANSFORM = 23;
+
+    private int[] operations = new int[256];
+    private double[] arguments = new double[1024];
+    private Object[] references = new Object[64];
+
+    private int numberOfOperations = 0;
+    private int numberOfArguments = 0;
+    private int numberOfReferences = 0;
+
+    // position of the vertex count of the polygon, polyline or ellipses which are currently recorded
+    private int vertexCount = -1;
+    // true if the outline of an ellipse or arc was recorded
+    private boolean strokedCurves = false;
+
+    // shapes which are reused by every replay on a single thread
+    private final ReplayState state = new ReplayState();
+
+    public void color(Color color) {
+        this.operation(COLOR);
+        this.reference(color);
+    }
+
+    public void stroke(Stroke stroke) {
+        this.operation(STROKE);
+        this.reference(stroke);
+    }
+
+    public void font(Font font) {
+        this.operation(FONT);
+        this.reference(font);
+    }
+
+    public void xorMode(Color color) {
+        this.operation(XOR_MODE);
+        this.reference(color);
+    }
+
+    public void paintMode() {
+        this.operation(PAINT_MODE);
+    }
+
+    public void clip(int x, int y, int w, int h) {
+        this.operation(CLIP);
+        this.arguments(x, y, w, h);
+    }
+
+    public void resetClip() {
+        this.operation(RESET_CLIP);
+    }
+
+    public void line(double x0, double y0, double x1, double y1) {
+        this.operation(LINE);
+        this.arguments(x0, y0, x1, y1);
+    }
+
+    public void pixel(int x, int y) {
+        this.operation(PIXEL);
+        this.arguments(x, y);
+    }
+
+    public void ellipse(double x, double y, double w, double h, boolean filled) {
+        this.operation(filled ? FILLED_ELLIPSE : ELLIPSE);
+        this.arguments(x, y, w, h);
+        this.strokedCurves |= !filled;
+    }
+
+    public void rectangle(double x, double y, double w, double h, boolean filled) {
+        this.operation(filled ? FILLED_RECTANGLE : RECTANGLE);
+        this.arguments(x, y, w, h);
+    }
+
+    public void arc(double x, double y, double w, double h, double start, double extent) {
+        this.operation(ARC);
+        this.arguments(x, y, w, h);
+        this.arguments(start, extent);
+        this.strokedCurves = true;
+    }
+
+    /**
+     * beginPolygon
+     * Starts a closed polygon, its corners are added by vertex().
+     */
+    public void beginPolygon(boolean filled) {
+        this.operation(filled ? FILLED_POLYGON : POLYGON);
+        this.beginVertices();
+    }
+
+    /**
+     * beginPolyline
+     * Starts an open line through all points which are added by vertex().
+     */
+    public void beginPolyline() {
+        this.operation(POLYLINE);
+        this.beginVertices();
+    }
+
+    /**
+     * beginEllipses
+     * Starts a batch of ellipses of the same size, the upper left corner of
+     * every bounding box is added by vertex(). The batch is drawn in one pass.
+     */
+    public void beginEllipses(double w, double h, boolean filled) {
+        this.operation(filled ? FILLED_ELLIPSES : ELLIPSES);
+        this.beginVertices();
+        this.arguments(w, h);
+        this.strokedCurves |= !filled;
+    }
+
+    public void vertex(double x, double y) {
+        if (this.vertexCount < 0) throw new IllegalStateException("vertex outside of a polygon, polyline or ellipses");
+        this.arguments(x, y);
+        this.arguments[this.vertexCount]++;
+    }
+
+    public void endVertices() {
+        this.vertexCount = -1;
+    }
+
+    private void beginVertices() {
+        this.vertexCount = this.numberOfArguments;
+        this.arguments(0);
+    }
+
+    public void texture(TextureRegion texture, int x, int y) {
+        this.operation(TEXTURE);
+        this.reference(texture);
+        this.arguments(x, y);
+    }
+
+    public void image(BufferedImage image, int x, int y) {
+        this.operation(IMAGE);
+        this.reference(image);
+        this.arguments(x, y);
+    }
+
+    public void text(String text, float x, float y) {
+        this.operation(TEXT);
+        this.reference(text);
+        this.arguments(x, y);
+    }
+
+    public void rotate(double radians, double x, double y) {
+        this.operation(ROTATE);
+        this.arguments(radians, x, y);
+    }
+
+    /**
+     * transform
+     * Replaces the transform of the graphics, e.g. by the rotation of a camera.
+     */
+    public void transform(AffineTransform transform) {
+        this.operation(TRANSFORM);
+        this.arguments(transform.getScaleX(), transform.getShearY(), transform.getShearX());
+        this.arguments(transform.getScaleY(), transform.getTranslateX(), transform.getTranslateY());
+    }
+
+    /**
+     * replay
+     * Executes all recorded commands in their order on the given graphics.
+     *
+     * @param graphics - the graphics to draw onto
+     */
+    public void replay(Graphics2D graphics) {
+        this.replay(graphics, this.state, true);
+    }
+
+    /**
+     * replayState
+     * Executes only the commands which change the graphics, e.g. its color or
+     * clip, so it ends up in the same state as after replay() without drawing.
+     *
+     * @param graphics - the graphics to update
+     */
+    public void replayState(Graphics2D graphics) {
+        this.replay(graphics, this.state, false);
+    }
+
+    // replays with the shapes and the tile of the given state, drawing commands are skipped if draw is false
+    void replay(Graphics2D graphics, ReplayState state, boolean draw) {
+
+        int argument = 0;
+        int reference = 0;
+
+        PrimitiveShape shape = state.shape;
+
+        for (int i = 0; i < this.numberOfOperations; i++) {
+
+            double[] a = this.arguments;
+            int operation = this.operations[i];
+
+            switch (operation) {
+                case COLOR:
+                    graphics.setColor((Color) this.references[reference++]);
+                    break;
+                case STROKE:
+                    graphics.setStroke((Stroke) this.references[reference++]);
+                    break;
+                case FONT:
+                    graphics.setFont((Font) this.references[reference++]);
+                    break;
+                case XOR_MODE:
+                    graphics.setXORMode((Color) this.references[reference++]);
+                    break;
+                case PAINT_MODE:
+                    graphics.setPaintMode();
+                    break;
+                case CLIP:
+                    state.clip(graphics, (int) a[argument], (int) a[argument + 1], (int) a[argument + 2], (int) a[argument + 3]);
+                    argument += 4;
+                    break;
+                case RESET_CLIP:
+                    state.resetClip(graphics);
+                    break;
+                case ROTATE:
+                    graphics.rotate(a[argument], a[argument + 1], a[argument + 2]);
+                    argument += 3;
+                    break;
+                case TRANSFORM:
+                    state.transform.setTransform(a[argument], a[argument + 1], a[argument + 2],
+                            a[argument + 3], a[argument + 4], a[argument + 5]);
+                    graphics.setTransform(state.transform);
+                    argument += 6;
+                    break;
+                case LINE:
+                    if (draw) {
+                        shape.setLine(a[argument], a[argument + 1], a[argument + 2], a[argument + 3]);
+                        graphics.draw(shape);
+                    }
+                    argument += 4;
+                    break;
+                case PIXEL:
+                    if (draw) graphics.fillRect((int) a[argument], (int) a[argument + 1], 1, 1);
+                    argument += 2;
+                    break;
+                case ELLIPSE:
+                case FILLED_ELLIPSE:
+                    if (draw) {
+                        shape.setEllipse(a[argument], a[argument + 1], a[argument + 2], a[argument + 3]);
+                        if (operation == FILLED_ELLIPSE) graphics.fill(shape);
+                        else graphics.draw(shape);
+                    }
+                    argument += 4;
+                    break;
+                case RECTANGLE:
+                case FILLED_RECTANGLE:
+                    if (draw && operation == FILLED_RECTANGLE) {
+                        state.rectangle.setRect(a[argument], a[argument + 1], a[argument + 2], a[argument + 3]);
+                        graphics.fill(state.rectangle);
+                    } else if (draw) {
+                        shape.setRectangle(a[argument], a[argument + 1], a[argument + 2], a[argument + 3]);
+                        graphics.draw(shape);
+                    }
+                    argument += 4;
+                    break;
+                case ARC:
+                    if (draw) {
+                        state.arc.setArc(a[argument], a[argument + 1], a[argument + 2], a[argument + 3],
+                                a[argument + 4], a[argument + 5], Arc2D.OPEN);
+                        graphics.draw(state.arc);
+                    }
+                    argument += 6;
+                    break;
+                case POLYGON:
+                case FILLED_POLYGON:
+                    int vertices = (int) a[argument++];
+                    if (draw) {
+                        shape.reset();
+                        for (int v = 0; v < vertices; v++) {
+                            int vertex = argument + 2 * v;
+                            if (v == 0) shape.moveTo((float) a[vertex], (float) a[vertex + 1]);
+                            else shape.lineTo((float) a[vertex], (float) a[vertex + 1]);
+                        }
+                        shape.closePath();
+                        if (operation == FILLED_POLYGON) graphics.fill(shape);
+                        else graphics.draw(shape);
+                    }
+                    argument += 2 * vertices;
+                    break;
+                case POLYLINE:
+                    int points = (int) a[argument++];
+                    if (draw) {
+                        shape.reset();
+                        for (int v = 0; v < points; v++) {
+                            int point = argument + 2 * v;
+                            if (v == 0) shape.moveTo(a[point], a[point + 1]);
+                            else shape.lineTo(a[point], a[point + 1]);
+                        }
+                        graphics.draw(shape);
+                    }
+                    argument += 2 * points;
+                    break;
+                case ELLIPSES:
+                case FILLED_ELLIPSES:
+                    int ellipses = (int) a[argument];
+                    double w = a[argument + 1];
+                    double h = a[argument + 2];
+                    argument += 3;
+                    if (draw) {
+                        shape.reset();
+                        for (int v = 0; v < ellipses; v++)
+                            shape.appendEllipse(a[argument + 2 * v], a[argument + 2 * v + 1], w, h);
+                        if (operation == FILLED_ELLIPSES) graphics.fill(shape);
+                        else graphics.draw(shape);
+                    }
+                    argument += 2 * ellipses;
+                    break;
+                case TEXTURE:
+                    TextureRegion texture = (TextureRegion) this.references[reference++];
+                    if (draw) texture.draw(graphics, (int) a[argument], (int) a[argument + 1]);
+                    argument += 2;
+                    break;
+                case IMAGE:
+                    BufferedImage image = (BufferedImage) this.references[reference++];
+                    if (draw) graphics.drawImage(image, (int) a[argument], (int) a[argument + 1], null);
+                    argument += 2;
+                    break;
+                case TEXT:
+                    String text = (String) this.references[reference++];
+                    if (draw) graphics.drawString(text, (float) a[argument], (float) a[argument + 1]);
+                    argument += 2;
+                    break;
+                default:
+                    throw new IllegalStateException("unknown render command " + operation);
+            }
+        }
+    }
+
+    /**
+     * clear
+     * Removes all commands but keeps the arrays for the next frame.
+     */
+    public void clear() {
+        // don't keep textures and texts of old frames alive
+        Arrays.fill(this.references, 0, this.numberOfReferences, null);
+        this.numberOfOperations = 0;
+        this.numberOfArguments = 0;
+        this.numberOfReferences = 0;
+        this.vertexCount = -1;
+        this.strokedCurves = false;
+    }
+
+    public boolean isEmpty() {
+        return this.numberOfOperations == 0;
+    }
+
+    public int size() {
+        return this.numberOfOperations;
+    }
+
+    /**
+     * hasStrokedCurves
+     * Checks if the outline of an ellipse, circle or arc was recorded. The pixels
+     * of such outlines depend on the clip, see net.bestofcode.MovingPointGameEngine.TiledRasterizer.
+     */
+    public boolean hasStrokedCurves() {
+        return this.strokedCurves;
+    }
+
+    private void operation(int operation) {
+        if (this.numberOfOperations == this.operations.length)
+            this.operations = Arrays.copyOf(this.operations, 2 * this.operations.length);
+        this.operations[this.numberOfOperations++] = operation;
+    }
+
+    private void arguments(double a) {
+        this.ensureArguments(1);
+        this.arguments[this.numberOfArguments++] = a;
+    }
+
+    private void arguments(double a, double b) {
+        this.ensureArguments(2);
+        this.arguments[this.numberOfArguments++] = a;
+        this.arguments[this.numberOfArguments++] = b;
+    }
+
+    private void arguments(double a, double b, double c) {
+        this.ensureArguments(3);
+        this.arguments[this.numberOfArguments++] = a;
+        this.arguments[this.numberOfArguments++] = b;
+        this.arguments[this.numberOfArguments++] = c;
+    }
+
+    private void arguments(double a, double b, double c, double d) {
+        this.ensureArguments(4);
+        this.arguments[this.numberOfArguments++] = a;
+        this.arguments[this.numberOfArguments++] = b;
+        this.arguments[this.numberOfArguments++] = c;
+        this.arguments[this.numberOfArguments++] = d;
+    }
+
+    private void ensureArguments(int count) {
+        if (this.numberOfArguments + count > this.arguments.length)
+            this.arguments = Arrays.copyOf(this.arguments, 2 * this.arguments.length);
+    }
+
+    private void reference(Object value) {
+        if (this.numberOfReferences == this.references.length)
+            this.references = Arrays.copyOf(this.references, 2 * this.references.length);
+        this.references[this.numberOfReferences++] = value;
+    }
+}
@@ -0,0 +1,180 @@
+package net.bestofcode.MovingPoint.render.command;
+
+import java.util.function.Consumer;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.RenderThread
+ * The RenderThread rasterizes recorded frames while the game thread already
+ * records the next one. It owns two RenderCommandBuffers: the game thread
+ * records into one of them, submit() swaps them and hands the recorded frame
+ * to the render thread. If the previous frame is still being rasterized,
+ * submit() waits for it, so the game is never more than one frame ahead.
+ * <p>
+ * If a frame can not be rasterized, the error is thrown by the next call of
+ * submit() or finish() on the game thread, the render thread keeps running.
+ */
+public class RenderThread {
+
+    private final Consumer<RenderCommandBuffer> rasterizer;
+    private final Thread thread;
+
+    private RenderCommandBuffer recordingBuffer = new RenderCommandBuffer();
+    private RenderCommandBuffer renderingBuffer = new RenderCommandBuffer();
+
+    // true while a submitted frame waits for or is being rasterized
+    private boolean pending = false;
+    private boolean running = true;
+    // error of the last rasterized frame, thrown on the game thread
+    private Throwable failure;
+
+    /**
+     * Constructor for a RenderThread, the thread is started immediately
+     *
+     * @param name       - the name of the thread
+     * @param rasterizer - draws a recorded frame and presents it, called on the render thread
+     */
+    public RenderThread(String name, Consumer<RenderCommandBuffer> rasterizer) {
+        if (rasterizer == null) throw new IllegalArgumentException("render thread needs a rasterizer");
+        this.rasterizer = rasterizer;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * getRecordingBuffer
+     * Returns the buffer of the frame which is currently recorded. It may only
+     * be used by the game thread and changes with every call of submit().
+     */
+    public RenderCommandBuffer getRecordingBuffer() {
+        return this.recordingBuffer;
+    }
+
+    /**
+     * submit
+     * Hands the recorded frame to the render thread and returns an empty buffer
+     * for the next frame.
+     *
+     * @return the buffer to record the next frame into
+     */
+    public synchronized RenderCommandBuffer submit() {
+
+        this.awaitPendingFrame();
+
+        if (!this.running) throw new IllegalStateException("render thread is stopped");
+
+        RenderCommandBuffer recorded = this.recordingBuffer;
+        this.recordingBuffer = this.renderingBuffer;
+        this.renderingBuffer = recorded;
+
+        this.pending = true;
+        this.notifyAll();
+
+        return this.recordingBuffer;
+    }
+
+    /**
+     * finish
+     * Waits until the last submitted frame has been rasterized, e.g. before the
+     * rasterized image is saved or resized.
+     */
+    public synchronized void finish() {
+        this.awaitPendingFrame();
+    }
+
+    /**
+     * stop
+     * Rasterizes the last submitted frame and stops the thread afterwards.
+     */
+    public void stop() {
+
+        synchronized (this) {
+            try {
+                this.awaitPendingFrame();
+            } finally {
+                this.running = false;
+                this.notifyAll();
+            }
+        }
+
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // the buffers must not be touched before the frame is finished, so an interrupt is only restored afterwards
+    private void awaitPendingFrame() {
+
+        boolean interrupted = false;
+
+        while (this.pending && this.running) {
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) Thread.currentThread().interrupt();
+
+        if (this.failure != null) {
+            Throwable failure = this.failure;
+            this.failure = null;
+            throw new IllegalStateException("render thread could not rasterize a frame", failure);
+        }
+    }
+
+    private void run() {
+
+        try {
+            this.rasterizeFrames();
+        } finally {
+            // nobody waits for a thread which stopped
+            synchronized (this) {
+                this.running = false;
+                this.pending = false;
+                this.notifyAll();
+            }
+        }
+    }
+
+    private void rasterizeFrames() {
+
+        while (true) {
+
+            RenderCommandBuffer frame;
+
+            synchronized (this) {
+                while (!this.pending && this.running) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+
+                if (!this.pending) return;
+
+                frame = this.renderingBuffer;
+            }
+
+            Throwable failure = null;
+
+            try {
+                this.rasterizer.accept(frame);
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                frame.clear();
+            }
+
+            synchronized (this) {
+                if (failure != null) this.failure = failure;
+                this.pending = false;
+                this.notifyAll();
+            }
+        }
+    }
+}
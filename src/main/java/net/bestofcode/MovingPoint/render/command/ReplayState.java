@@ -0,0 +1,61 @@
+package net.bestofcode.MovingPoint.render.command;
+
+import net.bestofcode.MovingPoint.render.shape.PrimitiveShape;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.ReplayState
+ * The shapes which are reused while a RenderCommandBuffer is replayed and the
+ * tile of the canvas the replay is restricted to. Every thread which replays
+ * a buffer needs its own state.
+ */
+final class ReplayState {
+
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    final PrimitiveShape shape = new PrimitiveShape();
+    final Rectangle2D.Double rectangle = new Rectangle2D.Double();
+    final Arc2D.Double arc = new Arc2D.Double(Arc2D.OPEN);
+    final AffineTransform transform = new AffineTransform();
+
+    // pixels of the canvas the replay draws into, null for the whole canvas
+    private Rectangle tile;
+
+    void setTile(Rectangle tile) {
+        this.tile = tile;
+    }
+
+    /**
+     * begin
+     * Restricts the graphics to the tile in addition to its current clip.
+     */
+    void begin(Graphics2D graphics) {
+        if (this.tile == null) return;
+        AffineTransform transform = graphics.getTransform();
+        graphics.setTransform(IDENTITY);
+        graphics.clip(this.tile);
+        graphics.setTransform(transform);
+    }
+
+    // a recorded clip never reaches outside of the tile
+    void clip(Graphics2D graphics, int x, int y, int w, int h) {
+        this.resetClip(graphics);
+        graphics.clipRect(x, y, w, h);
+    }
+
+    void resetClip(Graphics2D graphics) {
+        if (this.tile == null) {
+            graphics.setClip(null);
+            return;
+        }
+        // the tile is given in pixels, independent of rotations
+        AffineTransform transform = graphics.getTransform();
+        graphics.setTransform(IDENTITY);
+        graphics.setClip(this.tile);
+        graphics.setTransform(transform);
+    }
+}
@@ -0,0 +1,143 @@
+package net.bestofcode.MovingPoint.render.command;
+
+import java.awt.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TiledRasterizer
+ * The TiledRasterizer rasterizes a recorded frame on all cores. The canvas is
+ * split into tiles, every tile replays the whole RenderCommandBuffer clipped
+ * to its own pixels on a fork-join pool, so all tiles write into the same
+ * image at once. rasterize() returns after all tiles have been joined.
+ * <p>
+ * Since every tile replays every command, a few large tiles are faster than
+ * many small ones: by default there is one tile per thread of the pool. The
+ * tiles are horizontal bands of whole rows, which are stored next to each
+ * other in the image, e.g. in its DataBufferInt.
+ * <p>
+ * The tiles produce the same pixels as a single replay. The Marlin renderer
+ * of newer JDKs splits the outlines of curves at the clip, so an outline of
+ * an ellipse or arc which crosses a tile would be flattened differently by
+ * every tile, whatever the width of the stroke. Frames which contain such
+ * outlines are replayed on the calling thread instead, fills, lines, texts
+ * and images are always rasterized in tiles.
+ */
+public class TiledRasterizer {
+
+    private final ForkJoinPool pool;
+    private final int numberOfTiles;
+
+    private ReplayState[] tiles = new ReplayState[0];
+    private Graphics2D[] graphics = new Graphics2D[0];
+    private int width;
+    private int height;
+
+    /**
+     * Constructor for a TiledRasterizer with one tile per thread of the common pool
+     */
+    public TiledRasterizer() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * Constructor for a TiledRasterizer
+     *
+     * @param pool          - the pool which rasterizes the tiles
+     * @param numberOfTiles - the number of bands the canvas is split into
+     */
+    public TiledRasterizer(ForkJoinPool pool, int numberOfTiles) {
+        if (pool == null) throw new IllegalArgumentException("tiled rasterizer needs a pool");
+        if (numberOfTiles <= 0) throw new IllegalArgumentException("at least one tile is needed");
+        this.pool = pool;
+        this.numberOfTiles = numberOfTiles;
+    }
+
+    /**
+     * rasterize
+     * Replays the frame onto the target, one tile per task. Afterwards the
+     * target is in the same state, e.g. color and clip, as after a replay
+     * on a single thread.
+     *
+     * @param frame  - the recorded frame
+     * @param target - the graphics of the canvas
+     * @param width  - width of the canvas in pixels
+     * @param height - height of the canvas in pixels
+     */
+    public void rasterize(RenderCommandBuffer frame, Graphics2D target, int width, int height) {
+
+        if (frame.hasStrokedCurves()) {
+            frame.replay(target);
+            return;
+        }
+
+        if (width != this.width || height != this.height || this.tiles.length == 0)
+            this.layout(width, height);
+
+        // every tile starts from the state of the target
+        for (int i = 0; i < this.tiles.length; i++) {
+            this.graphics[i] = (Graphics2D) target.create();
+            this.tiles[i].begin(this.graphics[i]);
+        }
+
+        try {
+            this.pool.invoke(new TileRange(frame, 0, this.tiles.length));
+        } finally {
+            for (int i = 0; i < this.graphics.length; i++) {
+                this.graphics[i].dispose();
+                this.graphics[i] = null;
+            }
+        }
+
+        frame.replayState(target);
+    }
+
+    public int getNumberOfTiles() {
+        return this.tiles.length;
+    }
+
+    // splits the canvas into bands of nearly the same height
+    private void layout(int width, int height) {
+
+        int bands = Math.min(this.numberOfTiles, height);
+
+        this.tiles = new ReplayState[bands];
+        this.graphics = new Graphics2D[bands];
+        this.width = width;
+        this.height = height;
+
+        for (int i = 0; i < bands; i++) {
+            int y0 = (int) ((long) height * i / bands);
+            int y1 = (int) ((long) height * (i + 1) / bands);
+            this.tiles[i] = new ReplayState();
+            this.tiles[i].setTile(new Rectangle(0, y0, width, y1 - y0));
+        }
+    }
+
+    // rasterizes the tiles from (inclusive) to (exclusive) by splitting them in halves
+    @SuppressWarnings("serial")
+    private final class TileRange extends RecursiveAction {
+
+        private final RenderCommandBuffer frame;
+        private final int from;
+        private final int to;
+
+        TileRange(RenderCommandBuffer frame, int from, int to) {
+            this.frame = frame;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (this.to - this.from == 1) {
+                this.frame.replay(graphics[this.from], tiles[this.from], true);
+                return;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new TileRange(this.frame, this.from, middle), new TileRange(this.frame, middle, this.to));
+        }
+    }
+}
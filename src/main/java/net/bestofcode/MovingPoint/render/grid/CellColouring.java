@@ -0,0 +1,17 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.CellColouring
+ * Interface for everything which decides the color of a cell by its state,
+ * e.g. a lambda like {@code state -> state == 1 ? 0xff000000 : 0}.
+ */
+public interface CellColouring {
+
+    /**
+     * Invoked for every cell which is painted.
+     *
+     * @param state the state of the cell
+     * @return the color as ARGB without premultiplied alpha, 0 leaves the cell transparent
+     */
+    int getColor(int state);
+}
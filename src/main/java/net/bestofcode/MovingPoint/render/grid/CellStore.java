@@ -0,0 +1,50 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.CellStore
+ * Interface for everything which stores the states of the cells of a grid.
+ * A cell is addressed by its column and row, (0, 0) is the upper left cell.
+ * Regions are given by their upper left cell and their number of columns
+ * and rows, cells outside of the store are an error.
+ */
+public interface CellStore {
+
+    int getColumns();
+
+    int getRows();
+
+    CellWidth getCellWidth();
+
+    int get(int column, int row);
+
+    /**
+     * Replaces the state of a cell.
+     *
+     * @throws IllegalArgumentException if the state does not fit into the cell width
+     */
+    void set(int column, int row, int state);
+
+    /**
+     * Replaces the states of all cells of the region by the state.
+     */
+    void fill(int column, int row, int columns, int rows, int state);
+
+    /**
+     * Copies the states of a region of the source into the region of the same
+     * size at (column, row). Source and target may be the same store, also
+     * when the regions overlap.
+     */
+    void copy(CellStore source, int sourceColumn, int sourceRow, int column, int row, int columns, int rows);
+
+    /**
+     * Calls the visitor for every cell of the region, row by row.
+     */
+    void forEach(int column, int row, int columns, int rows, CellVisitor visitor);
+
+    /**
+     * Calls the visitor for every cell of the region whose state is not the
+     * skipped state, e.g. the empty state. The cells are not visited in a
+     * fixed order, so a store may skip whole blocks of skipped cells.
+     */
+    void forEachExcept(int column, int row, int columns, int rows, int skippedState, CellVisitor visitor);
+}
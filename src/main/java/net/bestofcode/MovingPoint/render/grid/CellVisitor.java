@@ -0,0 +1,18 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.CellVisitor
+ * Interface for everything which walks over the cells of a region, e.g. to
+ * draw them or to count the cells of a state.
+ */
+public interface CellVisitor {
+
+    /**
+     * Invoked for every cell of the region, row by row.
+     *
+     * @param column the column of the cell
+     * @param row    the row of the cell
+     * @param state  the state of the cell
+     */
+    void visit(int column, int row, int state);
+}
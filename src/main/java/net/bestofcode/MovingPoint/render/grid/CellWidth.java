@@ -0,0 +1,61 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.CellWidth
+ * The number of bits which store the state of one cell. Smaller cells let
+ * larger grids fit into the caches, e.g. a 4096*4096 grid needs 2 MB with
+ * BIT cells and 64 MB with INT cells. BIT cells store 0 and 1, the other
+ * widths store signed values, so -1 still marks an empty cell.
+ */
+public enum CellWidth {
+
+    BIT(1, false),
+    BYTE(8, true),
+    SHORT(16, true),
+    INT(32, true);
+
+    private final int bits;
+    private final boolean signed;
+    private final long mask;
+
+    CellWidth(int bits, boolean signed) {
+        this.bits = bits;
+        this.signed = signed;
+        this.mask = (1L << bits) - 1;
+    }
+
+    public int getBits() {
+        return this.bits;
+    }
+
+    public int getMinimumState() {
+        return this.signed ? (int) -(1L << (this.bits - 1)) : 0;
+    }
+
+    public int getMaximumState() {
+        return this.signed ? (int) ((1L << (this.bits - 1)) - 1) : (int) this.mask;
+    }
+
+    /**
+     * getEmptyState
+     * Returns the state of an empty cell, -1 if the cells are signed, 0 otherwise.
+     */
+    public int getEmptyState() {
+        return this.signed ? -1 : 0;
+    }
+
+    public boolean fits(int state) {
+        return state >= this.getMinimumState() && state <= this.getMaximumState();
+    }
+
+    // the lowest bits of the state as they are stored
+    long encode(int state) {
+        return state & this.mask;
+    }
+
+    // the state of the stored bits, signed widths are sign extended
+    int decode(long raw) {
+        if (!this.signed) return (int) raw;
+        return (int) ((raw << (64 - this.bits)) >> (64 - this.bits));
+    }
+}
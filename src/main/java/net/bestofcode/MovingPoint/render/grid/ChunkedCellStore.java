@@ -0,0 +1,644 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.ChunkedCellStore
+ * The ChunkedCellStore keeps only the parts of a grid which have been written,
+ * so maps far larger than the memory work as long as most of them is empty.
+ * The grid is split into chunks of 64*64 cells, found in a table keyed by
+ * their position. A chunk is allocated as a DenseCellStore by the first write
+ * into it, all other chunks share one immutable empty chunk.
+ * <p>
+ * compressColdChunks() stores the chunks which have not been written since its
+ * previous call as runs of equal states, e.g. once per second. Reading a
+ * compressed chunk costs a binary search, writing into it expands it again.
+ */
+public class ChunkedCellStore implements CellStore {
+
+    public static final int CHUNK_SIZE = 64;
+
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int columns;
+    private final int rows;
+    private final CellWidth cellWidth;
+    private final int emptyState;
+
+    // shared by every chunk which has never been written
+    private final Chunk emptyChunk;
+
+    // open addressing table of the written chunks, the key of a chunk packs its column and row
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Chunk[] chunks = new Chunk[INITIAL_CAPACITY];
+    private int numberOfChunks = 0;
+
+    // the chunk of the previous access, neighbouring cells are mostly in the same chunk
+    private long cachedKey = -1;
+    private Chunk cachedChunk;
+
+    /**
+     * Constructor for a ChunkedCellStore whose cells are all empty, -1 for
+     * signed cell widths and 0 for CellWidth.BIT
+     *
+     * @param columns   - number of cells per row, up to Integer.MAX_VALUE
+     * @param rows      - number of rows, up to Integer.MAX_VALUE
+     * @param cellWidth - number of bits of a cell
+     */
+    public ChunkedCellStore(int columns, int rows, CellWidth cellWidth) {
+
+        if (columns <= 0 || rows <= 0) throw new IllegalArgumentException("a grid needs at least one cell");
+        if (cellWidth == null) throw new IllegalArgumentException("cell width is null");
+
+        this.columns = columns;
+        this.rows = rows;
+        this.cellWidth = cellWidth;
+        this.emptyState = cellWidth.getEmptyState();
+        this.emptyChunk = Chunk.uniform(this.emptyState);
+    }
+
+    @Override
+    public int getColumns() {
+        return this.columns;
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public CellWidth getCellWidth() {
+        return this.cellWidth;
+    }
+
+    @Override
+    public int get(int column, int row) {
+        this.checkCell(column, row);
+        return this.chunkAt(column >>> CHUNK_SHIFT, row >>> CHUNK_SHIFT).get(column & CHUNK_MASK, row & CHUNK_MASK);
+    }
+
+    @Override
+    public void set(int column, int row, int state) {
+        this.checkCell(column, row);
+        this.checkState(state);
+        this.writableChunk(column >>> CHUNK_SHIFT, row >>> CHUNK_SHIFT).set(column & CHUNK_MASK, row & CHUNK_MASK, state);
+    }
+
+    @Override
+    public void fill(int column, int row, int columns, int rows, int state) {
+
+        DenseCellStore.checkRegion(this, column, row, columns, rows);
+        this.checkState(state);
+
+        if (columns == 0 || rows == 0) return;
+
+        // emptying the whole grid forgets all chunks
+        if (state == this.emptyState && columns == this.columns && rows == this.rows) {
+            this.clear();
+            return;
+        }
+
+        int lastColumn = column + columns - 1;
+        int lastRow = row + rows - 1;
+
+        for (int chunkRow = row >>> CHUNK_SHIFT; chunkRow <= lastRow >>> CHUNK_SHIFT; chunkRow++) {
+            for (int chunkColumn = column >>> CHUNK_SHIFT; chunkColumn <= lastColumn >>> CHUNK_SHIFT; chunkColumn++) {
+
+                int firstCellColumn = Math.max(column, chunkColumn << CHUNK_SHIFT) & CHUNK_MASK;
+                int lastCellColumn = Math.min(lastColumn, (chunkColumn << CHUNK_SHIFT) + CHUNK_MASK) & CHUNK_MASK;
+                int firstCellRow = Math.max(row, chunkRow << CHUNK_SHIFT) & CHUNK_MASK;
+                int lastCellRow = Math.min(lastRow, (chunkRow << CHUNK_SHIFT) + CHUNK_MASK) & CHUNK_MASK;
+
+                // a chunk which is covered completely becomes a single run
+                if (firstCellColumn == 0 && firstCellRow == 0 && lastCellColumn == CHUNK_MASK && lastCellRow == CHUNK_MASK) {
+                    this.replace(chunkColumn, chunkRow, state == this.emptyState ? this.emptyChunk : Chunk.uniform(state));
+                    continue;
+                }
+
+                if (this.chunkAt(chunkColumn, chunkRow).isUniform(state)) continue;
+
+                this.writableChunk(chunkColumn, chunkRow).cells.fill(firstCellColumn, firstCellRow,
+                        lastCellColumn - firstCellColumn + 1, lastCellRow - firstCellRow + 1, state);
+            }
+        }
+    }
+
+    @Override
+    public void copy(CellStore source, int sourceColumn, int sourceRow, int column, int row, int columns, int rows) {
+
+        if (source == null) throw new IllegalArgumentException("source is null");
+        DenseCellStore.checkRegion(source, sourceColumn, sourceRow, columns, rows);
+        DenseCellStore.checkRegion(this, column, row, columns, rows);
+
+        // overlapping regions of the same store are copied through a temporary store
+        if (source == this && sourceColumn < column + columns && column < sourceColumn + columns
+                && sourceRow < row + rows && row < sourceRow + rows) {
+            ChunkedCellStore copy = new ChunkedCellStore(columns, rows, this.cellWidth);
+            copy.copy(this, sourceColumn, sourceRow, 0, 0, columns, rows);
+            source = copy;
+            sourceColumn = 0;
+            sourceRow = 0;
+        }
+
+        if (columns == 0 || rows == 0) return;
+
+        ChunkedCellStore chunked = source instanceof ChunkedCellStore && source.getCellWidth() == this.cellWidth
+                ? (ChunkedCellStore) source : null;
+
+        int offsetColumn = column - sourceColumn;
+        int offsetRow = row - sourceRow;
+        int lastColumn = column + columns - 1;
+        int lastRow = row + rows - 1;
+
+        // chunk by chunk of the target, whole rows of longs are copied by the dense chunks
+        for (int chunkRow = row >>> CHUNK_SHIFT; chunkRow <= lastRow >>> CHUNK_SHIFT; chunkRow++) {
+            for (int chunkColumn = column >>> CHUNK_SHIFT; chunkColumn <= lastColumn >>> CHUNK_SHIFT; chunkColumn++) {
+
+                int firstCellColumn = Math.max(column, chunkColumn << CHUNK_SHIFT);
+                int lastCellColumn = Math.min(lastColumn, (chunkColumn << CHUNK_SHIFT) + CHUNK_MASK);
+                int firstCellRow = Math.max(row, chunkRow << CHUNK_SHIFT);
+                int lastCellRow = Math.min(lastRow, (chunkRow << CHUNK_SHIFT) + CHUNK_MASK);
+
+                if (chunked == null) {
+                    this.copyIntoChunk(source, chunkColumn, chunkRow, firstCellColumn - offsetColumn, firstCellRow - offsetRow,
+                            firstCellColumn, firstCellRow, lastCellColumn - firstCellColumn + 1, lastCellRow - firstCellRow + 1);
+                    continue;
+                }
+
+                // a whole chunk which lines up with a chunk of the source takes it over
+                if (lastCellColumn - firstCellColumn == CHUNK_MASK && lastCellRow - firstCellRow == CHUNK_MASK
+                        && ((offsetColumn | offsetRow) & CHUNK_MASK) == 0) {
+                    this.copyChunk(chunked.chunkAt((firstCellColumn - offsetColumn) >>> CHUNK_SHIFT, (firstCellRow - offsetRow) >>> CHUNK_SHIFT),
+                            chunkColumn, chunkRow);
+                    continue;
+                }
+
+                // otherwise the part of the chunk is split where the chunks of the source end
+                for (int pieceRow = firstCellRow; pieceRow <= lastCellRow; ) {
+
+                    int sourcePieceRow = pieceRow - offsetRow;
+                    int pieceRows = Math.min(lastCellRow - pieceRow + 1, CHUNK_SIZE - (sourcePieceRow & CHUNK_MASK));
+
+                    for (int pieceColumn = firstCellColumn; pieceColumn <= lastCellColumn; ) {
+
+                        int sourcePieceColumn = pieceColumn - offsetColumn;
+                        int pieceColumns = Math.min(lastCellColumn - pieceColumn + 1, CHUNK_SIZE - (sourcePieceColumn & CHUNK_MASK));
+
+                        this.copyPiece(chunked.chunkAt(sourcePieceColumn >>> CHUNK_SHIFT, sourcePieceRow >>> CHUNK_SHIFT),
+                                sourcePieceColumn & CHUNK_MASK, sourcePieceRow & CHUNK_MASK, chunkColumn, chunkRow,
+                                pieceColumn & CHUNK_MASK, pieceRow & CHUNK_MASK, pieceColumns, pieceRows);
+
+                        pieceColumn += pieceColumns;
+                    }
+
+                    pieceRow += pieceRows;
+                }
+            }
+        }
+    }
+
+    // copies a region of any store into the chunk, an empty chunk only allocates cells for states which are not empty
+    private void copyIntoChunk(CellStore source, int chunkColumn, int chunkRow, int sourceColumn, int sourceRow,
+                               int column, int row, int columns, int rows) {
+
+        if (this.chunkAt(chunkColumn, chunkRow) != this.emptyChunk) {
+            this.writableChunk(chunkColumn, chunkRow).cells.copy(source, sourceColumn, sourceRow,
+                    column & CHUNK_MASK, row & CHUNK_MASK, columns, rows);
+            return;
+        }
+
+        final int offsetColumn = column - sourceColumn;
+        final int offsetRow = row - sourceRow;
+
+        source.forEachExcept(sourceColumn, sourceRow, columns, rows, this.emptyState,
+                (cellColumn, cellRow, state) -> this.set(cellColumn + offsetColumn, cellRow + offsetRow, state));
+    }
+
+    // replaces the chunk by a chunk of a store with the same cell width, compressed chunks are never changed and can be shared
+    private void copyChunk(Chunk source, int chunkColumn, int chunkRow) {
+
+        if (source.cells == null) {
+            this.replace(chunkColumn, chunkRow, source.isUniform(this.emptyState) ? this.emptyChunk : source);
+            return;
+        }
+
+        Chunk chunk = this.chunkAt(chunkColumn, chunkRow);
+        if (chunk.cells == null) {
+            chunk = Chunk.dense(this.cellWidth);
+            this.replace(chunkColumn, chunkRow, chunk);
+        }
+
+        chunk.cells.copy(source.cells, 0, 0, 0, 0, CHUNK_SIZE, CHUNK_SIZE);
+        chunk.written = true;
+    }
+
+    // copies a part of a source chunk into a part of the chunk, runs of the source are filled into it
+    private void copyPiece(Chunk source, int sourceColumn, int sourceRow, int chunkColumn, int chunkRow,
+                           int column, int row, int columns, int rows) {
+
+        if (source.cells != null) {
+            this.writableChunk(chunkColumn, chunkRow).cells.copy(source.cells, sourceColumn, sourceRow, column, row, columns, rows);
+            return;
+        }
+
+        if (source.runStates.length == 1) {
+            if (!this.chunkAt(chunkColumn, chunkRow).isUniform(source.runStates[0]))
+                this.writableChunk(chunkColumn, chunkRow).cells.fill(column, row, columns, rows, source.runStates[0]);
+            return;
+        }
+
+        DenseCellStore cells = this.writableChunk(chunkColumn, chunkRow).cells;
+
+        for (int i = 0; i < rows; i++) {
+
+            int index = (sourceRow + i) * CHUNK_SIZE + sourceColumn;
+            int end = index + columns;
+
+            for (int run = source.runOf(index); index < end; run++) {
+                int runEnd = Math.min(end, source.runEnds[run]);
+                cells.fill(column + (index & CHUNK_MASK) - sourceColumn, row + i, runEnd - index, 1, source.runStates[run]);
+                index = runEnd;
+            }
+        }
+    }
+
+    @Override
+    public void forEach(int column, int row, int columns, int rows, CellVisitor visitor) {
+
+        DenseCellStore.checkRegion(this, column, row, columns, rows);
+
+        if (columns == 0 || rows == 0) return;
+
+        int lastColumn = column + columns - 1;
+        int lastRow = row + rows - 1;
+
+        // row by row, every row walks through the chunks it crosses
+        for (int cellRow = row; cellRow <= lastRow; cellRow++) {
+            for (int chunkColumn = column >>> CHUNK_SHIFT; chunkColumn <= lastColumn >>> CHUNK_SHIFT; chunkColumn++) {
+
+                Chunk chunk = this.chunkAt(chunkColumn, cellRow >>> CHUNK_SHIFT);
+
+                int first = Math.max(column, chunkColumn << CHUNK_SHIFT);
+                int last = Math.min(lastColumn, (chunkColumn << CHUNK_SHIFT) + CHUNK_MASK);
+
+                chunk.forEachInRow(cellRow & CHUNK_MASK, first & CHUNK_MASK, last & CHUNK_MASK, chunkColumn << CHUNK_SHIFT, cellRow, visitor);
+            }
+        }
+    }
+
+    @Override
+    public void forEachExcept(int column, int row, int columns, int rows, int skippedState, CellVisitor visitor) {
+
+        DenseCellStore.checkRegion(this, column, row, columns, rows);
+
+        if (columns == 0 || rows == 0) return;
+
+        int lastColumn = column + columns - 1;
+        int lastRow = row + rows - 1;
+        long chunksOfRegion = (long) ((lastColumn >>> CHUNK_SHIFT) - (column >>> CHUNK_SHIFT) + 1) * ((lastRow >>> CHUNK_SHIFT) - (row >>> CHUNK_SHIFT) + 1);
+
+        // a large region is found in the table of the written chunks, the other chunks are empty
+        if (skippedState == this.emptyState && chunksOfRegion > this.chunks.length) {
+            for (int slot = 0; slot < this.chunks.length; slot++) {
+                if (this.chunks[slot] == null) continue;
+                int chunkColumn = (int) (this.keys[slot] >>> 32);
+                int chunkRow = (int) this.keys[slot];
+                if (chunkColumn >= column >>> CHUNK_SHIFT && chunkColumn <= lastColumn >>> CHUNK_SHIFT
+                        && chunkRow >= row >>> CHUNK_SHIFT && chunkRow <= lastRow >>> CHUNK_SHIFT)
+                    this.forEachInChunkExcept(this.chunks[slot], chunkColumn, chunkRow, column, row, lastColumn, lastRow, skippedState, visitor);
+            }
+            return;
+        }
+
+        for (int chunkRow = row >>> CHUNK_SHIFT; chunkRow <= lastRow >>> CHUNK_SHIFT; chunkRow++)
+            for (int chunkColumn = column >>> CHUNK_SHIFT; chunkColumn <= lastColumn >>> CHUNK_SHIFT; chunkColumn++)
+                this.forEachInChunkExcept(this.chunkAt(chunkColumn, chunkRow), chunkColumn, chunkRow, column, row, lastColumn, lastRow, skippedState, visitor);
+    }
+
+    // visits the cells of the chunk inside of the region, a chunk which only contains the skipped state is never walked through
+    private void forEachInChunkExcept(Chunk chunk, int chunkColumn, int chunkRow, int column, int row, int lastColumn, int lastRow,
+                                      int skippedState, CellVisitor visitor) {
+
+        if (chunk.isUniform(skippedState)) return;
+
+        int first = Math.max(column, chunkColumn << CHUNK_SHIFT);
+        int last = Math.min(lastColumn, (chunkColumn << CHUNK_SHIFT) + CHUNK_MASK);
+        int firstRow = Math.max(row, chunkRow << CHUNK_SHIFT);
+        int lastRowOfChunk = Math.min(lastRow, (chunkRow << CHUNK_SHIFT) + CHUNK_MASK);
+
+        for (int cellRow = firstRow; cellRow <= lastRowOfChunk; cellRow++)
+            chunk.forEachInRowExcept(cellRow & CHUNK_MASK, first & CHUNK_MASK, last & CHUNK_MASK, chunkColumn << CHUNK_SHIFT, cellRow, skippedState, visitor);
+    }
+
+    /**
+     * compressColdChunks
+     * Stores every chunk which has not been written since the previous call
+     * as runs of equal states, if that needs less memory. Chunks whose cells
+     * are all empty are replaced by the shared empty chunk.
+     *
+     * @return the number of compressed chunks
+     */
+    public int compressColdChunks() {
+
+        int compressed = 0;
+
+        for (int i = 0; i < this.chunks.length; i++) {
+
+            Chunk chunk = this.chunks[i];
+            if (chunk == null || chunk.cells == null) continue;
+
+            if (chunk.written) {
+                chunk.written = false;
+                continue;
+            }
+
+            Chunk runs = Chunk.compress(chunk.cells);
+            if (runs.isUniform(this.emptyState)) runs = this.emptyChunk;
+
+            if (runs == this.emptyChunk || runs.getSizeInBytes() < chunk.getSizeInBytes()) {
+                this.chunks[i] = runs;
+                compressed++;
+            }
+        }
+
+        this.cachedKey = -1;
+        this.cachedChunk = null;
+
+        return compressed;
+    }
+
+    /**
+     * clear
+     * Empties all cells and releases all chunks.
+     */
+    public void clear() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.chunks = new Chunk[INITIAL_CAPACITY];
+        this.numberOfChunks = 0;
+        this.cachedKey = -1;
+        this.cachedChunk = null;
+    }
+
+    /**
+     * getNumberOfChunks
+     * Returns the number of chunks which have been written, dense or compressed.
+     */
+    public int getNumberOfChunks() {
+        int written = 0;
+        for (Chunk chunk : this.chunks)
+            if (chunk != null && chunk != this.emptyChunk) written++;
+        return written;
+    }
+
+    /**
+     * getSizeInBytes
+     * Returns the memory of the states of all written chunks.
+     */
+    public long getSizeInBytes() {
+        long size = 0;
+        for (Chunk chunk : this.chunks)
+            if (chunk != null && chunk != this.emptyChunk) size += chunk.getSizeInBytes();
+        return size;
+    }
+
+    private static long key(int chunkColumn, int chunkRow) {
+        return ((long) chunkColumn << 32) | (chunkRow & 0xffffffffL);
+    }
+
+    // the chunk at the position, the empty chunk if it has never been written
+    private Chunk chunkAt(int chunkColumn, int chunkRow) {
+
+        long key = key(chunkColumn, chunkRow);
+        if (key == this.cachedKey) return this.cachedChunk;
+
+        Chunk chunk = this.chunks[this.slotOf(key)];
+        if (chunk == null) chunk = this.emptyChunk;
+
+        this.cachedKey = key;
+        this.cachedChunk = chunk;
+
+        return chunk;
+    }
+
+    // the dense chunk at the position, expanded or allocated if necessary
+    private Chunk writableChunk(int chunkColumn, int chunkRow) {
+
+        Chunk chunk = this.chunkAt(chunkColumn, chunkRow);
+
+        if (chunk.cells == null) {
+            chunk = chunk.expand(this.cellWidth);
+            this.replace(chunkColumn, chunkRow, chunk);
+        }
+
+        chunk.written = true;
+        return chunk;
+    }
+
+    private void replace(int chunkColumn, int chunkRow, Chunk chunk) {
+
+        long key = key(chunkColumn, chunkRow);
+        int slot = this.slotOf(key);
+
+        if (this.chunks[slot] == null) {
+
+            // the empty chunk needs no slot as long as it has none
+            if (chunk == this.emptyChunk) return;
+
+            // released chunks keep their slot, so the probe sequences of the table never break
+            if (2 * (this.numberOfChunks + 1) > this.keys.length) {
+                this.grow();
+                slot = this.slotOf(key);
+            }
+
+            this.keys[slot] = key;
+            this.numberOfChunks++;
+        }
+
+        this.chunks[slot] = chunk;
+        this.cachedKey = key;
+        this.cachedChunk = chunk;
+    }
+
+    // the slot of the chunk with the key, or the empty slot where it belongs
+    private int slotOf(long key) {
+
+        int mask = this.keys.length - 1;
+        long hash = key * 0x9e3779b97f4a7c15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (this.chunks[slot] != null && this.keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    private void grow() {
+
+        long[] oldKeys = this.keys;
+        Chunk[] oldChunks = this.chunks;
+
+        this.keys = new long[2 * oldKeys.length];
+        this.chunks = new Chunk[2 * oldChunks.length];
+
+        for (int i = 0; i < oldChunks.length; i++) {
+            if (oldChunks[i] == null) continue;
+            int slot = this.slotOf(oldKeys[i]);
+            this.keys[slot] = oldKeys[i];
+            this.chunks[slot] = oldChunks[i];
+        }
+    }
+
+    private void checkCell(int column, int row) {
+        if (column < 0 || row < 0 || column >= this.columns || row >= this.rows)
+            throw new IllegalArgumentException("cell (" + column + ", " + row + ") is outside of the grid");
+    }
+
+    private void checkState(int state) {
+        if (!this.cellWidth.fits(state))
+            throw new IllegalArgumentException("state " + state + " does not fit into a cell of " + this.cellWidth);
+    }
+
+    // a chunk is either dense or compressed into runs, compressed chunks are never changed
+    private static final class Chunk {
+
+        private static final int CELLS = CHUNK_SIZE * CHUNK_SIZE;
+
+        private DenseCellStore cells;
+
+        // index after the last cell of every run and its state, the cells are numbered row by row
+        private char[] runEnds;
+        private int[] runStates;
+
+        // written since the last compressColdChunks()
+        private boolean written;
+
+        private static Chunk uniform(int state) {
+            Chunk chunk = new Chunk();
+            chunk.runEnds = new char[]{(char) CELLS};
+            chunk.runStates = new int[]{state};
+            return chunk;
+        }
+
+        private static Chunk compress(DenseCellStore cells) {
+
+            int[] states = new int[CELLS];
+            cells.forEach(0, 0, CHUNK_SIZE, CHUNK_SIZE, (column, row, state) -> states[row * CHUNK_SIZE + column] = state);
+
+            int numberOfRuns = 1;
+            for (int i = 1; i < CELLS; i++)
+                if (states[i] != states[i - 1]) numberOfRuns++;
+
+            Chunk chunk = new Chunk();
+            chunk.runEnds = new char[numberOfRuns];
+            chunk.runStates = new int[numberOfRuns];
+
+            int run = 0;
+            for (int i = 1; i <= CELLS; i++) {
+                if (i == CELLS || states[i] != states[i - 1]) {
+                    chunk.runEnds[run] = (char) i;
+                    chunk.runStates[run] = states[i - 1];
+                    run++;
+                }
+            }
+
+            return chunk;
+        }
+
+        private static Chunk dense(CellWidth cellWidth) {
+            Chunk chunk = new Chunk();
+            chunk.cells = new DenseCellStore(CHUNK_SIZE, CHUNK_SIZE, cellWidth);
+            return chunk;
+        }
+
+        private Chunk expand(CellWidth cellWidth) {
+
+            Chunk chunk = dense(cellWidth);
+
+            int start = 0;
+            for (int run = 0; run < this.runEnds.length; run++) {
+                int end = this.runEnds[run];
+                // a run is a sequence of whole and partial rows
+                while (start < end) {
+                    int row = start >>> CHUNK_SHIFT;
+                    int column = start & CHUNK_MASK;
+                    int length = Math.min(end - start, CHUNK_SIZE - column);
+                    chunk.cells.fill(column, row, length, 1, this.runStates[run]);
+                    start += length;
+                }
+            }
+
+            return chunk;
+        }
+
+        private boolean isUniform(int state) {
+            return this.cells == null && this.runStates.length == 1 && this.runStates[0] == state;
+        }
+
+        private int get(int column, int row) {
+            if (this.cells != null) return this.cells.get(column, row);
+            return this.runStates[this.runOf(row * CHUNK_SIZE + column)];
+        }
+
+        private void set(int column, int row, int state) {
+            this.cells.set(column, row, state);
+        }
+
+        private void forEachInRow(int row, int firstColumn, int lastColumn, int chunkOffset, int cellRow, CellVisitor visitor) {
+
+            if (this.cells != null) {
+                this.cells.forEach(firstColumn, row, lastColumn - firstColumn + 1, 1,
+                        (column, ignored, state) -> visitor.visit(chunkOffset + column, cellRow, state));
+                return;
+            }
+
+            int index = row * CHUNK_SIZE + firstColumn;
+            int run = this.runOf(index);
+
+            for (int column = firstColumn; column <= lastColumn; column++, index++) {
+                if (index >= this.runEnds[run]) run++;
+                visitor.visit(chunkOffset + column, cellRow, this.runStates[run]);
+            }
+        }
+
+        private void forEachInRowExcept(int row, int firstColumn, int lastColumn, int chunkOffset, int cellRow, int skippedState, CellVisitor visitor) {
+
+            if (this.cells != null) {
+                this.cells.forEachExcept(firstColumn, row, lastColumn - firstColumn + 1, 1, skippedState,
+                        (column, ignored, state) -> visitor.visit(chunkOffset + column, cellRow, state));
+                return;
+            }
+
+            // runs of the skipped state are jumped over as a whole
+            int index = row * CHUNK_SIZE + firstColumn;
+            int end = row * CHUNK_SIZE + lastColumn + 1;
+
+            for (int run = this.runOf(index); index < end; run++) {
+                int runEnd = Math.min(end, this.runEnds[run]);
+                if (this.runStates[run] == skippedState) {
+                    index = runEnd;
+                    continue;
+                }
+                for (; index < runEnd; index++)
+                    visitor.visit(chunkOffset + (index & CHUNK_MASK), cellRow, this.runStates[run]);
+            }
+        }
+
+        // the first run which ends after the index
+        private int runOf(int index) {
+            int low = 0;
+            int high = this.runEnds.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (this.runEnds[middle] <= index) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        private long getSizeInBytes() {
+            if (this.cells != null) return this.cells.getSizeInBytes();
+            return 6L * this.runEnds.length;
+        }
+    }
+}
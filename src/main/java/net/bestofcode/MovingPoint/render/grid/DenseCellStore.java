@@ -0,0 +1,247 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+import java.util.Arrays;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.DenseCellStore
+ * The DenseCellStore keeps the states of all cells in a single array, row by
+ * row, so neighbouring cells of a row are neighbours in memory. The cells are
+ * packed into longs with the bits of their CellWidth, a cell never spans two
+ * longs. Filling and copying rows moves whole longs at once wherever the
+ * cells line up.
+ */
+public class DenseCellStore implements CellStore {
+
+    private final int columns;
+    private final int rows;
+    private final CellWidth cellWidth;
+
+    // bits per cell is a power of two, so the position of a cell is found by shifts
+    private final int bitShift;
+    private final int wordShift;
+    private final int cellsPerWordMask;
+    private final long mask;
+
+    private final long[] words;
+
+    /**
+     * Constructor for a DenseCellStore whose cells are all 0
+     *
+     * @param columns   - number of cells per row
+     * @param rows      - number of rows
+     * @param cellWidth - number of bits of a cell
+     */
+    public DenseCellStore(int columns, int rows, CellWidth cellWidth) {
+
+        if (columns <= 0 || rows <= 0) throw new IllegalArgumentException("a grid needs at least one cell");
+        if (cellWidth == null) throw new IllegalArgumentException("cell width is null");
+        if ((long) columns * rows > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("grid of " + columns + "*" + rows + " cells is too large to be stored dense");
+
+        this.columns = columns;
+        this.rows = rows;
+        this.cellWidth = cellWidth;
+        this.bitShift = Integer.numberOfTrailingZeros(cellWidth.getBits());
+        this.wordShift = 6 - this.bitShift;
+        this.cellsPerWordMask = (1 << this.wordShift) - 1;
+        this.mask = (1L << cellWidth.getBits()) - 1;
+        this.words = new long[(int) (((long) columns * rows + this.cellsPerWordMask) >>> this.wordShift)];
+    }
+
+    @Override
+    public int getColumns() {
+        return this.columns;
+    }
+
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public CellWidth getCellWidth() {
+        return this.cellWidth;
+    }
+
+    @Override
+    public int get(int column, int row) {
+        this.checkCell(column, row);
+        return this.cellWidth.decode(this.getRaw(row * this.columns + column));
+    }
+
+    @Override
+    public void set(int column, int row, int state) {
+        this.checkCell(column, row);
+        this.checkState(state);
+        this.setRaw(row * this.columns + column, this.cellWidth.encode(state));
+    }
+
+    /**
+     * fill
+     * Replaces the states of all cells by the state.
+     */
+    public void fill(int state) {
+        this.fill(0, 0, this.columns, this.rows, state);
+    }
+
+    @Override
+    public void fill(int column, int row, int columns, int rows, int state) {
+
+        this.checkRegion(column, row, columns, rows);
+        this.checkState(state);
+
+        long raw = this.cellWidth.encode(state);
+
+        // whole rows are one range of the array
+        if (column == 0 && columns == this.columns) {
+            this.fillRange(row * this.columns, columns * rows, raw);
+            return;
+        }
+
+        for (int i = 0; i < rows; i++)
+            this.fillRange((row + i) * this.columns + column, columns, raw);
+    }
+
+    @Override
+    public void copy(CellStore source, int sourceColumn, int sourceRow, int column, int row, int columns, int rows) {
+
+        if (source == null) throw new IllegalArgumentException("source is null");
+        checkRegion(source, sourceColumn, sourceRow, columns, rows);
+        this.checkRegion(column, row, columns, rows);
+
+        // overlapping regions of the same store are copied through a temporary store
+        if (source == this && sourceColumn < column + columns && column < sourceColumn + columns
+                && sourceRow < row + rows && row < sourceRow + rows) {
+            DenseCellStore copy = new DenseCellStore(columns, rows, this.cellWidth);
+            copy.copy(this, sourceColumn, sourceRow, 0, 0, columns, rows);
+            source = copy;
+            sourceColumn = 0;
+            sourceRow = 0;
+        }
+
+        if (source instanceof DenseCellStore && source.getCellWidth() == this.cellWidth) {
+            DenseCellStore dense = (DenseCellStore) source;
+            for (int i = 0; i < rows; i++)
+                this.copyRange(dense, (sourceRow + i) * dense.columns + sourceColumn, (row + i) * this.columns + column, columns);
+            return;
+        }
+
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < columns; j++)
+                this.set(column + j, row + i, source.get(sourceColumn + j, sourceRow + i));
+    }
+
+    @Override
+    public void forEach(int column, int row, int columns, int rows, CellVisitor visitor) {
+
+        this.checkRegion(column, row, columns, rows);
+
+        for (int i = row; i < row + rows; i++) {
+            int index = i * this.columns + column;
+            for (int j = column; j < column + columns; j++)
+                visitor.visit(j, i, this.cellWidth.decode(this.getRaw(index++)));
+        }
+    }
+
+    @Override
+    public void forEachExcept(int column, int row, int columns, int rows, int skippedState, CellVisitor visitor) {
+
+        this.checkRegion(column, row, columns, rows);
+
+        for (int i = row; i < row + rows; i++) {
+            int index = i * this.columns + column;
+            for (int j = column; j < column + columns; j++) {
+                int state = this.cellWidth.decode(this.getRaw(index++));
+                if (state != skippedState) visitor.visit(j, i, state);
+            }
+        }
+    }
+
+    /**
+     * getSizeInBytes
+     * Returns the memory of the states of the cells.
+     */
+    public long getSizeInBytes() {
+        return 8L * this.words.length;
+    }
+
+    private long getRaw(int index) {
+        return (this.words[index >>> this.wordShift] >>> ((index & this.cellsPerWordMask) << this.bitShift)) & this.mask;
+    }
+
+    private void setRaw(int index, long raw) {
+        int word = index >>> this.wordShift;
+        int shift = (index & this.cellsPerWordMask) << this.bitShift;
+        this.words[word] = (this.words[word] & ~(this.mask << shift)) | (raw << shift);
+    }
+
+    // fills count cells from index on, the longs in the middle of the range at once
+    private void fillRange(int index, int count, long raw) {
+
+        int end = index + count;
+
+        while (index < end && (index & this.cellsPerWordMask) != 0)
+            this.setRaw(index++, raw);
+
+        int firstWord = index >>> this.wordShift;
+        int lastWord = end >>> this.wordShift;
+
+        if (lastWord > firstWord) {
+            Arrays.fill(this.words, firstWord, lastWord, this.repeat(raw));
+            index = lastWord << this.wordShift;
+        }
+
+        while (index < end)
+            this.setRaw(index++, raw);
+    }
+
+    // copies count cells, whole longs at once if the cells have the same position inside of their longs
+    private void copyRange(DenseCellStore source, int sourceIndex, int index, int count) {
+
+        if (((sourceIndex ^ index) & this.cellsPerWordMask) == 0) {
+
+            while (count > 0 && (index & this.cellsPerWordMask) != 0) {
+                this.setRaw(index++, source.getRaw(sourceIndex++));
+                count--;
+            }
+
+            int words = count >>> this.wordShift;
+            System.arraycopy(source.words, sourceIndex >>> this.wordShift, this.words, index >>> this.wordShift, words);
+
+            sourceIndex += words << this.wordShift;
+            index += words << this.wordShift;
+            count -= words << this.wordShift;
+        }
+
+        while (count-- > 0)
+            this.setRaw(index++, source.getRaw(sourceIndex++));
+    }
+
+    // a long whose cells all hold the raw state
+    private long repeat(long raw) {
+        long pattern = raw;
+        for (int bits = this.cellWidth.getBits(); bits < 64; bits <<= 1)
+            pattern |= pattern << bits;
+        return pattern;
+    }
+
+    private void checkCell(int column, int row) {
+        if (column < 0 || row < 0 || column >= this.columns || row >= this.rows)
+            throw new IllegalArgumentException("cell (" + column + ", " + row + ") is outside of the grid");
+    }
+
+    private void checkState(int state) {
+        if (!this.cellWidth.fits(state))
+            throw new IllegalArgumentException("state " + state + " does not fit into a cell of " + this.cellWidth);
+    }
+
+    private void checkRegion(int column, int row, int columns, int rows) {
+        checkRegion(this, column, row, columns, rows);
+    }
+
+    static void checkRegion(CellStore store, int column, int row, int columns, int rows) {
+        if (columns < 0 || rows < 0 || column < 0 || row < 0
+                || (long) column + columns > store.getColumns() || (long) row + rows > store.getRows())
+            throw new IllegalArgumentException("region of " + columns + "*" + rows + " cells at (" + column + ", " + row + ") is outside of the grid");
+    }
+}
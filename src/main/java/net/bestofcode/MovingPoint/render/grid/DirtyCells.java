@@ -0,0 +1,157 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+import java.util.Arrays;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.DirtyCells
+ * DirtyCells remembers which cells of a grid have been written since they were
+ * drawn the last time. Every tile of 64*64 cells which contains a written cell
+ * has a bitset with one long per row, so marking a cell is a single or and
+ * visiting the marked cells skips the unmarked ones 64 at a time. Regions too
+ * large to be tracked cell by cell mark the whole grid instead.
+ */
+final class DirtyCells {
+
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // a larger region is cheaper to repaint completely than to track
+    private static final long MAXIMUM_TRACKED_REGION = 1 << 16;
+
+    // open addressing table of the tiles with marked cells, the key of a tile packs its column and row
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[][] tiles = new long[INITIAL_CAPACITY][];
+    private int numberOfTiles = 0;
+
+    private boolean all = false;
+
+    void mark(int column, int row) {
+        if (this.all) return;
+        this.tileFor(column >>> TILE_SHIFT, row >>> TILE_SHIFT)[row & TILE_MASK] |= 1L << (column & TILE_MASK);
+    }
+
+    void markRegion(int column, int row, int columns, int rows) {
+
+        if (this.all || columns <= 0 || rows <= 0) return;
+
+        if ((long) columns * rows > MAXIMUM_TRACKED_REGION) {
+            this.markAll();
+            return;
+        }
+
+        int lastColumn = column + columns - 1;
+
+        for (int cellRow = row; cellRow < row + rows; cellRow++) {
+            for (int tileColumn = column >>> TILE_SHIFT; tileColumn <= lastColumn >>> TILE_SHIFT; tileColumn++) {
+
+                int first = Math.max(column, tileColumn << TILE_SHIFT) & TILE_MASK;
+                int last = Math.min(lastColumn, (tileColumn << TILE_SHIFT) + TILE_MASK) & TILE_MASK;
+
+                // bits first to last of the row of the tile
+                long bits = (-1L >>> (TILE_MASK - last)) & (-1L << first);
+                this.tileFor(tileColumn, cellRow >>> TILE_SHIFT)[cellRow & TILE_MASK] |= bits;
+            }
+        }
+    }
+
+    void markAll() {
+        this.all = true;
+    }
+
+    boolean isAll() {
+        return this.all;
+    }
+
+    boolean isEmpty() {
+        return !this.all && this.numberOfTiles == 0;
+    }
+
+    /**
+     * Calls the visitor with the current state of every marked cell, tile by tile.
+     *
+     * @return the number of visited cells
+     */
+    int forEach(CellStore cells, CellVisitor visitor) {
+
+        int visited = 0;
+
+        for (int slot = 0; slot < this.tiles.length; slot++) {
+
+            long[] tile = this.tiles[slot];
+            if (tile == null) continue;
+
+            int tileColumn = (int) (this.keys[slot] >>> 32) << TILE_SHIFT;
+            int tileRow = (int) this.keys[slot] << TILE_SHIFT;
+
+            for (int row = 0; row < TILE_SIZE; row++) {
+                long bits = tile[row];
+                while (bits != 0) {
+                    int column = tileColumn + Long.numberOfTrailingZeros(bits);
+                    visitor.visit(column, tileRow + row, cells.get(column, tileRow + row));
+                    bits &= bits - 1;
+                    visited++;
+                }
+            }
+        }
+
+        return visited;
+    }
+
+    void clear() {
+        if (this.numberOfTiles > 0) {
+            Arrays.fill(this.tiles, null);
+            this.numberOfTiles = 0;
+        }
+        this.all = false;
+    }
+
+    private long[] tileFor(int tileColumn, int tileRow) {
+
+        long key = ((long) tileColumn << 32) | (tileRow & 0xffffffffL);
+        int slot = this.slotOf(key);
+
+        if (this.tiles[slot] != null) return this.tiles[slot];
+
+        if (2 * (this.numberOfTiles + 1) > this.keys.length) {
+            this.grow();
+            slot = this.slotOf(key);
+        }
+
+        this.keys[slot] = key;
+        this.tiles[slot] = new long[TILE_SIZE];
+        this.numberOfTiles++;
+
+        return this.tiles[slot];
+    }
+
+    // the slot of the tile with the key, or the empty slot where it belongs
+    private int slotOf(long key) {
+
+        int mask = this.keys.length - 1;
+        long hash = key * 0x9e3779b97f4a7c15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (this.tiles[slot] != null && this.keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    private void grow() {
+
+        long[] oldKeys = this.keys;
+        long[][] oldTiles = this.tiles;
+
+        this.keys = new long[2 * oldKeys.length];
+        this.tiles = new long[2 * oldTiles.length][];
+
+        for (int i = 0; i < oldTiles.length; i++) {
+            if (oldTiles[i] == null) continue;
+            int slot = this.slotOf(oldKeys[i]);
+            this.keys[slot] = oldKeys[i];
+            this.tiles[slot] = oldTiles[i];
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package net.bestofcode.MovingPoint.render.grid;
 
-import net.bestofcode.MovingPoint.annotations.Refactor;
 import net.bestofcode.MovingPoint.render.gamewindow.GameWindowConfiguration;
 
 public class Grid {
@@ -9,24 +8,245 @@ public class Grid {
     private GameWindowConfiguration gameWindowConfiguration;
 
     // values used for grid calculation
-    public double coordinateAxisRange = Math.abs(this.gameWindowConfiguration.getMaximumValueOnXAxis() - this.gameWindowConfiguration.getMinimumValueOnXAxis());
+    public double coordinateAxisRange;
 
-    /* array which stores information about the state of all statesOfAllGridCells in the grid */
-    public int[][] statesOfAllGridCells;
-    @Refactor
-    /* array which stores information about each cell's coordinates */
-    public double[][][] gridCellCenterCoordinates;
+    /* states of all cells, -1 marks an empty cell */
+    private final CellStore cells;
+    /* cells written since the GridLayer painted them, only tracked once a GridLayer draws the grid */
+    private final DirtyCells dirtyCells = new DirtyCells();
+    private boolean trackingDirtyCells = false;
+
+    /* center of the cell [0][0] and the distance between the centers of two neighbours, all other centers are computed */
+    private double firstCellCenterX;
+    private double firstCellCenterY;
+    private double cellCenterDistance;
+
+    /* offset of all cells, relative movement scrolls the grid by changing it instead of moving every cell */
+    private double scrollOffsetX = 0;
+    private double scrollOffsetY = 0;
 
     public Grid(Dimension dimension, GameWindowConfiguration gameWindowConfiguration) {
+        this(dimension, dense(dimension.getValue(), CellWidth.INT), gameWindowConfiguration);
+    }
+
+    Grid(Dimension dimension, CellStore cells, GameWindowConfiguration gameWindowConfiguration) {
         this.dimension = dimension;
+        this.cells = cells;
         this.gameWindowConfiguration = gameWindowConfiguration;
+        this.coordinateAxisRange = Math.abs(this.gameWindowConfiguration.getMaximumValueOnXAxis() - this.gameWindowConfiguration.getMinimumValueOnXAxis());
     }
 
     public static Grid create(int cellsPerRow, GameWindowConfiguration gameWindowConfiguration) {
         return new Grid(new Dimension(cellsPerRow), gameWindowConfiguration);
     }
 
+    /**
+     * create
+     * Creates a grid whose cells are stored with the given number of bits, e.g.
+     * CellWidth.BIT for walls or CellWidth.BYTE for a few kinds of terrain.
+     */
+    public static Grid create(int cellsPerRow, CellWidth cellWidth, GameWindowConfiguration gameWindowConfiguration) {
+        return new Grid(new Dimension(cellsPerRow), dense(cellsPerRow, cellWidth), gameWindowConfiguration);
+    }
+
+    /**
+     * createChunked
+     * Creates a grid which only stores the chunks of 64*64 cells which have been written, for maps which
+     * are mostly empty and too large to be stored dense. Reading and writing works the same as for every grid.
+     */
+    public static Grid createChunked(int cellsPerRow, CellWidth cellWidth, GameWindowConfiguration gameWindowConfiguration) {
+        return new Grid(new Dimension(cellsPerRow), new ChunkedCellStore(cellsPerRow, cellsPerRow, cellWidth), gameWindowConfiguration);
+    }
+
+    // a dense store whose cells are empty
+    private static DenseCellStore dense(int cellsPerRow, CellWidth cellWidth) {
+        DenseCellStore cells = new DenseCellStore(cellsPerRow, cellsPerRow, cellWidth);
+        cells.fill(cellWidth.getEmptyState());
+        return cells;
+    }
+
     public int getDimension() {
         return dimension.getValue();
     }
+
+    /**
+     * getCellStore
+     * Returns the store of the states. Writes into it directly are not seen by a GridLayer, call
+     * invalidateCells() afterwards.
+     */
+    public CellStore getCellStore() {
+        return this.cells;
+    }
+
+    public int getCell(int column, int row) {
+        return this.cells.get(column, row);
+    }
+
+    public void setCell(int column, int row, int state) {
+        this.cells.set(column, row, state);
+        if (this.trackingDirtyCells) this.dirtyCells.mark(column, row);
+    }
+
+    /**
+     * fillCells
+     * Sets the state of all cells.
+     */
+    public void fillCells(int state) {
+        this.fillCells(0, 0, this.cells.getColumns(), this.cells.getRows(), state);
+    }
+
+    /**
+     * fillCells
+     * Sets the state of all cells of the region of columns*rows cells whose upper left cell is [column][row].
+     */
+    public void fillCells(int column, int row, int columns, int rows, int state) {
+        this.cells.fill(column, row, columns, rows, state);
+        if (this.trackingDirtyCells) this.dirtyCells.markRegion(column, row, columns, rows);
+    }
+
+    /**
+     * copyCells
+     * Copies the states of a region of the source grid to [column][row] of this grid, e.g. to stamp a prefab
+     * room into a map. The source may be this grid.
+     */
+    public void copyCells(Grid source, int sourceColumn, int sourceRow, int column, int row, int columns, int rows) {
+        this.cells.copy(source.cells, sourceColumn, sourceRow, column, row, columns, rows);
+        if (this.trackingDirtyCells) this.dirtyCells.markRegion(column, row, columns, rows);
+    }
+
+    /**
+     * invalidateCells
+     * Lets a GridLayer paint all cells again, e.g. after the cell store was written directly.
+     */
+    public void invalidateCells() {
+        this.dirtyCells.markAll();
+    }
+
+    // called by a GridLayer, the grid is painted completely by its first draw()
+    void trackDirtyCells() {
+        this.trackingDirtyCells = true;
+    }
+
+    DirtyCells getDirtyCells() {
+        return this.dirtyCells;
+    }
+
+    /**
+     * forEachCell
+     * Calls the visitor for every cell of the region, row by row.
+     */
+    public void forEachCell(int column, int row, int columns, int rows, CellVisitor visitor) {
+        this.cells.forEach(column, row, columns, rows, visitor);
+    }
+
+    /**
+     * setCellCenters
+     * Places the cells: the cell [0][0] is centered at (firstCellCenterX, firstCellCenterY),
+     * the x-coordinate grows with the first index and the y-coordinate shrinks with the second one.
+     *
+     * @param cellCenterDistance - distance between the centers of two neighbouring cells
+     */
+    public void setCellCenters(double firstCellCenterX, double firstCellCenterY, double cellCenterDistance) {
+        this.firstCellCenterX = firstCellCenterX;
+        this.firstCellCenterY = firstCellCenterY;
+        this.cellCenterDistance = cellCenterDistance;
+        this.dirtyCells.markAll();
+    }
+
+    /**
+     * getCellCenterX
+     * Returns the x-coordinate of the center of all cells [column][...], including the scroll offset.
+     */
+    public double getCellCenterX(int column) {
+        return this.firstCellCenterX + column * this.cellCenterDistance + this.scrollOffsetX;
+    }
+
+    /**
+     * getCellCenterY
+     * Returns the y-coordinate of the center of all cells [...][row], including the scroll offset.
+     */
+    public double getCellCenterY(int row) {
+        return this.firstCellCenterY - row * this.cellCenterDistance + this.scrollOffsetY;
+    }
+
+    /**
+     * getColumn
+     * Returns the column of the cell which contains the x-coordinate, it is outside of the grid if the
+     * coordinate is.
+     */
+    public int getColumn(double x) {
+        return (int) Math.floor((x - this.firstCellCenterX - this.scrollOffsetX) / this.cellCenterDistance + 0.5);
+    }
+
+    /**
+     * getRow
+     * Returns the row of the cell which contains the y-coordinate, it is outside of the grid if the
+     * coordinate is.
+     */
+    public int getRow(double y) {
+        return (int) Math.floor((this.firstCellCenterY + this.scrollOffsetY - y) / this.cellCenterDistance + 0.5);
+    }
+
+    public boolean contains(int column, int row) {
+        return column >= 0 && row >= 0 && column < this.cells.getColumns() && row < this.cells.getRows();
+    }
+
+    /**
+     * paintLine
+     * Sets the state of every cell on the line from [column0][row0] to [column1][row1] (Bresenham), so a
+     * stroke has no gaps however far apart its ends are. Cells outside of the grid are skipped.
+     */
+    public void paintLine(int column0, int row0, int column1, int row1, int state) {
+
+        int dx = Math.abs(column1 - column0);
+        int dy = -Math.abs(row1 - row0);
+        int stepX = column0 < column1 ? 1 : -1;
+        int stepY = row0 < row1 ? 1 : -1;
+        int error = dx + dy;
+
+        int column = column0;
+        int row = row0;
+
+        while (true) {
+
+            if (this.contains(column, row))
+                this.setCell(column, row, state);
+
+            if (column == column1 && row == row1)
+                return;
+
+            int doubledError = 2 * error;
+
+            if (doubledError >= dy) {
+                error += dy;
+                column += stepX;
+            }
+            if (doubledError <= dx) {
+                error += dx;
+                row += stepY;
+            }
+        }
+    }
+
+    /**
+     * scroll
+     * Moves all cells by (dx, dy), this takes the same time for every size of the grid. A GridLayer
+     * shifts its image and paints only the cells which came into view.
+     */
+    public void scroll(double dx, double dy) {
+        this.scrollOffsetX += dx;
+        this.scrollOffsetY += dy;
+    }
+
+    public double getScrollOffsetX() {
+        return this.scrollOffsetX;
+    }
+
+    public double getScrollOffsetY() {
+        return this.scrollOffsetY;
+    }
+
+    public double getCellCenterDistance() {
+        return this.cellCenterDistance;
+    }
 }
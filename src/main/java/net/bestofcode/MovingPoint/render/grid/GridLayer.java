@@ -0,0 +1,277 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+import net.bestofcode.MovingPoint.render.GraphicalComponent;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.GridLayer
+ * The GridLayer draws the states of the cells of a grid from an image of the
+ * size of the canvas which is kept between frames. Only the cells which have
+ * been written since the previous frame are painted again, straight into the
+ * pixels of the image, so a frame costs as much as the number of changed
+ * cells and a single blit. Scrolling the grid shifts the pixels of the image
+ * by whole pixels and paints only the cells which came into view, so the
+ * cells may be drawn up to a pixel away from where a complete repaint puts
+ * them. All visible cells are painted again if the canvas size, scale or
+ * camera changed.
+ * <p>
+ * The cells are filled without antialiasing, so neighbouring cells meet
+ * without seams. Like the dirty rectangles, the cells ignore the rotation of
+ * the camera. Every grid should be drawn by a single GridLayer, since a layer
+ * takes the changed cells from the grid.
+ */
+public class GridLayer {
+
+    private final Grid grid;
+    private CellColouring colouring;
+
+    private BufferedImage image;
+    private int[] pixels;
+    private int width;
+    private int height;
+
+    private boolean valid = false;
+    // transform version of the GraphicalComponent the image was painted for
+    private long transformVersion;
+
+    // scroll offset of the grid when all cells were painted, and the pixels the image was shifted by since
+    private double paintedScrollOffsetX;
+    private double paintedScrollOffsetY;
+    private int shiftX;
+    private int shiftY;
+
+    private int paintedCells = 0;
+
+    /**
+     * Constructor for a GridLayer
+     *
+     * @param grid      - the grid whose cells are drawn
+     * @param colouring - decides the color of a cell by its state
+     */
+    public GridLayer(Grid grid, CellColouring colouring) {
+        if (grid == null) throw new IllegalArgumentException("grid layer needs a grid");
+        this.grid = grid;
+        this.grid.trackDirtyCells();
+        this.setColouring(colouring);
+    }
+
+    /**
+     * setColouring
+     * Replaces the colors of the states, all cells are painted again by the next draw().
+     */
+    public void setColouring(CellColouring colouring) {
+        if (colouring == null) throw new IllegalArgumentException("grid layer needs a colouring");
+        this.colouring = colouring;
+        this.invalidate();
+    }
+
+    /**
+     * invalidate
+     * Paints all visible cells again the next time the layer is drawn.
+     */
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * render
+     * Returns the image of the cells, the changed cells are painted first.
+     *
+     * @param graphicalComponent - the component the layer is drawn onto
+     * @return the image of the layer
+     */
+    public BufferedImage render(GraphicalComponent graphicalComponent) {
+
+        DirtyCells dirtyCells = this.grid.getDirtyCells();
+
+        boolean repaint = !this.valid || dirtyCells.isAll()
+                || this.transformVersion != graphicalComponent.getTransformVersion()
+                || this.width != graphicalComponent.getCanvasWidth() || this.height != graphicalComponent.getCanvasHeight();
+
+        int scrollX = 0;
+        int scrollY = 0;
+
+        if (!repaint) {
+            // whole pixels the grid moved since the image was shifted the last time
+            scrollX = (int) Math.round(graphicalComponent.toPixelX(this.grid.getScrollOffsetX()) - graphicalComponent.toPixelX(this.paintedScrollOffsetX)) - this.shiftX;
+            scrollY = (int) Math.round(graphicalComponent.toPixelY(this.grid.getScrollOffsetY()) - graphicalComponent.toPixelY(this.paintedScrollOffsetY)) - this.shiftY;
+            repaint = Math.abs(scrollX) >= this.width || Math.abs(scrollY) >= this.height;
+        }
+
+        this.paintedCells = 0;
+
+        if (!repaint && scrollX == 0 && scrollY == 0 && dirtyCells.isEmpty())
+            return this.image;
+
+        // frames which are still rasterized may draw the image
+        graphicalComponent.finishRendering();
+
+        if (repaint) {
+            this.allocate(graphicalComponent.getCanvasWidth(), graphicalComponent.getCanvasHeight());
+            this.paintedScrollOffsetX = this.grid.getScrollOffsetX();
+            this.paintedScrollOffsetY = this.grid.getScrollOffsetY();
+            this.shiftX = 0;
+            this.shiftY = 0;
+            this.paintCells(graphicalComponent, 0, 0, this.width, this.height);
+        } else {
+            if (scrollX != 0 || scrollY != 0)
+                this.shift(graphicalComponent, scrollX, scrollY);
+            this.paintedCells += dirtyCells.forEach(this.grid.getCellStore(),
+                    (column, row, state) -> this.paintCell(graphicalComponent, column, row, state));
+        }
+
+        dirtyCells.clear();
+
+        this.transformVersion = graphicalComponent.getTransformVersion();
+        this.valid = true;
+
+        return this.image;
+    }
+
+    /**
+     * draw
+     * Draws the cells onto the canvas with a single blit.
+     */
+    public void draw(GraphicalComponent graphicalComponent) {
+        graphicalComponent.composite(this.render(graphicalComponent));
+    }
+
+    /**
+     * getPaintedCells
+     * Returns the number of cells which were painted by the last draw().
+     */
+    public int getPaintedCells() {
+        return this.paintedCells;
+    }
+
+    private void allocate(int width, int height) {
+
+        if (this.image == null || this.width != width || this.height != height) {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+            this.pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+            this.width = width;
+            this.height = height;
+        } else {
+            Arrays.fill(this.pixels, 0);
+        }
+    }
+
+    // moves the pixels of the image, the uncovered strips are cleared and their cells are painted
+    private void shift(GraphicalComponent graphicalComponent, int dx, int dy) {
+
+        int length = this.width - Math.abs(dx);
+        int firstColumn = Math.max(0, dx);
+
+        // rows are copied away from the direction of the shift, so no row is overwritten before it was copied
+        for (int i = 0; i < this.height; i++) {
+
+            int row = dy > 0 ? this.height - 1 - i : i;
+            int sourceRow = row - dy;
+            int start = row * this.width;
+
+            if (sourceRow < 0 || sourceRow >= this.height) {
+                Arrays.fill(this.pixels, start, start + this.width, 0);
+                continue;
+            }
+
+            System.arraycopy(this.pixels, sourceRow * this.width + firstColumn - dx, this.pixels, start + firstColumn, length);
+            if (dx > 0) Arrays.fill(this.pixels, start, start + dx, 0);
+            if (dx < 0) Arrays.fill(this.pixels, start + length, start + this.width, 0);
+        }
+
+        this.shiftX += dx;
+        this.shiftY += dy;
+
+        if (dx > 0) this.paintCells(graphicalComponent, 0, 0, dx, this.height);
+        if (dx < 0) this.paintCells(graphicalComponent, this.width + dx, 0, this.width, this.height);
+        if (dy > 0) this.paintCells(graphicalComponent, 0, 0, this.width, dy);
+        if (dy < 0) this.paintCells(graphicalComponent, 0, this.height + dy, this.width, this.height);
+    }
+
+    // paints the cells which cover the pixels from (left, top) to (right, bottom) of the image, these pixels are transparent
+    private void paintCells(GraphicalComponent graphicalComponent, int left, int top, int right, int bottom) {
+
+        CellStore cells = this.grid.getCellStore();
+
+        int column0 = this.getColumnAt(graphicalComponent, left);
+        int column1 = this.getColumnAt(graphicalComponent, right);
+        int row0 = this.getRowAt(graphicalComponent, top);
+        int row1 = this.getRowAt(graphicalComponent, bottom);
+
+        // one more cell at every side, a cell on the edge may be rounded into the region
+        int firstColumn = Math.max(0, Math.min(column0, column1) - 1);
+        int lastColumn = Math.min(cells.getColumns() - 1, Math.max(column0, column1) + 1);
+        int firstRow = Math.max(0, Math.min(row0, row1) - 1);
+        int lastRow = Math.min(cells.getRows() - 1, Math.max(row0, row1) + 1);
+
+        if (firstColumn > lastColumn || firstRow > lastRow) return;
+
+        // transparent empty cells are skipped by the store, e.g. all never written chunks of a chunked grid
+        int emptyState = cells.getCellWidth().getEmptyState();
+        CellVisitor painter = (column, row, state) -> {
+            if (this.colouring.getColor(state) != 0) {
+                this.paintCell(graphicalComponent, column, row, state);
+                this.paintedCells++;
+            }
+        };
+
+        if (this.colouring.getColor(emptyState) == 0)
+            cells.forEachExcept(firstColumn, firstRow, lastColumn - firstColumn + 1, lastRow - firstRow + 1, emptyState, painter);
+        else
+            cells.forEach(firstColumn, firstRow, lastColumn - firstColumn + 1, lastRow - firstRow + 1, painter);
+    }
+
+    // the column of the cell at the pixel x of the image, which shows the grid at the painted scroll offset moved by the shift
+    private int getColumnAt(GraphicalComponent graphicalComponent, int pixelX) {
+        double origin = graphicalComponent.toPixelX(0);
+        double x = (pixelX - this.shiftX - origin) / (graphicalComponent.toPixelX(1) - origin);
+        return this.grid.getColumn(x - this.paintedScrollOffsetX + this.grid.getScrollOffsetX());
+    }
+
+    private int getRowAt(GraphicalComponent graphicalComponent, int pixelY) {
+        double origin = graphicalComponent.toPixelY(0);
+        double y = (pixelY - this.shiftY - origin) / (graphicalComponent.toPixelY(1) - origin);
+        return this.grid.getRow(y - this.paintedScrollOffsetY + this.grid.getScrollOffsetY());
+    }
+
+    // replaces the pixels of the cell by its color, the edges are rounded like those of its neighbours
+    private void paintCell(GraphicalComponent graphicalComponent, int column, int row, int state) {
+
+        double halfDistance = this.grid.getCellCenterDistance() / 2;
+        // the cell where it was when all cells were painted, moved by the shift of the image
+        double x = this.grid.getCellCenterX(column) - this.grid.getScrollOffsetX() + this.paintedScrollOffsetX;
+        double y = this.grid.getCellCenterY(row) - this.grid.getScrollOffsetY() + this.paintedScrollOffsetY;
+
+        int x0 = (int) Math.round(graphicalComponent.toPixelX(x - halfDistance)) + this.shiftX;
+        int x1 = (int) Math.round(graphicalComponent.toPixelX(x + halfDistance)) + this.shiftX;
+        int y0 = (int) Math.round(graphicalComponent.toPixelY(y + halfDistance)) + this.shiftY;
+        int y1 = (int) Math.round(graphicalComponent.toPixelY(y - halfDistance)) + this.shiftY;
+
+        int left = Math.max(0, Math.min(x0, x1));
+        int right = Math.min(this.width, Math.max(x0, x1));
+        int top = Math.max(0, Math.min(y0, y1));
+        int bottom = Math.min(this.height, Math.max(y0, y1));
+
+        if (left >= right || top >= bottom) return;
+
+        int color = premultiply(this.colouring.getColor(state));
+
+        for (int py = top; py < bottom; py++)
+            Arrays.fill(this.pixels, py * this.width + left, py * this.width + right, color);
+    }
+
+    private static int premultiply(int argb) {
+
+        int alpha = argb >>> 24;
+        if (alpha == 255) return argb;
+
+        int red = ((argb >> 16) & 0xff) * alpha / 255;
+        int green = ((argb >> 8) & 0xff) * alpha / 255;
+        int blue = (argb & 0xff) * alpha / 255;
+
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+}
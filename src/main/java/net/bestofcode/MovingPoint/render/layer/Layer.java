@@ -0,0 +1,91 @@
+package net.bestofcode.MovingPoint.render.layer;
+
+import net.bestofcode.MovingPoint.render.GraphicalComponent;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.Layer
+ * A Layer caches a static drawing in an image of the size of the canvas, so it
+ * can be drawn every frame with a single blit. The drawing is painted again
+ * only after invalidate() was called or the canvas size or scale changed.
+ * It is painted in the world space of the scale, so moving, zooming or
+ * turning the camera only changes how the image is drawn onto the canvas.
+ */
+public class Layer {
+
+    private LayerPainter painter;
+    private BufferedImage image;
+
+    private boolean valid = false;
+    // canvas version of the GraphicalComponent the image was painted for
+    private long canvasVersion;
+
+    /**
+     * Constructor for a layer
+     *
+     * @param painter - draws the content of the layer
+     */
+    public Layer(LayerPainter painter) {
+        this.setPainter(painter);
+    }
+
+    /**
+     * setPainter
+     * Replaces the content of the layer, it is painted again by the next draw().
+     */
+    public void setPainter(LayerPainter painter) {
+        if (painter == null) throw new IllegalArgumentException("layer needs a painter");
+        this.painter = painter;
+        this.invalidate();
+    }
+
+    /**
+     * invalidate
+     * Paints the layer again the next time it is drawn, e.g. after a wall was removed.
+     */
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    /**
+     * isValid
+     * Checks if the cached image can still be used for the given component.
+     */
+    public boolean isValid(GraphicalComponent graphicalComponent) {
+        return this.valid && this.canvasVersion == graphicalComponent.getCanvasVersion();
+    }
+
+    /**
+     * render
+     * Returns the cached image of the layer, it is painted first if necessary.
+     *
+     * @param graphicalComponent - the component the layer is drawn onto
+     * @return the image of the layer
+     */
+    public BufferedImage render(GraphicalComponent graphicalComponent) {
+
+        if (this.isValid(graphicalComponent)) return this.image;
+
+        int width = graphicalComponent.getCanvasWidth();
+        int height = graphicalComponent.getCanvasHeight();
+
+        if (this.image == null || this.image.getWidth() != width || this.image.getHeight() != height)
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+
+        graphicalComponent.paintLayer(this.image, this.painter);
+
+        this.canvasVersion = graphicalComponent.getCanvasVersion();
+        this.valid = true;
+
+        return this.image;
+    }
+
+    /**
+     * draw
+     * Draws the layer onto the canvas with a single blit through the camera.
+     */
+    public void draw(GraphicalComponent graphicalComponent) {
+        graphicalComponent.compositeLayer(this.render(graphicalComponent));
+    }
+}
@@ -0,0 +1,20 @@
+package net.bestofcode.MovingPoint.render.layer;
+
+import net.bestofcode.MovingPoint.render.GraphicalComponent;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.LayerPainter
+ * Interface for everything which draws the content of a static layer, e.g. a
+ * background picture, grid lines or walls. It is only called again after the
+ * layer has been invalidated.
+ */
+public interface LayerPainter {
+
+    /**
+     * Invoked when the layer has to be drawn. All drawing methods of the
+     * GraphicalComponent draw into the layer meanwhile.
+     *
+     * @param graphicalComponent the component to draw with
+     */
+    void paint(GraphicalComponent graphicalComponent);
+}
@@ -0,0 +1,120 @@
+package net.bestofcode.MovingPoint.render.layer;
+
+import net.bestofcode.MovingPoint.render.GraphicalComponent;
+
+import java.awt.*;
+import java.util.ArrayList;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.LayerStack
+ * The LayerStack flattens several static layers into one cached image, so all
+ * of them are drawn with a single blit. If one of the layers is invalidated,
+ * only this layer is painted again and the stack is flattened anew.
+ */
+public class LayerStack {
+
+    private final ArrayList<Layer> layers = new ArrayList<Layer>();
+    private final Layer flattened = new Layer(this::paintLayers);
+
+    // color below all layers, null for a transparent stack
+    private Color background;
+
+    public LayerStack() {
+        this(null);
+    }
+
+    /**
+     * Constructor for a stack with an opaque background
+     *
+     * @param background - the color below all layers, null for a transparent stack
+     */
+    public LayerStack(Color background) {
+        this.background = background;
+    }
+
+    /**
+     * add
+     * Adds a layer on top of all other layers.
+     *
+     * @param painter - draws the content of the layer
+     * @return the layer, e.g. to invalidate it after its content changed
+     */
+    public Layer add(LayerPainter painter) {
+        return this.add(this.layers.size(), painter);
+    }
+
+    /**
+     * add
+     * Adds a layer at a position of the stack, 0 is the bottom layer.
+     */
+    public Layer add(int index, LayerPainter painter) {
+        Layer layer = new Layer(painter);
+        this.layers.add(index, layer);
+        this.flattened.invalidate();
+        return layer;
+    }
+
+    public void remove(Layer layer) {
+        if (this.layers.remove(layer)) this.flattened.invalidate();
+    }
+
+    public void clear() {
+        this.layers.clear();
+        this.flattened.invalidate();
+    }
+
+    public boolean isEmpty() {
+        return this.layers.isEmpty();
+    }
+
+    public void setBackground(Color background) {
+        this.background = background;
+        this.flattened.invalidate();
+    }
+
+    /**
+     * invalidate
+     * Paints all layers again the next time the stack is drawn.
+     */
+    public void invalidate() {
+        for (Layer layer : this.layers) layer.invalidate();
+        this.flattened.invalidate();
+    }
+
+    /**
+     * isValid
+     * Checks if the stack can be drawn without painting any layer.
+     */
+    public boolean isValid(GraphicalComponent graphicalComponent) {
+        if (!this.flattened.isValid(graphicalComponent)) return false;
+        for (Layer layer : this.layers)
+            if (!layer.isValid(graphicalComponent)) return false;
+        return true;
+    }
+
+    /**
+     * draw
+     * Draws all layers onto the canvas with a single blit.
+     */
+    public void draw(GraphicalComponent graphicalComponent) {
+
+        for (Layer layer : this.layers) {
+            if (!layer.isValid(graphicalComponent)) {
+                layer.render(graphicalComponent);
+                this.flattened.invalidate();
+            }
+        }
+
+        this.flattened.draw(graphicalComponent);
+    }
+
+    // blits the cached images of all layers into the flattened image
+    private void paintLayers(GraphicalComponent graphicalComponent) {
+
+        if (this.background != null)
+            graphicalComponent.clear(this.background);
+
+        for (Layer layer : this.layers)
+            graphicalComponent.composite(layer.render(graphicalComponent));
+    }
+}
@@ -0,0 +1,271 @@
+package net.bestofcode.MovingPoint.render.shape;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.PrimitiveShape
+ * The PrimitiveShape is a reusable outline for the drawing primitives. The
+ * shapes of java.awt.geom create a new PathIterator every time they are drawn,
+ * this shape hands out the same iterator again, so drawing a primitive does
+ * not allocate once the arrays are big enough. The outlines of ellipses,
+ * rectangles and lines are built exactly like the ones of Ellipse2D,
+ * Rectangle2D and Line2D, so they produce the same pixels.
+ * <p>
+ * A shape may only be drawn by one thread and only one of its iterators
+ * may be in use at a time.
+ */
+public class PrimitiveShape implements Shape {
+
+    // control points of the cubic curves of an ellipse, as used by Ellipse2D
+    private static final double CONTROL = 0.5522847498307933;
+    private static final double POSITIVE = 0.5 + CONTROL * 0.5;
+    private static final double NEGATIVE = 0.5 - CONTROL * 0.5;
+    private static final double[][] ELLIPSE_CURVES = {
+            {1.0, POSITIVE, POSITIVE, 1.0, 0.5, 1.0},
+            {NEGATIVE, 1.0, 0.0, POSITIVE, 0.0, 0.5},
+            {0.0, NEGATIVE, NEGATIVE, 0.0, 0.5, 0.0},
+            {POSITIVE, 0.0, 1.0, NEGATIVE, 1.0, 0.5}
+    };
+
+    private byte[] types = new byte[16];
+    private double[] coordinates = new double[64];
+    private int numberOfTypes = 0;
+    private int numberOfCoordinates = 0;
+
+    private final SegmentIterator iterator = new SegmentIterator();
+
+    /**
+     * reset
+     * Removes all segments, the arrays are kept.
+     */
+    public void reset() {
+        this.numberOfTypes = 0;
+        this.numberOfCoordinates = 0;
+    }
+
+    public void moveTo(double x, double y) {
+        this.segment(PathIterator.SEG_MOVETO, 2);
+        this.coordinates[this.numberOfCoordinates++] = x;
+        this.coordinates[this.numberOfCoordinates++] = y;
+    }
+
+    public void lineTo(double x, double y) {
+        this.segment(PathIterator.SEG_LINETO, 2);
+        this.coordinates[this.numberOfCoordinates++] = x;
+        this.coordinates[this.numberOfCoordinates++] = y;
+    }
+
+    public void curveTo(double x1, double y1, double x2, double y2, double x3, double y3) {
+        this.segment(PathIterator.SEG_CUBICTO, 6);
+        this.coordinates[this.numberOfCoordinates++] = x1;
+        this.coordinates[this.numberOfCoordinates++] = y1;
+        this.coordinates[this.numberOfCoordinates++] = x2;
+        this.coordinates[this.numberOfCoordinates++] = y2;
+        this.coordinates[this.numberOfCoordinates++] = x3;
+        this.coordinates[this.numberOfCoordinates++] = y3;
+    }
+
+    public void closePath() {
+        this.segment(PathIterator.SEG_CLOSE, 0);
+    }
+
+    /**
+     * setLine
+     * Replaces the outline by a line from (x0, y0) to (x1, y1).
+     */
+    public void setLine(double x0, double y0, double x1, double y1) {
+        this.reset();
+        this.moveTo(x0, y0);
+        this.lineTo(x1, y1);
+    }
+
+    /**
+     * setRectangle
+     * Replaces the outline by a rectangle with its upper left corner at (x, y).
+     */
+    public void setRectangle(double x, double y, double w, double h) {
+        this.reset();
+        this.moveTo(x, y);
+        this.lineTo(x + w, y);
+        this.lineTo(x + w, y + h);
+        this.lineTo(x, y + h);
+        this.lineTo(x, y);
+        this.closePath();
+    }
+
+    /**
+     * setEllipse
+     * Replaces the outline by an ellipse inside of the given bounding box.
+     */
+    public void setEllipse(double x, double y, double w, double h) {
+        this.reset();
+        this.appendEllipse(x, y, w, h);
+    }
+
+    /**
+     * appendEllipse
+     * Adds an ellipse inside of the given bounding box to the outline, so many
+     * ellipses can be drawn by a single call of fill().
+     */
+    public void appendEllipse(double x, double y, double w, double h) {
+        double[] start = ELLIPSE_CURVES[3];
+        this.moveTo(x + start[4] * w, y + start[5] * h);
+        for (double[] curve : ELLIPSE_CURVES)
+            this.curveTo(x + curve[0] * w, y + curve[1] * h,
+                    x + curve[2] * w, y + curve[3] * h,
+                    x + curve[4] * w, y + curve[5] * h);
+        this.closePath();
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform transform) {
+        this.iterator.reset(transform);
+        return this.iterator;
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform transform, double flatness) {
+        // flattened outlines are not requested by the drawing primitives, so a copy is fine
+        return this.toPath().getPathIterator(transform, flatness);
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return this.getBounds2D().getBounds();
+    }
+
+    @Override
+    public Rectangle2D getBounds2D() {
+
+        if (this.numberOfCoordinates == 0) return new Rectangle2D.Double();
+
+        double minimumX = Double.POSITIVE_INFINITY, minimumY = Double.POSITIVE_INFINITY;
+        double maximumX = Double.NEGATIVE_INFINITY, maximumY = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < this.numberOfCoordinates; i += 2) {
+            minimumX = Math.min(minimumX, this.coordinates[i]);
+            maximumX = Math.max(maximumX, this.coordinates[i]);
+            minimumY = Math.min(minimumY, this.coordinates[i + 1]);
+            maximumY = Math.max(maximumY, this.coordinates[i + 1]);
+        }
+
+        return new Rectangle2D.Double(minimumX, minimumY, maximumX - minimumX, maximumY - minimumY);
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+        return this.toPath().contains(x, y);
+    }
+
+    @Override
+    public boolean contains(Point2D point) {
+        return this.toPath().contains(point);
+    }
+
+    @Override
+    public boolean intersects(double x, double y, double w, double h) {
+        return this.toPath().intersects(x, y, w, h);
+    }
+
+    @Override
+    public boolean intersects(Rectangle2D rectangle) {
+        return this.toPath().intersects(rectangle);
+    }
+
+    @Override
+    public boolean contains(double x, double y, double w, double h) {
+        return this.toPath().contains(x, y, w, h);
+    }
+
+    @Override
+    public boolean contains(Rectangle2D rectangle) {
+        return this.toPath().contains(rectangle);
+    }
+
+    // copy of the outline for the geometric queries, which are not used while drawing
+    private Path2D toPath() {
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, this.numberOfTypes);
+        path.append(new SegmentIterator().reset(null), false);
+        return path;
+    }
+
+    private void segment(int type, int numberOfValues) {
+        if (this.numberOfTypes == this.types.length)
+            this.types = Arrays.copyOf(this.types, 2 * this.types.length);
+        if (this.numberOfCoordinates + numberOfValues > this.coordinates.length)
+            this.coordinates = Arrays.copyOf(this.coordinates, 2 * this.coordinates.length);
+        this.types[this.numberOfTypes++] = (byte) type;
+    }
+
+    // walks over the segments of the outline, reused for every drawing
+    private class SegmentIterator implements PathIterator {
+
+        private AffineTransform transform;
+        private int type;
+        private int coordinate;
+
+        private SegmentIterator reset(AffineTransform transform) {
+            this.transform = transform;
+            this.type = 0;
+            this.coordinate = 0;
+            return this;
+        }
+
+        @Override
+        public int getWindingRule() {
+            return WIND_NON_ZERO;
+        }
+
+        @Override
+        public boolean isDone() {
+            return this.type >= numberOfTypes;
+        }
+
+        @Override
+        public void next() {
+            this.coordinate += valuesOf(types[this.type]);
+            this.type++;
+        }
+
+        @Override
+        public int currentSegment(float[] values) {
+            int segment = types[this.type];
+            int count = valuesOf(segment);
+            for (int i = 0; i < count; i++)
+                values[i] = (float) coordinates[this.coordinate + i];
+            if (this.transform != null)
+                this.transform.transform(values, 0, values, 0, count / 2);
+            return segment;
+        }
+
+        @Override
+        public int currentSegment(double[] values) {
+            int segment = types[this.type];
+            int count = valuesOf(segment);
+            System.arraycopy(coordinates, this.coordinate, values, 0, count);
+            if (this.transform != null)
+                this.transform.transform(values, 0, values, 0, count / 2);
+            return segment;
+        }
+    }
+
+    private static int valuesOf(int segment) {
+        switch (segment) {
+            case PathIterator.SEG_MOVETO:
+            case PathIterator.SEG_LINETO:
+                return 2;
+            case PathIterator.SEG_QUADTO:
+                return 4;
+            case PathIterator.SEG_CUBICTO:
+                return 6;
+            default:
+                return 0;
+        }
+    }
+}
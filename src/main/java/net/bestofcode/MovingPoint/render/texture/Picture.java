@@ -1,5 +1,7 @@
 package net.bestofcode.MovingPoint.render.texture;
 
+import net.bestofcode.MovingPoint.asset.AssetResolver;
+import net.bestofcode.MovingPoint.render.GraphicalComponent;
 import net.bestofcode.MovingPoint.render.IGraphicalComponent;
 
 /**
@@ -12,14 +14,29 @@ public class Picture implements IGraphicalComponent {
 
     // wrapped filepath
     private final String filePath;
+    // the resolved filepath and the version of the asset index it was resolved with
+    private String resolvedPath;
+    private long resolverVersion = -1;
 
     // Constructor is used to wrap the filepath
     public Picture(String filePath) {
-        this.filePath = System.getProperty("user.dir") + "\\src\\main\\resources\\img\\" + filePath;
+        this.filePath = filePath;
     }
 
-    // This method is used by net.bestofcode.MovingPointGameEngine.MovingPointGameEngine to receive the wrapped string
+    // This method is used by net.bestofcode.MovingPointGameEngine.MovingPointGameEngine to receive the wrapped string,
+    // it is resolved again only after the asset index changed, e.g. a pack was mounted later
     public String getFilePath() {
-        return this.filePath;
+        AssetResolver assetResolver = AssetResolver.getDefault();
+        long version = assetResolver.getVersion();
+        if (this.resolvedPath == null || this.resolverVersion != version) {
+            this.resolvedPath = assetResolver.resolvePath(this.filePath);
+            this.resolverVersion = version;
+        }
+        return this.resolvedPath;
+    }
+
+    // Returns the packed rectangle of this texture, null if it was not packed by GraphicalComponent.packTextures()
+    public TextureRegion getTextureRegion() {
+        return GraphicalComponent.getTextureAtlas().getRegion(this.getFilePath());
     }
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+package net.bestofcode.MovingPoint.render.texture;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TextureAtlas
+ * The TextureAtlas merges many small textures into a few large sheets. Each
+ * packed texture is afterwards drawn as a rectangle of a sheet, so a scene with
+ * hundreds of different sprites only touches a few images.
+ * <p>
+ * Textures are placed row by row (shelf packing). Call pack() once at startup
+ * with all textures of a scene, since packing them sorted by height wastes the
+ * least space.
+ */
+public class TextureAtlas {
+
+    public static final int DEFAULT_SHEET_SIZE = 2048;
+
+    // empty pixels between two textures, so scaled textures do not bleed into each other
+    private static final int PADDING = 1;
+
+    private final int sheetSize;
+    private final int imageType;
+
+    private final List<BufferedImage> sheets = new ArrayList<BufferedImage>();
+    private final HashMap<String, TextureRegion> regions = new HashMap<String, TextureRegion>();
+
+    // cursor of the current sheet
+    private int shelfX = 0;
+    private int shelfY = 0;
+    private int shelfHeight = 0;
+
+    /**
+     * Constructor for an atlas with the default sheet size
+     *
+     * @param imageType - pixel layout of the sheets, e.g. BufferedImage.TYPE_INT_ARGB_PRE
+     */
+    public TextureAtlas(int imageType) {
+        this(DEFAULT_SHEET_SIZE, imageType);
+    }
+
+    /**
+     * Constructor for an atlas with quadratic sheets
+     *
+     * @param sheetSize - width and height of each sheet in pixels
+     * @param imageType - pixel layout of the sheets
+     */
+    public TextureAtlas(int sheetSize, int imageType) {
+        if (sheetSize < 1) throw new IllegalArgumentException("sheet size must be positive");
+        this.sheetSize = sheetSize;
+        this.imageType = imageType;
+    }
+
+    /**
+     * pack
+     * Loads all textures with the given loader and packs them, highest first.
+     * Textures which are already packed are skipped.
+     *
+     * @param paths  - resolved paths of the textures
+     * @param loader - decodes a texture
+     */
+    public synchronized void pack(Iterable<String> paths, Function<String, BufferedImage> loader) {
+
+        List<Map.Entry<String, BufferedImage>> textures = new ArrayList<Map.Entry<String, BufferedImage>>();
+
+        for (String path : paths) {
+            if (!this.regions.containsKey(path))
+                textures.add(new HashMap.SimpleEntry<String, BufferedImage>(path, loader.apply(path)));
+        }
+
+        textures.sort((first, second) -> second.getValue().getHeight() - first.getValue().getHeight());
+
+        for (Map.Entry<String, BufferedImage> texture : textures)
+            this.add(texture.getKey(), texture.getValue());
+    }
+
+    /**
+     * add
+     * Copies a single texture into the current sheet. Textures which are bigger
+     * than a sheet are not packed.
+     *
+     * @param path    - resolved path of the texture, used as key
+     * @param texture - the decoded texture
+     * @return the region of the texture or null if it does not fit into a sheet
+     */
+    public synchronized TextureRegion add(String path, BufferedImage texture) {
+
+        TextureRegion region = this.regions.get(path);
+        if (region != null) return region;
+
+        int width = texture.getWidth();
+        int height = texture.getHeight();
+
+        if (width + PADDING > this.sheetSize || height + PADDING > this.sheetSize) return null;
+
+        // next shelf
+        if (this.shelfX + width + PADDING > this.sheetSize) {
+            this.shelfX = 0;
+            this.shelfY += this.shelfHeight;
+            this.shelfHeight = 0;
+        }
+
+        // next sheet
+        if (this.sheets.isEmpty() || this.shelfY + height + PADDING > this.sheetSize) {
+            this.sheets.add(new BufferedImage(this.sheetSize, this.sheetSize, this.imageType));
+            this.shelfX = 0;
+            this.shelfY = 0;
+            this.shelfHeight = 0;
+        }
+
+        BufferedImage sheet = this.sheets.get(this.sheets.size() - 1);
+
+        Graphics2D graphics = sheet.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.drawImage(texture, this.shelfX, this.shelfY, null);
+        graphics.dispose();
+
+        region = new TextureRegion(sheet, this.shelfX, this.shelfY, width, height);
+        this.regions.put(path, region);
+
+        this.shelfX += width + PADDING;
+        this.shelfHeight = Math.max(this.shelfHeight, height + PADDING);
+
+        return region;
+    }
+
+    /**
+     * getRegion
+     * Returns the region of a packed texture
+     *
+     * @param path - resolved path of the texture
+     * @return the region or null if the texture was not packed
+     */
+    public synchronized TextureRegion getRegion(String path) {
+        return this.regions.get(path);
+    }
+
+    public synchronized boolean contains(String path) {
+        return this.regions.containsKey(path);
+    }
+
+    /**
+     * clear
+     * Removes all sheets and regions
+     */
+    public synchronized void clear() {
+        this.sheets.clear();
+        this.regions.clear();
+        this.shelfX = 0;
+        this.shelfY = 0;
+        this.shelfHeight = 0;
+    }
+
+    public synchronized int getNumberOfSheets() {
+        return this.sheets.size();
+    }
+
+    public synchronized int getNumberOfTextures() {
+        return this.regions.size();
+    }
+
+    public int getSheetSize() {
+        return this.sheetSize;
+    }
+}
@@ -0,0 +1,270 @@
+package net.bestofcode.MovingPoint.render.texture;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TextureCache
+ * The TextureCache keeps decoded images in memory, so a picture which is drawn
+ * every frame only has to be read from its file once. The cache is bounded by a
+ * budget of bytes and evicts the least recently used texture when it is full.
+ * Every texture is stored together with the region which covers it, so drawing
+ * it does not create a new region each time. All methods are thread-safe.
+ *
+ * @param <K> the key of a texture, e.g. its resolved path
+ */
+public class TextureCache<K> {
+
+    // default budget of 64 MB decoded pixels
+    public static final long DEFAULT_MAXIMUM_BYTES = 64L * 1024 * 1024;
+
+    // access ordered map, the eldest entry is the least recently used texture
+    private final LinkedHashMap<K, TextureRegion> textures = new LinkedHashMap<K, TextureRegion>(16, 0.75f, true);
+    // textures which are decoded right now, other threads which miss them wait for the same result
+    private final HashMap<K, CompletableFuture<TextureRegion>> loading = new HashMap<K, CompletableFuture<TextureRegion>>();
+
+    private long maximumBytes;
+    private long currentBytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Constructor for a cache with the default budget
+     */
+    public TextureCache() {
+        this(DEFAULT_MAXIMUM_BYTES);
+    }
+
+    /**
+     * Constructor for a cache with a custom budget
+     *
+     * @param maximumBytes - the maximum number of decoded bytes kept in memory
+     */
+    public TextureCache(long maximumBytes) {
+        if (maximumBytes < 0) throw new IllegalArgumentException("texture cache budget can't be negative");
+        this.maximumBytes = maximumBytes;
+    }
+
+    /**
+     * get
+     * Returns the cached texture for the given path. If the texture is missing
+     * it will be decoded by the loader and stored inside of the cache. Decoding
+     * happens outside of the lock, so other threads are not blocked meanwhile.
+     * Threads which miss a texture while it is decoded wait for it, so every
+     * texture is decoded once.
+     *
+     * @param path   - the resolved path of the texture, used as key
+     * @param loader - decodes the texture if it is not cached yet
+     * @return the decoded texture
+     */
+    public BufferedImage get(K path, Function<? super K, BufferedImage> loader) {
+        return this.getRegion(path, loader).getImage();
+    }
+
+    /**
+     * getRegion
+     * Same as get(), but returns the region which covers the whole texture.
+     * The region is created once, when the texture is stored.
+     *
+     * @param path   - the resolved path of the texture, used as key
+     * @param loader - decodes the texture if it is not cached yet
+     * @return the region of the decoded texture
+     */
+    public TextureRegion getRegion(K path, Function<? super K, BufferedImage> loader) {
+
+        CompletableFuture<TextureRegion> future;
+        boolean decoding;
+
+        synchronized (this) {
+            TextureRegion region = this.textures.get(path);
+
+            if (region != null) {
+                this.hits++;
+                return region;
+            }
+
+            this.misses++;
+
+            future = this.loading.get(path);
+            decoding = future == null;
+
+            if (decoding) {
+                future = new CompletableFuture<TextureRegion>();
+                this.loading.put(path, future);
+            }
+        }
+
+        if (!decoding) return await(future);
+
+        TextureRegion region;
+
+        try {
+            region = new TextureRegion(loader.apply(path));
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                this.loading.remove(path);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (this) {
+            this.put(path, region);
+            this.loading.remove(path);
+        }
+        future.complete(region);
+
+        return region;
+    }
+
+    // waits outside of the lock for a texture which another thread decodes, its error is thrown again
+    private static TextureRegion await(CompletableFuture<TextureRegion> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * find
+     * Returns the cached texture for the given key without loading it, e.g. if
+     * creating a loader would cost more than the lookup.
+     *
+     * @param path - the key of the texture
+     * @return the cached texture or null if it is not cached
+     */
+    public synchronized BufferedImage find(K path) {
+
+        TextureRegion region = this.textures.get(path);
+
+        if (region == null) {
+            this.misses++;
+            return null;
+        }
+
+        this.hits++;
+        return region.getImage();
+    }
+
+    /**
+     * put
+     * Stores a decoded texture and evicts old textures until the budget fits again.
+     * Textures which are bigger than the whole budget will not be stored.
+     *
+     * @param path    - the resolved path of the texture
+     * @param texture - the decoded texture
+     */
+    public void put(K path, BufferedImage texture) {
+        this.put(path, new TextureRegion(texture));
+    }
+
+    private synchronized void put(K path, TextureRegion region) {
+
+        long size = sizeOf(region);
+
+        TextureRegion previous = this.textures.remove(path);
+        if (previous != null) this.currentBytes -= sizeOf(previous);
+
+        if (size > this.maximumBytes) return;
+
+        this.textures.put(path, region);
+        this.currentBytes += size;
+        this.evict();
+    }
+
+    /**
+     * contains
+     * Checks if a texture is cached without changing its LRU position or the counters.
+     */
+    public synchronized boolean contains(K path) {
+        return this.textures.containsKey(path);
+    }
+
+    /**
+     * remove
+     * Removes a single texture from the cache
+     */
+    public synchronized void remove(K path) {
+
+        TextureRegion region = this.textures.remove(path);
+        if (region != null) this.currentBytes -= sizeOf(region);
+    }
+
+    /**
+     * clear
+     * Removes all textures from the cache. The counters are not reset.
+     */
+    public synchronized void clear() {
+        this.textures.clear();
+        this.currentBytes = 0;
+    }
+
+    public synchronized void setMaximumBytes(long maximumBytes) {
+        if (maximumBytes < 0) throw new IllegalArgumentException("texture cache budget can't be negative");
+        this.maximumBytes = maximumBytes;
+        this.evict();
+    }
+
+    public synchronized long getMaximumBytes() {
+        return this.maximumBytes;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return this.currentBytes;
+    }
+
+    public synchronized int size() {
+        return this.textures.size();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * toString
+     * Returns the statistics of the cache in a readable way, e.g. for a debug overlay.
+     */
+    @Override
+    public synchronized String toString() {
+        return "textures = " + this.textures.size() + ", bytes = " + this.currentBytes + "/" + this.maximumBytes
+                + ", hits = " + this.hits + ", misses = " + this.misses + ", evictions = " + this.evictions;
+    }
+
+    // remove the least recently used textures until the budget fits
+    private void evict() {
+
+        Iterator<Map.Entry<K, TextureRegion>> iterator = this.textures.entrySet().iterator();
+
+        while (this.currentBytes > this.maximumBytes && iterator.hasNext()) {
+            Map.Entry<K, TextureRegion> eldest = iterator.next();
+            this.currentBytes -= sizeOf(eldest.getValue());
+            iterator.remove();
+            this.evictions++;
+        }
+    }
+
+    // approximation of the decoded size, every pixel is stored as 32 bit
+    private static long sizeOf(TextureRegion region) {
+        return 4L * region.getImage().getWidth() * region.getImage().getHeight();
+    }
+}
@@ -0,0 +1,70 @@
+package net.bestofcode.MovingPoint.render.texture;
+
+import net.bestofcode.MovingPoint.asset.AssetResolver;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TextureImportBenchmark
+ * Measures how many sprites per second can be drawn onto an offscreen buffer,
+ * once with the image as returned by ImageIO and once after the TextureImporter
+ * converted it. Run it with "gradle runTextureImportBenchmark".
+ */
+public final class TextureImportBenchmark {
+
+    private static final int CANVAS_SIZE = 1000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int BLITS_PER_ROUND = 200000;
+
+    private TextureImportBenchmark() {
+        // can not instantiate
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        String filename = args.length > 0 ? args[0] : "Doodler.png";
+        URL url = AssetResolver.getDefault().resolve(filename);
+        if (url == null) throw new IllegalArgumentException("image " + filename + " not found");
+
+        BufferedImage decoded = ImageIO.read(url);
+        BufferedImage offscreenImage = new BufferedImage(CANVAS_SIZE, CANVAS_SIZE, BufferedImage.TYPE_INT_ARGB);
+
+        // same layout as the offscreen buffer and the premultiplied layout used by GraphicalComponent
+        BufferedImage imported = TextureImporter.convert(decoded, offscreenImage.getType());
+        BufferedImage premultiplied = TextureImporter.convert(decoded, BufferedImage.TYPE_INT_ARGB_PRE);
+
+        System.out.println("sprite " + filename + " " + decoded.getWidth() + "x" + decoded.getHeight() + ", decoded type " + decoded.getType());
+        System.out.println("decoded:       " + measure(decoded, offscreenImage) + " blits/s");
+        System.out.println("int argb:      " + measure(imported, offscreenImage) + " blits/s");
+        System.out.println("premultiplied: " + measure(premultiplied, offscreenImage) + " blits/s");
+    }
+
+    // returns the best throughput of all rounds
+    private static long measure(BufferedImage sprite, BufferedImage offscreenImage) {
+
+        Graphics2D offscreen = offscreenImage.createGraphics();
+        int range = CANVAS_SIZE - sprite.getWidth();
+        long best = 0;
+
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+
+            long start = System.nanoTime();
+
+            for (int i = 0; i < BLITS_PER_ROUND; i++) {
+                int position = (i * 7919) % Math.max(range, 1);
+                offscreen.drawImage(sprite, position, (position * 31) % Math.max(range, 1), null);
+            }
+
+            long elapsed = System.nanoTime() - start;
+            best = Math.max(best, BLITS_PER_ROUND * 1000000000L / Math.max(elapsed, 1));
+        }
+
+        offscreen.dispose();
+
+        return best;
+    }
+}
@@ -0,0 +1,66 @@
+package net.bestofcode.MovingPoint.render.texture;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TextureImporter
+ * Images read by ImageIO often use an indexed or byte interleaved pixel layout.
+ * Java2D has to use a slow general loop every time such an image is drawn onto
+ * the offscreen buffer. The TextureImporter converts each texture once into the
+ * pixel layout of the target, so every following draw is a direct copy.
+ */
+public final class TextureImporter {
+
+    private TextureImporter() {
+        // can not instantiate
+    }
+
+    /**
+     * convert
+     * Converts the image into the given BufferedImage type. Images which already
+     * have the requested type are returned unchanged.
+     *
+     * @param image     - the decoded image
+     * @param imageType - the type of the target, e.g. BufferedImage.TYPE_INT_ARGB_PRE
+     * @return an image with the requested pixel layout
+     */
+    public static BufferedImage convert(BufferedImage image, int imageType) {
+
+        if (image.getType() == imageType) return image;
+
+        BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), imageType);
+
+        return copy(image, converted);
+    }
+
+    /**
+     * convert
+     * Converts the image into a compatible image of the given GraphicsConfiguration,
+     * which is the fastest layout to draw onto a window of this screen.
+     *
+     * @param image                 - the decoded image
+     * @param graphicsConfiguration - configuration of the target screen
+     * @return an image with the layout of the screen
+     */
+    public static BufferedImage convert(BufferedImage image, GraphicsConfiguration graphicsConfiguration) {
+
+        BufferedImage converted = graphicsConfiguration.createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+
+        if (converted.getColorModel().equals(image.getColorModel())
+                && converted.getSampleModel().getClass() == image.getSampleModel().getClass()) return image;
+
+        return copy(image, converted);
+    }
+
+    // draws the source into the target with plain copy semantics
+    private static BufferedImage copy(BufferedImage source, BufferedImage target) {
+
+        Graphics2D graphics = target.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.drawImage(source, 0, 0, null);
+        graphics.dispose();
+
+        return target;
+    }
+}
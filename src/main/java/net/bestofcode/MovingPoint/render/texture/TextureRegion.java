@@ -0,0 +1,80 @@
+package net.bestofcode.MovingPoint.render.texture;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TextureRegion
+ * A TextureRegion is a handle to a rectangle inside of an image. Textures which
+ * were packed into a net.bestofcode.MovingPointGameEngine.TextureAtlas share the
+ * same sheet and only differ in their rectangle.
+ */
+public class TextureRegion {
+
+    private final BufferedImage image;
+    private final int x, y, width, height;
+
+    /**
+     * TextureRegion
+     *
+     * @param image  - the sheet which contains the texture
+     * @param x      - left edge of the texture inside of the sheet
+     * @param y      - top edge of the texture inside of the sheet
+     * @param width  - width of the texture in pixels
+     * @param height - height of the texture in pixels
+     */
+    public TextureRegion(BufferedImage image, int x, int y, int width, int height) {
+        this.image = image;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * TextureRegion
+     * Creates a region which covers the whole image
+     *
+     * @param image - the texture
+     */
+    public TextureRegion(BufferedImage image) {
+        this(image, 0, 0, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * draw
+     * Draws the region into the rectangle (x, y, w, h) of the graphics context
+     */
+    public void draw(Graphics2D graphics, int x, int y, int w, int h) {
+        graphics.drawImage(this.image, x, y, x + w, y + h,
+                this.x, this.y, this.x + this.width, this.y + this.height, null);
+    }
+
+    /**
+     * draw
+     * Draws the region unscaled with its upper left corner at (x, y)
+     */
+    public void draw(Graphics2D graphics, int x, int y) {
+        this.draw(graphics, x, y, this.width, this.height);
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,209 @@
+package net.bestofcode.MovingPoint.render.texture;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TransformedTextureCache
+ * Rotating or scaling a texture resamples every pixel of it. The
+ * TransformedTextureCache renders each variant of a texture once and keeps it,
+ * so a rotated or scaled picture is drawn as a plain copy afterwards.
+ * <p>
+ * Angles are rounded to a number of rotation steps (360 by default, which means
+ * steps of one degree). Sizes are rounded to whole pixels. The variants are
+ * stored inside of a net.bestofcode.MovingPointGameEngine.TextureCache and share
+ * its byte budget and LRU eviction. Variants are looked up with a reused key,
+ * so drawing a cached variant does not allocate.
+ */
+public class TransformedTextureCache {
+
+    // default budget of 32 MB rendered variants
+    public static final long DEFAULT_MAXIMUM_BYTES = 32L * 1024 * 1024;
+    public static final int DEFAULT_ROTATION_STEPS = 360;
+
+    private final TextureCache<VariantKey> variants;
+    private final int imageType;
+    // key of the variant which is looked up, guarded by itself
+    private final VariantKey lookupKey = new VariantKey();
+
+    // rotation steps of textures which were pre-baked with their own number of steps
+    private final HashMap<String, Integer> rotationStepsOfTexture = new HashMap<String, Integer>();
+    private int rotationSteps = DEFAULT_ROTATION_STEPS;
+
+    /**
+     * Constructor for a cache with the default budget
+     *
+     * @param imageType - pixel layout of the rendered variants
+     */
+    public TransformedTextureCache(int imageType) {
+        this(DEFAULT_MAXIMUM_BYTES, imageType);
+    }
+
+    /**
+     * Constructor for a cache with a custom budget
+     *
+     * @param maximumBytes - the maximum number of bytes of all rendered variants
+     * @param imageType    - pixel layout of the rendered variants
+     */
+    public TransformedTextureCache(long maximumBytes, int imageType) {
+        this.variants = new TextureCache<VariantKey>(maximumBytes);
+        this.imageType = imageType;
+    }
+
+    /**
+     * get
+     * Returns the texture rotated by the given degrees and scaled to w-by-h pixels.
+     * The returned image is as big as the bounding box of the rotated texture,
+     * so it has to be drawn centered.
+     *
+     * @param path    - resolved path of the texture, used as key
+     * @param texture - region of the untransformed texture
+     * @param w       - target width in pixels
+     * @param h       - target height in pixels
+     * @param degrees - number of degrees to rotate counterclockwise
+     * @return the rendered variant
+     */
+    public BufferedImage get(String path, TextureRegion texture, int w, int h, double degrees) {
+
+        int steps = this.getRotationSteps(path);
+        int step = quantize(degrees, steps);
+
+        VariantKey key;
+        synchronized (this.lookupKey) {
+            this.lookupKey.set(path, step, steps, w, h);
+            BufferedImage variant = this.variants.find(this.lookupKey);
+            if (variant != null) return variant;
+            // the stored key must never change
+            key = this.lookupKey.copy();
+        }
+
+        BufferedImage variant = this.render(texture, w, h, 360.0 * step / steps);
+        this.variants.put(key, variant);
+
+        return variant;
+    }
+
+    /**
+     * prebake
+     * Renders all rotations of a texture in the given size at once. Afterwards
+     * this texture is only drawn in these rotation steps.
+     *
+     * @param path    - resolved path of the texture
+     * @param texture - region of the untransformed texture
+     * @param w       - target width in pixels
+     * @param h       - target height in pixels
+     * @param steps   - number of rotations, e.g. 36 for steps of 10 degrees
+     */
+    public void prebake(String path, TextureRegion texture, int w, int h, int steps) {
+
+        if (steps < 1) throw new IllegalArgumentException("number of rotation steps must be positive");
+
+        synchronized (this.rotationStepsOfTexture) {
+            this.rotationStepsOfTexture.put(path, steps);
+        }
+
+        for (int step = 0; step < steps; step++)
+            this.get(path, texture, w, h, 360.0 * step / steps);
+    }
+
+    /**
+     * setRotationSteps
+     * Changes the number of rotation steps of all textures which were not pre-baked
+     */
+    public void setRotationSteps(int rotationSteps) {
+        if (rotationSteps < 1) throw new IllegalArgumentException("number of rotation steps must be positive");
+        this.rotationSteps = rotationSteps;
+    }
+
+    public int getRotationSteps(String path) {
+        synchronized (this.rotationStepsOfTexture) {
+            Integer steps = this.rotationStepsOfTexture.get(path);
+            return steps != null ? steps : this.rotationSteps;
+        }
+    }
+
+    /**
+     * getVariants
+     * Returns the underlying cache, e.g. to change its budget or to read its counters
+     */
+    public TextureCache<?> getVariants() {
+        return this.variants;
+    }
+
+    public void clear() {
+        this.variants.clear();
+    }
+
+    // index of the nearest rotation step in [0, steps)
+    private static int quantize(double degrees, int steps) {
+
+        double normalized = degrees % 360;
+        if (normalized < 0) normalized += 360;
+
+        return (int) Math.round(normalized * steps / 360) % steps;
+    }
+
+    private BufferedImage render(TextureRegion texture, int w, int h, double degrees) {
+
+        double radians = Math.toRadians(-degrees);
+        double cos = Math.abs(Math.cos(radians));
+        double sin = Math.abs(Math.sin(radians));
+
+        // the epsilon keeps rounding errors of cos(90) from adding a pixel
+        int boundingWidth = Math.max(1, (int) Math.ceil(w * cos + h * sin - 1e-9));
+        int boundingHeight = Math.max(1, (int) Math.ceil(w * sin + h * cos - 1e-9));
+
+        BufferedImage variant = new BufferedImage(boundingWidth, boundingHeight, this.imageType);
+
+        Graphics2D graphics = variant.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.translate(boundingWidth / 2.0, boundingHeight / 2.0);
+        graphics.rotate(radians);
+        texture.draw(graphics, -w / 2, -h / 2, w, h);
+        graphics.dispose();
+
+        return variant;
+    }
+
+    // identifies a rendered variant by the texture, its rotation step and its size
+    private static final class VariantKey {
+
+        private String path;
+        private int step, steps, width, height;
+
+        void set(String path, int step, int steps, int width, int height) {
+            this.path = path;
+            this.step = step;
+            this.steps = steps;
+            this.width = width;
+            this.height = height;
+        }
+
+        VariantKey copy() {
+            VariantKey copy = new VariantKey();
+            copy.set(this.path, this.step, this.steps, this.width, this.height);
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+
+            if (!(object instanceof VariantKey)) return false;
+
+            VariantKey other = (VariantKey) object;
+            return this.step == other.step && this.steps == other.steps && this.width == other.width
+                    && this.height == other.height && this.path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = this.path.hashCode();
+            hash = 31 * hash + this.step;
+            hash = 31 * hash + this.steps;
+            hash = 31 * hash + this.width;
+            return 31 * hash + this.height;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package net.bestofcode.MovingPoint.asset;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.AssetPackTest
+ * Writes files, images and sounds with the AssetPackWriter and reads them
+ * back, and checks that a corrupt index is rejected by AssetPack.open()
+ * with the name of the broken entry.
+ */
+class AssetPackTest {
+
+    private static final String IMAGE = "sprites/ball.png";
+
+    // position of the fields of the first entry of a pack whose first entry is IMAGE
+    private static final int TYPE = 12 + 2 + IMAGE.length();
+    private static final int OFFSET = TYPE + 1;
+    private static final int LENGTH = OFFSET + 8;
+    private static final int WIDTH = LENGTH + 8;
+
+    private File file;
+
+    @Test
+    void assetsAreReadAsTheyWereWritten() throws IOException {
+
+        BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 2; y++)
+            for (int x = 0; x < 3; x++)
+                image.setRGB(x, y, 0xFF000000 | (x * 80) << 16 | (y * 120) << 8 | 7);
+
+        byte[] samples = {1, 0, 2, 0, -3, -1, 4, 0};
+        AudioFormat format = new AudioFormat(8000, 16, 1, true, false);
+
+        AssetPackWriter writer = new AssetPackWriter();
+        writer.addImage(IMAGE, image);
+        writer.addFile("levels/1.txt", "wall".getBytes(StandardCharsets.UTF_8));
+        writer.addSound("jump.wav", new AudioInputStream(new ByteArrayInputStream(samples), format, samples.length / 2));
+        writer.write(this.newPackFile());
+
+        AssetPack pack = AssetPack.open(this.file);
+
+        assertThat(pack.getNames().size()).isEqualTo(3);
+        assertThat(pack.contains("missing.png")).isFalse();
+
+        BufferedImage read = pack.readImage(IMAGE);
+        assertThat(read.getWidth()).isEqualTo(3);
+        assertThat(read.getHeight()).isEqualTo(2);
+        for (int y = 0; y < 2; y++)
+            for (int x = 0; x < 3; x++)
+                assertThat(read.getRGB(x, y)).isEqualTo(image.getRGB(x, y));
+
+        ByteBuffer text = pack.getBuffer("levels/1.txt");
+        byte[] bytes = new byte[text.remaining()];
+        text.get(bytes);
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("wall");
+
+        assertThat(pack.isAudio("jump.wav")).isTrue();
+        AudioInputStream sound = pack.getAudioInputStream("jump.wav");
+        assertThat(sound.getFormat().getSampleRate()).isEqualTo(8000f);
+        assertThat(sound.getFrameLength()).isEqualTo(4L);
+        byte[] readSamples = new byte[samples.length];
+        assertThat(sound.read(readSamples)).isEqualTo(samples.length);
+        for (int i = 0; i < samples.length; i++) assertThat(readSamples[i]).isEqualTo(samples[i]);
+    }
+
+    @Test
+    void aTruncatedIndexIsRejected() throws IOException {
+
+        this.writeImagePack();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "rw")) {
+            randomAccessFile.setLength(LENGTH);
+        }
+
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining("truncated at entry 0");
+    }
+
+    @Test
+    void entriesOutsideOfTheFileAreRejected() throws IOException {
+
+        this.writeImagePack();
+        this.patchLong(LENGTH, -1);
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining(IMAGE);
+
+        this.writeImagePack();
+        this.patchLong(OFFSET, -8);
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining(IMAGE);
+
+        this.writeImagePack();
+        this.patchLong(OFFSET, 1 << 20);
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining(IMAGE);
+
+        // offset + length overflows a long
+        this.writeImagePack();
+        this.patchLong(OFFSET, Long.MAX_VALUE);
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining(IMAGE);
+    }
+
+    @Test
+    void pixelsWhichDoNotMatchTheirSizeAreRejected() throws IOException {
+
+        this.writeImagePack();
+        this.patchInt(WIDTH, 4);
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining(IMAGE);
+
+        this.writeImagePack();
+        this.patchInt(WIDTH, -3);
+        this.patchInt(WIDTH + 4, -2);
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining(IMAGE);
+
+        // 4 * 65536 * 65536 bytes overflow an int
+        this.writeImagePack();
+        this.patchInt(WIDTH, 65536);
+        this.patchInt(WIDTH + 4, 65536);
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining(IMAGE);
+    }
+
+    @Test
+    void unknownTypesAreRejected() throws IOException {
+
+        this.writeImagePack();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "rw")) {
+            randomAccessFile.seek(TYPE);
+            randomAccessFile.writeByte(9);
+        }
+
+        assertThatThrownBy(() -> AssetPack.open(this.file)).isInstanceOf(IOException.class).hasMessageContaining(IMAGE);
+    }
+
+    // a new pack with a 3*2 image as its first entry, a pack which is still mapped is never written again
+    private void writeImagePack() throws IOException {
+        AssetPackWriter writer = new AssetPackWriter();
+        writer.addImage(IMAGE, new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB));
+        writer.addFile("levels/1.txt", new byte[10]);
+        writer.write(this.newPackFile());
+    }
+
+    private File newPackFile() throws IOException {
+        this.file = File.createTempFile("assets", ".mpak");
+        this.file.deleteOnExit();
+        return this.file;
+    }
+
+    private void patchLong(int position, long value) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "rw")) {
+            randomAccessFile.seek(position);
+            randomAccessFile.writeLong(value);
+        }
+    }
+
+    private void patchInt(int position, int value) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "rw")) {
+            randomAccessFile.seek(position);
+            randomAccessFile.writeInt(value);
+        }
+    }
+}
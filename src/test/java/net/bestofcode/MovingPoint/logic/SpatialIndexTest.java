@@ -0,0 +1,154 @@
+package net.bestofcode.MovingPoint.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.SpatialIndexTest
+ * Checks that queries find exactly the objects inside of the rectangle, also
+ * across cell borders and for negative coordinates, and that freeing a cell
+ * keeps the probe sequences of the other cells intact.
+ */
+class SpatialIndexTest {
+
+    private final SpatialIndex<String> index = new SpatialIndex<String>(1);
+
+    @Test
+    void queryFindsObjectsOfAllOverlappedCells() {
+
+        this.index.insert("left", 0.99, 0.5);
+        this.index.insert("border", 1.0, 0.5);
+        this.index.insert("right", 1.01, 0.5);
+        this.index.insert("far", 2.5, 2.5);
+
+        assertThat(this.query(0.5, 0, 1.5, 1)).containsExactlyInAnyOrder("left", "border", "right");
+        assertThat(this.query(1.0, 0.5, 1.0, 0.5)).containsExactlyInAnyOrder("border");
+        assertThat(this.query(1.5, 1.5, 3, 3)).containsExactlyInAnyOrder("far");
+    }
+
+    @Test
+    void queryFindsObjectsAtNegativeCoordinates() {
+
+        this.index.insert("a", -0.5, -0.5);
+        this.index.insert("b", -1.0, -1.0);
+        this.index.insert("c", -1.01, 0);
+        this.index.insert("d", 0, 0);
+
+        assertThat(this.query(-1, -1, 0, 0)).containsExactlyInAnyOrder("a", "b", "d");
+        assertThat(this.query(-2, -0.1, -1.005, 0.1)).containsExactlyInAnyOrder("c");
+        assertThat(this.query(-0.9, -0.9, -0.6, -0.6)).isEmpty();
+    }
+
+    @Test
+    void movedAndRemovedObjectsAreFoundAtTheirNewPlace() {
+
+        this.index.insert("a", 0.5, 0.5);
+        this.index.insert("b", 0.6, 0.6);
+
+        this.index.move("a", -3.5, 7.5);
+        assertThat(this.query(0, 0, 1, 1)).containsExactlyInAnyOrder("b");
+        assertThat(this.query(-4, 7, -3, 8)).containsExactlyInAnyOrder("a");
+
+        assertThat(this.index.remove("b")).isTrue();
+        assertThat(this.index.remove("b")).isFalse();
+        assertThat(this.query(0, 0, 1, 1)).isEmpty();
+        assertThat(this.index.getNumberOfCells()).isEqualTo(1);
+    }
+
+    @Test
+    void removingACellKeepsProbeSequencesWhichWrapAroundTheTable() {
+
+        int capacity = this.index.getCapacity();
+        List<String> lastSlot = this.insertIntoHomeSlot(capacity - 1, 4, "last");
+        List<String> firstSlot = this.insertIntoHomeSlot(0, 2, "first");
+
+        // the cells of the last slot fill it and wrap around into the first slots, the cells of slot 0 follow them
+        assertThat(this.index.getCapacity()).isEqualTo(capacity);
+        assertThat(this.index.getNumberOfCells()).isEqualTo(6);
+
+        // freeing the home slot has to shift the wrapped cells back, otherwise they are not found anymore
+        this.index.remove(lastSlot.get(0));
+        this.assertFound(lastSlot.subList(1, 4));
+        this.assertFound(firstSlot);
+
+        this.index.remove(firstSlot.get(0));
+        this.index.remove(lastSlot.get(2));
+        this.assertFound(lastSlot.subList(1, 2));
+        this.assertFound(lastSlot.subList(3, 4));
+        this.assertFound(firstSlot.subList(1, 2));
+        assertThat(this.index.getNumberOfCells()).isEqualTo(3);
+    }
+
+    @Test
+    void queriesMatchAScanOfAllObjects() {
+
+        Random random = new Random(42);
+        String[] names = new String[500];
+        double[] x = new double[500];
+        double[] y = new double[500];
+        boolean[] stored = new boolean[500];
+
+        for (int i = 0; i < names.length; i++) names[i] = "object " + i;
+
+        for (int operation = 0; operation < 20000; operation++) {
+
+            int object = random.nextInt(500);
+
+            if (stored[object] && random.nextInt(4) == 0) {
+                this.index.remove(names[object]);
+                stored[object] = false;
+            } else {
+                x[object] = random.nextDouble() * 40 - 20;
+                y[object] = random.nextDouble() * 40 - 20;
+                this.index.insert(names[object], x[object], y[object]);
+                stored[object] = true;
+            }
+
+            if (operation % 100 != 0) continue;
+
+            double minimumX = random.nextDouble() * 40 - 20;
+            double minimumY = random.nextDouble() * 40 - 20;
+            double maximumX = minimumX + random.nextDouble() * 10;
+            double maximumY = minimumY + random.nextDouble() * 10;
+
+            HashSet<String> expected = new HashSet<String>();
+            for (int i = 0; i < 500; i++)
+                if (stored[i] && x[i] >= minimumX && x[i] <= maximumX && y[i] >= minimumY && y[i] <= maximumY)
+                    expected.add(names[i]);
+
+            assertThat(new HashSet<String>(this.query(minimumX, minimumY, maximumX, maximumY))).isEqualTo(expected);
+        }
+    }
+
+    private List<String> query(double minimumX, double minimumY, double maximumX, double maximumY) {
+        List<String> result = new ArrayList<String>();
+        this.index.query(minimumX, minimumY, maximumX, maximumY, result);
+        return result;
+    }
+
+    // inserts objects at the centers of cells of row 0 whose probe sequence starts at the slot, the objects are named by their column
+    private List<String> insertIntoHomeSlot(int slot, int count, String prefix) {
+        List<String> objects = new ArrayList<String>();
+        for (int column = 0; objects.size() < count; column++) {
+            if (this.index.homeSlotOf(column + 0.5, 0.5) != slot) continue;
+            String object = prefix + " " + column;
+            this.index.insert(object, column + 0.5, 0.5);
+            objects.add(object);
+        }
+        return objects;
+    }
+
+    // every object is found at its own cell and nothing else is found there
+    private void assertFound(List<String> objects) {
+        for (String object : objects) {
+            double column = Integer.parseInt(object.substring(object.indexOf(' ') + 1)) + 0.5;
+            assertThat(this.query(column, 0, column, 1)).containsExactly(object);
+        }
+    }
+}
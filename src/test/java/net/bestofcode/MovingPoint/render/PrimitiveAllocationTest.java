@@ -0,0 +1,164 @@
+package net.bestofcode.MovingPoint.render;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.PrimitiveAllocationTest
+ * Draws 10000 primitives of every kind per frame and checks how many bytes the
+ * drawing thread allocates per primitive once the JIT has warmed up, since
+ * 10000 circles per frame would otherwise keep the garbage collector busy.
+ * With the render thread the primitives are only recorded into the command
+ * buffer, which has to be allocation-free as well once it has grown to the
+ * size of a frame. The canvas is headless, so no display is needed.
+ */
+class PrimitiveAllocationTest {
+
+    private static final int PRIMITIVES_PER_FRAME = 10000;
+    private static final int WARMUP_FRAMES = 50;
+    private static final int MEASURED_FRAMES = 20;
+
+    // bytes per primitive which are tolerated as noise, e.g. by the allocation counter itself
+    private static final double MAXIMUM_BYTES_PER_PRIMITIVE = 0.5;
+
+    private static final double[] POLYGON_X = {-0.02, 0.02, 0.0};
+    private static final double[] POLYGON_Y = {-0.02, -0.02, 0.02};
+
+    private static com.sun.management.ThreadMXBean allocations;
+
+    private GraphicalComponent graphicalComponent;
+
+    private interface Primitive {
+        void draw(GraphicalComponent graphicalComponent, double x, double y);
+    }
+
+    @BeforeAll
+    static void enableAllocationCounter() {
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported(),
+                "this JVM can't measure allocations per thread");
+
+        allocations = (com.sun.management.ThreadMXBean) threads;
+        allocations.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @BeforeEach
+    void createCanvas() {
+        this.graphicalComponent = new GraphicalComponent(RenderMode.HEADLESS);
+        this.graphicalComponent.setXscale(-1, 1);
+        this.graphicalComponent.setYscale(-1, 1);
+        this.graphicalComponent.enableDoubleBuffering();
+    }
+
+    @Test
+    void filledCircleDoesNotAllocate() {
+        assertThat(this.bytesPerPrimitive((g, x, y) -> g.filledCircle(x, y, 0.01))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void circleDoesNotAllocate() {
+        assertThat(this.bytesPerPrimitive((g, x, y) -> g.circle(x, y, 0.01))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void squareDoesNotAllocate() {
+        assertThat(this.bytesPerPrimitive((g, x, y) -> g.square(x, y, 0.01))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void filledRectangleDoesNotAllocate() {
+        assertThat(this.bytesPerPrimitive((g, x, y) -> g.filledRectangle(x, y, 0.02, 0.01))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void lineDoesNotAllocate() {
+        assertThat(this.bytesPerPrimitive((g, x, y) -> g.line(x, y, -x, -y))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void filledPolygonDoesNotAllocate() {
+        assertThat(this.bytesPerPrimitive((g, x, y) -> g.filledPolygon(POLYGON_X, POLYGON_Y))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void recordedFilledCircleDoesNotAllocate() {
+        assertThat(this.recordedBytesPerPrimitive((g, x, y) -> g.filledCircle(x, y, 0.01))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void recordedCircleDoesNotAllocate() {
+        assertThat(this.recordedBytesPerPrimitive((g, x, y) -> g.circle(x, y, 0.01))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void recordedSquareDoesNotAllocate() {
+        assertThat(this.recordedBytesPerPrimitive((g, x, y) -> g.square(x, y, 0.01))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void recordedFilledRectangleDoesNotAllocate() {
+        assertThat(this.recordedBytesPerPrimitive((g, x, y) -> g.filledRectangle(x, y, 0.02, 0.01))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void recordedLineDoesNotAllocate() {
+        assertThat(this.recordedBytesPerPrimitive((g, x, y) -> g.line(x, y, -x, -y))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    @Test
+    void recordedFilledPolygonDoesNotAllocate() {
+        assertThat(this.recordedBytesPerPrimitive((g, x, y) -> g.filledPolygon(POLYGON_X, POLYGON_Y))).isLessThanOrEqualTo(MAXIMUM_BYTES_PER_PRIMITIVE);
+    }
+
+    // the bytes allocated by the test thread per recorded primitive, the render thread draws the frames
+    private double recordedBytesPerPrimitive(Primitive primitive) {
+
+        this.graphicalComponent.enableRenderThread();
+
+        try {
+            return this.bytesPerPrimitive(primitive);
+        } finally {
+            this.graphicalComponent.disableRenderThread();
+        }
+    }
+
+    // the bytes allocated by the test thread per drawn primitive, after the JIT has warmed up
+    private double bytesPerPrimitive(Primitive primitive) {
+
+        long thread = Thread.currentThread().getId();
+
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++)
+            this.drawFrame(primitive);
+
+        long before = allocations.getThreadAllocatedBytes(thread);
+
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++)
+            this.drawFrame(primitive);
+
+        long after = allocations.getThreadAllocatedBytes(thread);
+
+        return (double) (after - before) / (MEASURED_FRAMES * PRIMITIVES_PER_FRAME);
+    }
+
+    private void drawFrame(Primitive primitive) {
+        for (int i = 0; i < PRIMITIVES_PER_FRAME; i++) {
+            double x = ((i * 7919) % 2000) / 1000.0 - 1;
+            double y = ((i * 104729) % 2000) / 1000.0 - 1;
+            primitive.draw(this.graphicalComponent, x, y);
+        }
+
+        // hands the recorded frame to the render thread, the recording buffer is reused by the next frame
+        if (this.graphicalComponent.isRenderThreadEnabled())
+            this.graphicalComponent.show();
+    }
+}
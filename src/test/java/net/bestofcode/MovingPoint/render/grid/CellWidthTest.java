@@ -0,0 +1,64 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.CellWidthTest
+ * Checks the range of every cell width and that decoding the stored bits
+ * gives back the state, with the sign of the signed widths.
+ */
+class CellWidthTest {
+
+    @Test
+    void statesAreDecodedAsTheyWereEncoded() {
+
+        for (CellWidth cellWidth : CellWidth.values()) {
+
+            int[] states = {cellWidth.getMinimumState(), cellWidth.getMinimumState() + 1, cellWidth.getEmptyState(),
+                    0, 1, cellWidth.getMaximumState() - 1, cellWidth.getMaximumState()};
+
+            for (int state : states) {
+                assertThat(cellWidth.fits(state)).isTrue();
+                assertThat(cellWidth.decode(cellWidth.encode(state))).isEqualTo(state);
+            }
+        }
+    }
+
+    @Test
+    void onlyTheBitsOfTheCellAreStored() {
+
+        assertThat(CellWidth.BIT.encode(1)).isEqualTo(1L);
+        assertThat(CellWidth.BYTE.encode(-1)).isEqualTo(0xffL);
+        assertThat(CellWidth.SHORT.encode(-1)).isEqualTo(0xffffL);
+        assertThat(CellWidth.INT.encode(-1)).isEqualTo(0xffffffffL);
+        assertThat(CellWidth.BYTE.encode(-128)).isEqualTo(0x80L);
+    }
+
+    @Test
+    void signedWidthsExtendTheSign() {
+
+        assertThat(CellWidth.BYTE.decode(0xffL)).isEqualTo(-1);
+        assertThat(CellWidth.SHORT.decode(0xffffL)).isEqualTo(-1);
+        assertThat(CellWidth.INT.decode(0xffffffffL)).isEqualTo(-1);
+        assertThat(CellWidth.BYTE.decode(0x7fL)).isEqualTo(127);
+        assertThat(CellWidth.SHORT.decode(0x8000L)).isEqualTo(-32768);
+
+        // BIT cells are not signed, so 1 stays 1
+        assertThat(CellWidth.BIT.decode(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void statesOutsideOfTheRangeDoNotFit() {
+
+        assertThat(CellWidth.BIT.fits(-1)).isFalse();
+        assertThat(CellWidth.BIT.fits(2)).isFalse();
+        assertThat(CellWidth.BYTE.fits(128)).isFalse();
+        assertThat(CellWidth.BYTE.fits(-129)).isFalse();
+        assertThat(CellWidth.SHORT.fits(32768)).isFalse();
+        assertThat(CellWidth.INT.fits(Integer.MIN_VALUE)).isTrue();
+        assertThat(CellWidth.BIT.getEmptyState()).isEqualTo(0);
+        assertThat(CellWidth.INT.getEmptyState()).isEqualTo(-1);
+    }
+}
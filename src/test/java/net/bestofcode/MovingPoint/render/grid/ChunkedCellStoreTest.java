@@ -0,0 +1,290 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.ChunkedCellStoreTest
+ * Checks the table of the chunks for positions far apart, the compression of
+ * cold chunks into runs and back, the shortcuts of fill, copy and
+ * forEachExcept, and compares random changes with a DenseCellStore.
+ */
+class ChunkedCellStoreTest {
+
+    // a dense chunk of BYTE cells takes 64*64 bytes, a compressed run 6 bytes
+    private static final long DENSE_CHUNK_BYTES = 4096;
+    private static final long RUN_BYTES = 6;
+
+    @Test
+    void chunksFarApartDoNotShareTheirKey() {
+
+        ChunkedCellStore store = new ChunkedCellStore(Integer.MAX_VALUE, Integer.MAX_VALUE, CellWidth.BYTE);
+        int last = Integer.MAX_VALUE - 1;
+
+        store.set(last, 0, 1);
+        store.set(0, last, 2);
+        store.set(last, last, 3);
+        store.set(64, 0, 4);
+        store.set(0, 64, 5);
+
+        assertThat(store.get(last, 0)).isEqualTo(1);
+        assertThat(store.get(0, last)).isEqualTo(2);
+        assertThat(store.get(last, last)).isEqualTo(3);
+        assertThat(store.get(64, 0)).isEqualTo(4);
+        assertThat(store.get(0, 64)).isEqualTo(5);
+        assertThat(store.get(0, 0)).isEqualTo(-1);
+        assertThat(store.get(64, 64)).isEqualTo(-1);
+        assertThat(store.getNumberOfChunks()).isEqualTo(5);
+    }
+
+    @Test
+    void coldChunksAreCompressedIntoRuns() {
+
+        ChunkedCellStore store = new ChunkedCellStore(128, 64, CellWidth.BYTE);
+        DenseCellStore expected = emptyDenseStore(128, 64, CellWidth.BYTE);
+
+        // eight stripes of equal rows and a chunk which is written and emptied again
+        for (int row = 0; row < 64; row++) {
+            store.fill(0, row, 64, 1, row / 8);
+            expected.fill(0, row, 64, 1, row / 8);
+        }
+        store.set(100, 10, 7);
+        store.set(100, 10, -1);
+
+        // the chunks were written since the previous call
+        assertThat(store.compressColdChunks()).isEqualTo(0);
+        assertThat(store.getSizeInBytes()).isEqualTo(2 * DENSE_CHUNK_BYTES);
+
+        assertThat(store.compressColdChunks()).isEqualTo(2);
+        assertThat(store.getNumberOfChunks()).isEqualTo(1);
+        assertThat(store.getSizeInBytes()).isEqualTo(8 * RUN_BYTES);
+        assertSameCells(expected, store);
+    }
+
+    @Test
+    void writingIntoACompressedChunkExpandsItAgain() {
+
+        ChunkedCellStore store = new ChunkedCellStore(64, 64, CellWidth.SHORT);
+        DenseCellStore expected = emptyDenseStore(64, 64, CellWidth.SHORT);
+
+        // runs which end inside of a row and span several rows
+        store.fill(0, 0, 64, 64, 300);
+        expected.fill(0, 0, 64, 64, 300);
+        store.fill(10, 3, 50, 20, -200);
+        expected.fill(10, 3, 50, 20, -200);
+
+        store.compressColdChunks();
+        store.compressColdChunks();
+        assertThat(store.getSizeInBytes()).isLessThan(64 * 64 * 2);
+
+        store.set(63, 63, 5);
+        expected.set(63, 63, 5);
+
+        assertThat(store.getSizeInBytes()).isEqualTo(64 * 64 * 2);
+        assertSameCells(expected, store);
+    }
+
+    @Test
+    void forEachExceptFindsTheWrittenChunksOfALargeRegion() {
+
+        ChunkedCellStore store = new ChunkedCellStore(100000, 100000, CellWidth.INT);
+
+        store.set(5, 5, 1);
+        store.set(99999, 7, 2);
+        store.set(50000, 99999, 3);
+        store.fill(640, 640, 64, 64, -1);
+        store.fill(1280, 1280, 64, 64, 9);
+
+        // the region covers far more chunks than the table has slots
+        List<String> cells = this.visitExcept(store, 0, 0, 100000, 100000, -1);
+        assertThat(cells).hasSize(3 + 64 * 64);
+        assertThat(cells.contains("5,5=1")).isTrue();
+        assertThat(cells.contains("1343,1343=9")).isTrue();
+
+        assertThat(this.visitExcept(store, 0, 0, 60000, 100000, -1).contains("99999,7=2")).isFalse();
+        assertThat(this.visitExcept(store, 40000, 90000, 60000, 10000, -1)).containsExactly("50000,99999=3");
+
+        // a small region walks through its chunks, a uniform chunk of the skipped state is jumped over
+        assertThat(this.visitExcept(store, 4, 5, 3, 1, 7)).containsExactly("4,5=-1", "5,5=1", "6,5=-1");
+        assertThat(this.visitExcept(store, 1280, 1280, 64, 64, 9)).isEmpty();
+    }
+
+    @Test
+    void fillReplacesWholeChunksByASingleRun() {
+
+        ChunkedCellStore store = new ChunkedCellStore(200, 200, CellWidth.BYTE);
+        DenseCellStore expected = emptyDenseStore(200, 200, CellWidth.BYTE);
+
+        // only the chunk in the middle is covered completely
+        store.fill(10, 20, 150, 130, 5);
+        expected.fill(10, 20, 150, 130, 5);
+
+        assertThat(store.getNumberOfChunks()).isEqualTo(9);
+        assertThat(store.getSizeInBytes()).isEqualTo(8 * DENSE_CHUNK_BYTES + RUN_BYTES);
+        assertSameCells(expected, store);
+
+        // filling a uniform chunk with its own state keeps it compressed
+        store.fill(70, 70, 10, 10, 5);
+        assertThat(store.getSizeInBytes()).isEqualTo(8 * DENSE_CHUNK_BYTES + RUN_BYTES);
+
+        store.fill(64, 64, 64, 64, -1);
+        expected.fill(64, 64, 64, 64, -1);
+        assertThat(store.getNumberOfChunks()).isEqualTo(8);
+        assertSameCells(expected, store);
+
+        store.fill(0, 0, 200, 200, -1);
+        assertThat(store.getNumberOfChunks()).isEqualTo(0);
+        assertThat(store.get(100, 100)).isEqualTo(-1);
+    }
+
+    @Test
+    void alignedCopiesShareCompressedChunks() {
+
+        ChunkedCellStore source = new ChunkedCellStore(256, 128, CellWidth.BYTE);
+        source.fill(0, 0, 64, 64, 3);
+        source.fill(64, 0, 64, 32, 4);
+        source.compressColdChunks();
+        source.compressColdChunks();
+
+        ChunkedCellStore store = new ChunkedCellStore(256, 128, CellWidth.BYTE);
+        store.set(130, 70, 1);
+        store.copy(source, 0, 0, 128, 64, 128, 64);
+
+        assertThat(store.getNumberOfChunks()).isEqualTo(2);
+        assertThat(store.getSizeInBytes()).isEqualTo(RUN_BYTES + 2 * RUN_BYTES);
+        assertThat(store.get(128, 64)).isEqualTo(3);
+        assertThat(store.get(130, 70)).isEqualTo(3);
+        assertThat(store.get(192, 64)).isEqualTo(4);
+        assertThat(store.get(192, 127)).isEqualTo(-1);
+
+        // writing into a shared chunk does not change the source
+        store.set(128, 64, 9);
+        assertThat(source.get(0, 0)).isEqualTo(3);
+    }
+
+    @Test
+    void unalignedCopiesFillTheRunsOfCompressedChunks() {
+
+        ChunkedCellStore source = new ChunkedCellStore(128, 128, CellWidth.BYTE);
+        DenseCellStore expectedSource = emptyDenseStore(128, 128, CellWidth.BYTE);
+
+        for (int row = 0; row < 128; row += 3) {
+            source.fill(row % 50, row, 40 + row % 30, 2, row % 100);
+            expectedSource.fill(row % 50, row, 40 + row % 30, 2, row % 100);
+        }
+        source.compressColdChunks();
+        source.compressColdChunks();
+        assertThat(source.getSizeInBytes()).isLessThan(4 * DENSE_CHUNK_BYTES);
+
+        ChunkedCellStore store = new ChunkedCellStore(200, 200, CellWidth.BYTE);
+        DenseCellStore expected = emptyDenseStore(200, 200, CellWidth.BYTE);
+        store.fill(0, 0, 200, 200, 1);
+        expected.fill(0, 0, 200, 200, 1);
+
+        store.copy(source, 5, 7, 20, 30, 120, 110);
+        expected.copy(expectedSource, 5, 7, 20, 30, 120, 110);
+
+        assertSameCells(expected, store);
+    }
+
+    @Test
+    void copyingEmptyCellsAllocatesNoChunk() {
+
+        ChunkedCellStore store = new ChunkedCellStore(300, 300, CellWidth.BYTE);
+
+        store.copy(new ChunkedCellStore(300, 300, CellWidth.BYTE), 5, 7, 100, 30, 150, 200);
+        store.copy(emptyDenseStore(100, 100, CellWidth.BYTE), 0, 0, 37, 11, 100, 100);
+        store.copy(store, 0, 0, 50, 50, 200, 200);
+
+        assertThat(store.getNumberOfChunks()).isEqualTo(0);
+    }
+
+    @Test
+    void randomChangesMatchADenseStore() {
+
+        Random random = new Random(7);
+        ChunkedCellStore store = new ChunkedCellStore(200, 150, CellWidth.BYTE);
+        ChunkedCellStore other = new ChunkedCellStore(200, 150, CellWidth.BYTE);
+        DenseCellStore expected = emptyDenseStore(200, 150, CellWidth.BYTE);
+        DenseCellStore expectedOther = emptyDenseStore(200, 150, CellWidth.BYTE);
+
+        for (int operation = 0; operation < 400; operation++) {
+
+            int columns = random.nextInt(140) + 1;
+            int rows = random.nextInt(100) + 1;
+            int column = random.nextInt(200 - columns + 1);
+            int row = random.nextInt(150 - rows + 1);
+            int sourceColumn = random.nextInt(200 - columns + 1);
+            int sourceRow = random.nextInt(150 - rows + 1);
+            int state = random.nextInt(256) - 128;
+
+            // aligned copies take the shortcut of whole chunks
+            if (random.nextInt(4) == 0) {
+                column &= ~63;
+                row &= ~63;
+                sourceColumn &= ~63;
+                sourceRow &= ~63;
+            }
+
+            switch (random.nextInt(7)) {
+                case 0:
+                    store.set(column, row, state);
+                    expected.set(column, row, state);
+                    break;
+                case 1:
+                    store.fill(column, row, columns, rows, state);
+                    expected.fill(column, row, columns, rows, state);
+                    other.fill(sourceColumn, sourceRow, columns, rows, -state - 1);
+                    expectedOther.fill(sourceColumn, sourceRow, columns, rows, -state - 1);
+                    break;
+                case 2:
+                    store.copy(other, sourceColumn, sourceRow, column, row, columns, rows);
+                    expected.copy(expectedOther, sourceColumn, sourceRow, column, row, columns, rows);
+                    break;
+                case 3:
+                    store.copy(store, sourceColumn, sourceRow, column, row, columns, rows);
+                    expected.copy(expected, sourceColumn, sourceRow, column, row, columns, rows);
+                    break;
+                case 4:
+                    store.copy(expectedOther, sourceColumn, sourceRow, column, row, columns, rows);
+                    expected.copy(expectedOther, sourceColumn, sourceRow, column, row, columns, rows);
+                    break;
+                case 5:
+                    other.copy(store, sourceColumn, sourceRow, column, row, columns, rows);
+                    expectedOther.copy(expected, sourceColumn, sourceRow, column, row, columns, rows);
+                    break;
+                default:
+                    store.compressColdChunks();
+                    other.compressColdChunks();
+            }
+
+            assertSameCells(expected, store);
+            assertSameCells(expectedOther, other);
+        }
+    }
+
+    private List<String> visitExcept(CellStore store, int column, int row, int columns, int rows, int skippedState) {
+        List<String> cells = new ArrayList<String>();
+        store.forEachExcept(column, row, columns, rows, skippedState, (cellColumn, cellRow, state) -> cells.add(cellColumn + "," + cellRow + "=" + state));
+        return cells;
+    }
+
+    // a DenseCellStore starts with 0, the empty state of the signed widths is -1
+    private static DenseCellStore emptyDenseStore(int columns, int rows, CellWidth cellWidth) {
+        DenseCellStore store = new DenseCellStore(columns, rows, cellWidth);
+        store.fill(cellWidth.getEmptyState());
+        return store;
+    }
+
+    private static void assertSameCells(CellStore expected, CellStore actual) {
+        for (int row = 0; row < expected.getRows(); row++)
+            for (int column = 0; column < expected.getColumns(); column++)
+                if (expected.get(column, row) != actual.get(column, row))
+                    assertThat(actual.get(column, row)).isEqualTo(expected.get(column, row));
+    }
+}
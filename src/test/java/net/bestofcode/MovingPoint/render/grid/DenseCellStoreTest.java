@@ -0,0 +1,190 @@
+package net.bestofcode.MovingPoint.render.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.DenseCellStoreTest
+ * Checks filling and copying of regions which start and end inside of the
+ * packed longs, copies between cells at different positions of their longs
+ * and copies of overlapping regions of the same store, for every cell width.
+ */
+class DenseCellStoreTest {
+
+    // odd sizes, so the rows do not start at the beginning of a long
+    private static final int COLUMNS = 77;
+    private static final int ROWS = 13;
+
+    @Test
+    void cellsKeepTheirStatesInEveryWidth() {
+
+        for (CellWidth cellWidth : CellWidth.values()) {
+
+            DenseCellStore store = new DenseCellStore(COLUMNS, ROWS, cellWidth);
+            int[][] expected = new int[ROWS][COLUMNS];
+            Random random = new Random(1);
+
+            for (int row = 0; row < ROWS; row++) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    expected[row][column] = randomState(random, cellWidth);
+                    store.set(column, row, expected[row][column]);
+                }
+            }
+
+            store.set(3, 4, cellWidth.getEmptyState());
+            expected[4][3] = cellWidth.getEmptyState();
+
+            assertSameCells(expected, store);
+        }
+    }
+
+    @Test
+    void fillCrossesTheBordersOfTheLongs() {
+
+        for (CellWidth cellWidth : CellWidth.values()) {
+
+            DenseCellStore store = new DenseCellStore(COLUMNS, ROWS, cellWidth);
+            int[][] expected = new int[ROWS][COLUMNS];
+            int state = cellWidth.getEmptyState() == -1 ? -1 : 1;
+
+            // whole rows are filled as one range, which starts and ends inside of a long
+            store.fill(0, 2, COLUMNS, 5, state);
+            fill(expected, 0, 2, COLUMNS, 5, state);
+
+            // partial rows, shorter and longer than a long
+            store.fill(3, 8, 70, 4, cellWidth.getMaximumState());
+            fill(expected, 3, 8, 70, 4, cellWidth.getMaximumState());
+            store.fill(60, 0, 3, 12, cellWidth.getMinimumState());
+            fill(expected, 60, 0, 3, 12, cellWidth.getMinimumState());
+
+            assertSameCells(expected, store);
+        }
+    }
+
+    @Test
+    void copyMatchesACellByCellCopy() {
+
+        for (CellWidth cellWidth : CellWidth.values()) {
+
+            Random random = new Random(2);
+            DenseCellStore source = randomStore(random, cellWidth);
+
+            for (int copy = 0; copy < 200; copy++) {
+
+                DenseCellStore store = randomStore(random, cellWidth);
+                int[][] expected = toArray(store);
+
+                int columns = random.nextInt(COLUMNS) + 1;
+                int rows = random.nextInt(ROWS) + 1;
+                int sourceColumn = random.nextInt(COLUMNS - columns + 1);
+                int sourceRow = random.nextInt(ROWS - rows + 1);
+                int column = random.nextInt(COLUMNS - columns + 1);
+                int row = random.nextInt(ROWS - rows + 1);
+
+                // every other copy keeps the cells at the same position inside of their longs
+                if (copy % 2 == 0) {
+                    column = sourceColumn;
+                    row = sourceRow;
+                }
+
+                store.copy(source, sourceColumn, sourceRow, column, row, columns, rows);
+                for (int i = 0; i < rows; i++)
+                    for (int j = 0; j < columns; j++)
+                        expected[row + i][column + j] = source.get(sourceColumn + j, sourceRow + i);
+
+                assertSameCells(expected, store);
+            }
+        }
+    }
+
+    @Test
+    void overlappingRegionsOfTheSameStoreAreCopiedAsTheyWereBefore() {
+
+        for (CellWidth cellWidth : CellWidth.values()) {
+
+            Random random = new Random(3);
+
+            for (int copy = 0; copy < 100; copy++) {
+
+                DenseCellStore store = randomStore(random, cellWidth);
+                int[][] before = toArray(store);
+                int[][] expected = toArray(store);
+
+                int columns = random.nextInt(COLUMNS - 10) + 10;
+                int rows = random.nextInt(ROWS - 3) + 3;
+                int sourceColumn = random.nextInt(COLUMNS - columns + 1);
+                int sourceRow = random.nextInt(ROWS - rows + 1);
+                int column = Math.max(0, Math.min(COLUMNS - columns, sourceColumn + random.nextInt(11) - 5));
+                int row = Math.max(0, Math.min(ROWS - rows, sourceRow + random.nextInt(3) - 1));
+
+                store.copy(store, sourceColumn, sourceRow, column, row, columns, rows);
+                for (int i = 0; i < rows; i++)
+                    for (int j = 0; j < columns; j++)
+                        expected[row + i][column + j] = before[sourceRow + i][sourceColumn + j];
+
+                assertSameCells(expected, store);
+            }
+        }
+    }
+
+    @Test
+    void copyBetweenWidthsConvertsTheStates() {
+
+        DenseCellStore source = new DenseCellStore(COLUMNS, ROWS, CellWidth.BYTE);
+        DenseCellStore store = new DenseCellStore(COLUMNS, ROWS, CellWidth.INT);
+
+        source.fill(-1);
+        source.set(5, 5, -128);
+        store.copy(source, 0, 0, 0, 0, COLUMNS, ROWS);
+
+        assertThat(store.get(5, 5)).isEqualTo(-128);
+        assertThat(store.get(6, 5)).isEqualTo(-1);
+    }
+
+    @Test
+    void statesAndRegionsOutsideOfTheStoreAreRejected() {
+
+        DenseCellStore store = new DenseCellStore(COLUMNS, ROWS, CellWidth.BYTE);
+
+        assertThatThrownBy(() -> store.set(0, 0, 128)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.get(COLUMNS, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.fill(70, 0, 8, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.copy(store, 0, 0, 0, 1, COLUMNS, ROWS)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int randomState(Random random, CellWidth cellWidth) {
+        long range = (long) cellWidth.getMaximumState() - cellWidth.getMinimumState() + 1;
+        return (int) (cellWidth.getMinimumState() + (long) (random.nextDouble() * range));
+    }
+
+    private static DenseCellStore randomStore(Random random, CellWidth cellWidth) {
+        DenseCellStore store = new DenseCellStore(COLUMNS, ROWS, cellWidth);
+        for (int row = 0; row < ROWS; row++)
+            for (int column = 0; column < COLUMNS; column++)
+                store.set(column, row, randomState(random, cellWidth));
+        return store;
+    }
+
+    private static int[][] toArray(CellStore store) {
+        int[][] states = new int[ROWS][COLUMNS];
+        store.forEach(0, 0, COLUMNS, ROWS, (column, row, state) -> states[row][column] = state);
+        return states;
+    }
+
+    private static void fill(int[][] states, int column, int row, int columns, int rows, int state) {
+        for (int i = row; i < row + rows; i++)
+            for (int j = column; j < column + columns; j++)
+                states[i][j] = state;
+    }
+
+    private static void assertSameCells(int[][] expected, CellStore store) {
+        for (int row = 0; row < ROWS; row++)
+            for (int column = 0; column < COLUMNS; column++)
+                if (expected[row][column] != store.get(column, row))
+                    assertThat(store.get(column, row)).isEqualTo(expected[row][column]);
+    }
+}
@@ -0,0 +1,140 @@
+package net.bestofcode.MovingPoint.render.texture;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * net.bestofcode.MovingPointGameEngine.TextureCacheTest
+ * Checks the eviction order and the byte budget of the TextureCache, its
+ * counters and that concurrent misses of the same texture decode it once.
+ */
+class TextureCacheTest {
+
+    // a 10*10 texture takes 400 bytes
+    private static final long TEXTURE_BYTES = 400;
+
+    @Test
+    void evictsTheLeastRecentlyUsedTexture() {
+
+        TextureCache<String> cache = new TextureCache<String>(2 * TEXTURE_BYTES);
+
+        cache.put("a", texture(10, 10));
+        cache.put("b", texture(10, 10));
+        cache.get("a", TextureCacheTest::failingLoader);
+        cache.put("c", texture(10, 10));
+
+        assertThat(cache.contains("a")).isTrue();
+        assertThat(cache.contains("b")).isFalse();
+        assertThat(cache.contains("c")).isTrue();
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsTheBytesInsideOfTheBudget() {
+
+        TextureCache<String> cache = new TextureCache<String>(3 * TEXTURE_BYTES);
+
+        cache.put("a", texture(10, 10));
+        cache.put("b", texture(10, 10));
+        cache.put("a", texture(10, 20));
+        assertThat(cache.getCurrentBytes()).isEqualTo(3 * TEXTURE_BYTES);
+
+        // a texture larger than the whole budget is not stored and evicts nothing
+        cache.put("huge", texture(100, 100));
+        assertThat(cache.contains("huge")).isFalse();
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.setMaximumBytes(2 * TEXTURE_BYTES);
+        assertThat(cache.contains("b")).isFalse();
+        assertThat(cache.getCurrentBytes()).isEqualTo(2 * TEXTURE_BYTES);
+
+        cache.remove("a");
+        assertThat(cache.getCurrentBytes()).isEqualTo(0);
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+
+        TextureCache<String> cache = new TextureCache<String>();
+
+        cache.get("a", path -> texture(10, 10));
+        cache.get("a", TextureCacheTest::failingLoader);
+        cache.get("a", TextureCacheTest::failingLoader);
+        assertThat(cache.find("b")).isNull();
+
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.getEvictions()).isEqualTo(0);
+    }
+
+    @Test
+    void concurrentMissesDecodeATextureOnce() throws InterruptedException {
+
+        TextureCache<String> cache = new TextureCache<String>();
+        AtomicInteger decoded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<TextureRegion> regions = new ArrayList<TextureRegion>();
+        List<Thread> threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                TextureRegion region = cache.getRegion("a", path -> {
+                    decoded.incrementAndGet();
+                    sleep(100);
+                    return texture(10, 10);
+                });
+                synchronized (regions) {
+                    regions.add(region);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        assertThat(decoded.get()).isEqualTo(1);
+        assertThat(regions).hasSize(8);
+        for (TextureRegion region : regions) assertThat(region).isSameAs(regions.get(0));
+    }
+
+    @Test
+    void aFailedDecodeIsTriedAgainByTheNextMiss() {
+
+        TextureCache<String> cache = new TextureCache<String>();
+
+        assertThatThrownBy(() -> cache.get("a", TextureCacheTest::failingLoader)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(cache.get("a", path -> texture(10, 10))).isNotNull();
+        assertThat(cache.contains("a")).isTrue();
+    }
+
+    private static BufferedImage texture(int width, int height) {
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private static BufferedImage failingLoader(String path) {
+        throw new IllegalArgumentException("texture " + path + " must not be decoded");
+    }
+
+    private static void sleep(long milliSeconds) {
+        try {
+            Thread.sleep(milliSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}